@@ -0,0 +1,37 @@
+package jcgp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JCGP micro-benchmarks with the GC profiler enabled, so that
+ * allocation rates are reported alongside the timings.
+ * <br><br>
+ * The benchmarks are kept in their own source tree, outside of the
+ * application sources, and must be compiled against jmh-core with the
+ * jmh-generator-annprocess annotation processor on the class path. Any
+ * standard JMH command line options can be given, for example a regular
+ * expression selecting the benchmarks to run or {@code -p columns=100} to
+ * restrict a parameter; by default, every benchmark in this package runs.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * @param args JMH command line options.
+	 * @throws RunnerException if a benchmark fails.
+	 * @throws CommandLineOptionException if the options are invalid.
+	 */
+	public static void main(String... args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,67 @@
+package jcgp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.ModifiableResources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the chromosome operations performed on every offspring:
+ * copying the genes of a parent with {@code copyGenes()} and computing
+ * the list of active nodes with {@code getActiveNodes()}. The active
+ * nodes are computed lazily, so {@code activeNodes} marks them for
+ * recomputation before every call.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChromosomeBenchmark {
+
+	@Param({"digital", "regression"})
+	public String problemType;
+
+	@Param({"1", "10"})
+	public int rows;
+
+	@Param({"100", "1000"})
+	public int columns;
+
+	@Param({"2", "3"})
+	public int arity;
+
+	private Chromosome parent, child;
+
+	@Setup
+	public void setUp() {
+		ModifiableResources resources = Fixtures.createResources(rows, columns, 3, 1, 2);
+		Fixtures.createProblem(problemType, resources, arity);
+		Population population = new Population(resources);
+		parent = population.get(0);
+		child = population.get(1);
+	}
+
+	@Benchmark
+	public Chromosome copyGenes() {
+		child.copyGenes(parent);
+		return child;
+	}
+
+	@Benchmark
+	public int activeNodes() {
+		parent.recomputeActiveNodes();
+		return parent.getActiveNodes().size();
+	}
+}
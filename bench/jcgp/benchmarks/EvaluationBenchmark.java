@@ -0,0 +1,94 @@
+package jcgp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jcgp.backend.modules.problem.TestCaseProblem;
+import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.Node;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.ModifiableResources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures chromosome evaluation for each test case problem.
+ * <br><br>
+ * {@code calculate} decodes a single output for one test case, which
+ * exercises {@code Output.calculate()} and the recursive calls to
+ * {@code Node.getValue()} beneath it. {@code nodeValue} evaluates the
+ * active node in the rightmost column directly, without going through
+ * an output. {@code evaluate} runs the problem's complete fitness
+ * evaluation over the whole population and every test case, as done
+ * once per generation.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EvaluationBenchmark {
+
+	@Param({"digital", "regression", "polynomial"})
+	public String problemType;
+
+	@Param({"1", "10"})
+	public int rows;
+
+	@Param({"100", "1000"})
+	public int columns;
+
+	@Param({"2", "3"})
+	public int arity;
+
+	@Param({"16", "1024"})
+	public int testCases;
+
+	private TestCaseProblem<?> problem;
+	private Population population;
+	private Chromosome chromosome;
+	private Node rootNode;
+	private Object[] inputs;
+
+	@Setup
+	public void setUp() {
+		ModifiableResources resources = Fixtures.createResources(rows, columns, 3, 1, 5);
+		problem = Fixtures.createProblem(problemType, resources, arity);
+		Fixtures.addRandomTestCases(problem, resources, testCases);
+		population = new Population(resources);
+
+		chromosome = population.get(0);
+		inputs = problem.getTestCase(0).getInputs();
+		chromosome.setInputs(inputs);
+		rootNode = chromosome.getNode(0, 0);
+		for (Node node : chromosome.getActiveNodes()) {
+			if (node.getColumn() > rootNode.getColumn()) {
+				rootNode = node;
+			}
+		}
+	}
+
+	@Benchmark
+	public Object calculate() {
+		chromosome.setInputs(inputs);
+		return chromosome.getOutput(0).calculate();
+	}
+
+	@Benchmark
+	public Object nodeValue() {
+		return rootNode.getValue();
+	}
+
+	@Benchmark
+	public double evaluate() {
+		problem.evaluate(population);
+		return population.get(0).getFitness();
+	}
+}
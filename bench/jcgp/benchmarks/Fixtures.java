@@ -0,0 +1,146 @@
+package jcgp.benchmarks;
+
+import java.util.Random;
+
+import jcgp.backend.function.FunctionSet;
+import jcgp.backend.modules.problem.DigitalCircuitProblem;
+import jcgp.backend.modules.problem.PolynomialProblem;
+import jcgp.backend.modules.problem.SymbolicRegressionProblem;
+import jcgp.backend.modules.problem.TestCaseProblem;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.ModifiableResources;
+
+/**
+ * Builds the experiments used by the benchmarks. Every fixture is
+ * created from a fixed seed, so the same parameters always produce
+ * the same chromosomes and test cases.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public final class Fixtures {
+
+	/**
+	 * The seed used for the resources and for generating test cases.
+	 */
+	public static final long SEED = 1234;
+
+	private Fixtures() {}
+
+	/**
+	 * Creates resources with the specified grid dimensions. Levels back
+	 * is set to the number of columns so that any node can connect to
+	 * any earlier column.
+	 *
+	 * @param rows the number of rows.
+	 * @param columns the number of columns.
+	 * @param inputs the number of inputs.
+	 * @param outputs the number of outputs.
+	 * @param populationSize the population size.
+	 * @return the new resources, without a function set.
+	 */
+	public static ModifiableResources createResources(int rows, int columns, int inputs, int outputs, int populationSize) {
+		ModifiableResources resources = new ModifiableResources();
+		resources.setRows(rows);
+		resources.setColumns(columns);
+		resources.setLevelsBack(columns);
+		resources.setInputs(inputs);
+		resources.setOutputs(outputs);
+		resources.setPopulationSize(populationSize);
+		resources.setReportInterval(0);
+		resources.setSeed(SEED);
+		return resources;
+	}
+
+	/**
+	 * Creates a test case problem by name and makes its function set the
+	 * experiment's function set. Functions with more arguments than the
+	 * specified arity are disabled, so the arity of the resources is the
+	 * largest arity of the remaining functions.
+	 *
+	 * @param name "digital", "regression" or "polynomial".
+	 * @param resources the experiment's resources.
+	 * @param arity the maximum arity of the function set.
+	 * @return the new problem.
+	 */
+	public static TestCaseProblem<?> createProblem(String name, ModifiableResources resources, int arity) {
+		TestCaseProblem<?> problem;
+		if (name.equals("digital")) {
+			problem = new DigitalCircuitProblem(resources);
+		} else if (name.equals("regression")) {
+			problem = new SymbolicRegressionProblem(resources);
+		} else if (name.equals("polynomial")) {
+			problem = new PolynomialProblem(resources);
+		} else {
+			throw new IllegalArgumentException("Unknown problem type: " + name);
+		}
+
+		FunctionSet functionSet = problem.getFunctionSet();
+		for (int f = 0; f < functionSet.getTotalFunctionCount(); f++) {
+			if (functionSet.getFunction(f).getArity() > arity) {
+				functionSet.disableFunction(f);
+			}
+		}
+		resources.setFunctionSet(functionSet);
+		resources.setFitnessOrientation(problem.getFitnessOrientation());
+		return problem;
+	}
+
+	/**
+	 * Adds random test cases to a problem. The values are drawn from
+	 * the range the problem's data type can represent: unsigned 32-bit
+	 * integers for digital circuits, small integers for polynomials and
+	 * decimals between -1 and 1 for symbolic regression.
+	 *
+	 * @param problem the problem to add test cases to.
+	 * @param resources the experiment's resources.
+	 * @param count the number of test cases to add.
+	 */
+	public static void addRandomTestCases(TestCaseProblem<?> problem, ModifiableResources resources, int count) {
+		Random random = new Random(SEED);
+		int inputs = resources.inputs();
+		int outputs = resources.outputs();
+		double[] inputValues = new double[count * inputs];
+		double[] outputValues = new double[count * outputs];
+		for (int i = 0; i < inputValues.length; i++) {
+			inputValues[i] = randomValue(problem, random);
+		}
+		for (int o = 0; o < outputValues.length; o++) {
+			outputValues[o] = randomValue(problem, random);
+		}
+		problem.clearTestCases();
+		problem.addTestCases(inputValues, outputValues, count);
+	}
+
+	/**
+	 * Creates a population and assigns a random fitness to every
+	 * chromosome, so that evolutionary strategies have something
+	 * to select from.
+	 *
+	 * @param resources the experiment's resources.
+	 * @return the new population.
+	 */
+	public static Population createPopulation(ModifiableResources resources) {
+		Population population = new Population(resources);
+		Random random = new Random(SEED);
+		for (int i = 0; i < resources.populationSize(); i++) {
+			population.get(i).setFitness(random.nextDouble());
+		}
+		return population;
+	}
+
+	/**
+	 * @param problem the problem whose data type to use.
+	 * @param random the random number generator.
+	 * @return a random value.
+	 */
+	private static double randomValue(TestCaseProblem<?> problem, Random random) {
+		if (problem instanceof DigitalCircuitProblem) {
+			return random.nextInt() & 0xFFFFFFFFL;
+		} else if (problem instanceof PolynomialProblem) {
+			return random.nextInt(21) - 10;
+		} else {
+			return (random.nextDouble() * 2) - 1;
+		}
+	}
+}
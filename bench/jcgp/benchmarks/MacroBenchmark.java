@@ -0,0 +1,281 @@
+package jcgp.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import jcgp.JCGP;
+import jcgp.backend.statistics.StatisticsLogger;
+
+/**
+ * Runs complete, headless experiments on a fixed set of problems and
+ * reports their throughput.
+ * <br><br>
+ * The problems are the ones bundled in the res/ directory, along with
+ * larger ones generated on the fly: the 5-bit even parity circuit and
+ * the quintic polynomial sampled at 10000 points. Every experiment uses
+ * a fixed seed, so it performs exactly the same work every time. For each
+ * problem, the wall time, the number of fitness evaluations and evaluations
+ * per second, the average generations to solution and the peak heap usage
+ * are recorded. Messages printed by the experiments are discarded.
+ * <br><br>
+ * Results are written as a CSV file with one line per problem. If a baseline
+ * file written by a previous run is given, the throughput of every problem
+ * is compared with it, and the runner exits with status 1 if any problem is
+ * slower than the baseline by more than the tolerance (10% by default).
+ * A change in the number of evaluations means the search itself behaves
+ * differently, which is reported separately.
+ * <br><br>
+ * Usage: {@code MacroBenchmark <results.csv> [baseline.csv] [tolerance]}.
+ * The directory containing the problem files can be set with the system
+ * property {@code jcgp.res}, and defaults to res/.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class MacroBenchmark {
+
+	/**
+	 * The first line of a results file.
+	 */
+	public static final String HEADER = "problem,wall_ms,evaluations,evaluations_per_s,successful_runs,runs,generations_to_solution,peak_heap_mb";
+
+	private static final long SEED = 173156789;
+
+	/**
+	 * A single benchmarked experiment.
+	 */
+	private static class Case {
+		private final String name;
+		private final int problem;
+		private final File file;
+		private final int columns, generations, runs;
+
+		private Case(String name, int problem, File file, int columns, int generations, int runs) {
+			this.name = name;
+			this.problem = problem;
+			this.file = file;
+			this.columns = columns;
+			this.generations = generations;
+			this.runs = runs;
+		}
+	}
+
+	/**
+	 * @param args the results file, optionally followed by a baseline file and a tolerance.
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static void main(String... args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: MacroBenchmark <results.csv> [baseline.csv] [tolerance]");
+			System.exit(2);
+		}
+		File res = new File(System.getProperty("jcgp.res", "res"));
+		File generated = Files.createTempDirectory("jcgp-bench").toFile();
+
+		ArrayList<Case> cases = new ArrayList<Case>();
+		cases.add(new Case("epar3", 0, new File(res, "epar3.plu"), 100, 10000, 10));
+		cases.add(new Case("mult2", 0, new File(res, "mult2.plu"), 100, 10000, 10));
+		cases.add(new Case("mult3", 0, new File(res, "mult3.plu"), 200, 10000, 3));
+		cases.add(new Case("mult4", 0, new File(res, "mult4.plu"), 200, 5000, 1));
+		cases.add(new Case("quintic", 1, new File(res, "quintic-polynomial.dat"), 100, 10000, 5));
+		cases.add(new Case("epar5", 0, writeParity(new File(generated, "epar5.plu")), 200, 10000, 3));
+		cases.add(new Case("quintic-10k", 1, writeQuintic(new File(generated, "quintic-10k.dat"), 10000), 100, 500, 1));
+
+		PrintStream out = System.out;
+		ArrayList<String> results = new ArrayList<String>();
+		try {
+			// warm up the JIT so that the first case is not penalised
+			run(cases.get(0), 1000, 1);
+			for (Case c : cases) {
+				String result = run(c, c.generations, c.runs);
+				results.add(result);
+				out.println(result);
+			}
+		} finally {
+			System.setOut(out);
+			for (File f : generated.listFiles()) {
+				f.delete();
+			}
+			generated.delete();
+		}
+
+		try (PrintWriter writer = new PrintWriter(new File(args[0]), "UTF-8")) {
+			writer.println(HEADER);
+			for (String result : results) {
+				writer.println(result);
+			}
+		}
+		out.println("Results written to " + args[0]);
+
+		if (args.length > 1) {
+			double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+			if (!compare(results, new File(args[1]), tolerance)) {
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Runs a single experiment to completion and measures it.
+	 *
+	 * @param c the experiment to run.
+	 * @param generations the number of generations in each run.
+	 * @param runs the number of runs.
+	 * @return the result as a line of CSV.
+	 */
+	private static String run(Case c, int generations, int runs) {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {}
+
+			@Override
+			public void write(byte[] b, int off, int len) {}
+		}));
+		try {
+			JCGP jcgp = new JCGP();
+			jcgp.setProblem(c.problem);
+			jcgp.getResources().setRows(1);
+			jcgp.getResources().setColumns(c.columns);
+			jcgp.getResources().setLevelsBack(c.columns);
+			jcgp.getResources().setPopulationSize(5);
+			jcgp.getResources().setGenerations(generations);
+			jcgp.getResources().setRuns(runs);
+			jcgp.getResources().setReportInterval(0);
+			jcgp.getResources().setSeed(SEED);
+			jcgp.loadProblemData(c.file);
+
+			System.gc();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				pool.resetPeakUsage();
+			}
+
+			long evaluations = 0;
+			long start = System.nanoTime();
+			while (!jcgp.isFinished()) {
+				jcgp.nextGeneration();
+				evaluations += jcgp.getResources().populationSize();
+			}
+			long wall = System.nanoTime() - start;
+
+			long peak = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					peak += pool.getPeakUsage().getUsed();
+				}
+			}
+
+			StatisticsLogger statistics = jcgp.getStatistics();
+			return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%d,%d,%.2f,%.1f", c.name, wall / 1000000, evaluations,
+					evaluations / (wall / 1e9), statistics.getSuccessfulRuns(), runs,
+					statistics.getAverageSuccessfulGenerations(), peak / (1024.0 * 1024.0));
+		} finally {
+			System.setOut(out);
+		}
+	}
+
+	/**
+	 * Compares results with a baseline and prints the outcome.
+	 *
+	 * @param results the results of this run.
+	 * @param baselineFile the baseline results file.
+	 * @param tolerance the fraction by which throughput may drop.
+	 * @return true if no problem is slower than the baseline by more than the tolerance.
+	 * @throws IOException if the baseline cannot be read.
+	 */
+	private static boolean compare(ArrayList<String> results, File baselineFile, double tolerance) throws IOException {
+		Map<String, String[]> baseline = new HashMap<String, String[]>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(baselineFile))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty() && !line.equals(HEADER)) {
+					String[] fields = line.split(",");
+					baseline.put(fields[0], fields);
+				}
+			}
+		}
+
+		boolean passed = true;
+		for (String result : results) {
+			String[] current = result.split(",");
+			String[] previous = baseline.get(current[0]);
+			if (previous == null) {
+				System.out.println(current[0] + ": not in baseline");
+				continue;
+			}
+			double ratio = Double.parseDouble(current[3]) / Double.parseDouble(previous[3]);
+			String verdict = ratio < 1 - tolerance ? "REGRESSION" : "ok";
+			System.out.println(String.format(Locale.ROOT, "%s: %.2fx baseline throughput, %s", current[0], ratio, verdict));
+			if (!current[2].equals(previous[2])) {
+				System.out.println(current[0] + ": evaluations changed from " + previous[2] + " to " + current[2]
+						+ ", the search no longer follows the same path");
+			}
+			if (ratio < 1 - tolerance) {
+				passed = false;
+			}
+		}
+		return passed;
+	}
+
+	/**
+	 * Writes the 5-bit even parity truth table in the .plu format.
+	 *
+	 * @param file the file to write.
+	 * @return the file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private static File writeParity(File file) throws IOException {
+		long[] inputs = {0xFFFF0000L, 0xFF00FF00L, 0xF0F0F0F0L, 0xCCCCCCCCL, 0xAAAAAAAAL};
+		long output = 0xFFFFFFFFL;
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println(".i 5");
+			writer.println(".o 1");
+			writer.println(".p 1");
+			StringBuilder line = new StringBuilder();
+			for (long input : inputs) {
+				line.append(input).append(' ');
+				output ^= input;
+			}
+			line.append("  ").append(output);
+			writer.println(line);
+			writer.println(".e");
+		}
+		return file;
+	}
+
+	/**
+	 * Writes the quintic polynomial x^5 - 2x^3 + x sampled at evenly
+	 * spaced points between -1 and 1, in the .dat format.
+	 *
+	 * @param file the file to write.
+	 * @param points the number of points.
+	 * @return the file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private static File writeQuintic(File file, int points) throws IOException {
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println(".i 1");
+			writer.println(".o 1");
+			writer.println(".t " + points);
+			for (int p = 0; p < points; p++) {
+				double x = -1 + (2.0 * p / (points - 1));
+				double y = Math.pow(x, 5) - (2 * Math.pow(x, 3)) + x;
+				writer.println(x + "\t" + y);
+			}
+		}
+		return file;
+	}
+}
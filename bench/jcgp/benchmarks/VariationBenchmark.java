@@ -0,0 +1,99 @@
+package jcgp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jcgp.backend.modules.es.EvolutionaryStrategy;
+import jcgp.backend.modules.es.MuPlusLambda;
+import jcgp.backend.modules.es.TournamentSelection;
+import jcgp.backend.modules.mutator.FixedPointMutator;
+import jcgp.backend.modules.mutator.Mutator;
+import jcgp.backend.modules.mutator.PercentPointMutator;
+import jcgp.backend.modules.mutator.ProbabilisticMutator;
+import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.ModifiableResources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the variation operators: {@code mutate} applies the selected
+ * mutator to a single chromosome, and {@code evolve} runs the selected
+ * evolutionary strategy over a whole population, which includes copying
+ * the parents and mutating every offspring.
+ * <br><br>
+ * Fitness values are assigned once during setup and are not changed by
+ * the benchmarks, so the strategies keep selecting from the same values.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VariationBenchmark {
+
+	@Param({"percent", "fixed", "probabilistic"})
+	public String mutatorType;
+
+	@Param({"mu+lambda", "tournament"})
+	public String strategyType;
+
+	@Param({"1", "10"})
+	public int rows;
+
+	@Param({"100", "1000"})
+	public int columns;
+
+	@Param({"5", "100"})
+	public int populationSize;
+
+	private Mutator mutator;
+	private EvolutionaryStrategy strategy;
+	private Population population;
+	private Chromosome chromosome;
+
+	@Setup
+	public void setUp() {
+		ModifiableResources resources = Fixtures.createResources(rows, columns, 3, 1, populationSize);
+		Fixtures.createProblem("regression", resources, 2);
+		population = Fixtures.createPopulation(resources);
+		chromosome = population.get(0);
+
+		if (mutatorType.equals("percent")) {
+			mutator = new PercentPointMutator(resources);
+		} else if (mutatorType.equals("fixed")) {
+			mutator = new FixedPointMutator(resources);
+		} else if (mutatorType.equals("probabilistic")) {
+			mutator = new ProbabilisticMutator(resources);
+		} else {
+			throw new IllegalArgumentException("Unknown mutator: " + mutatorType);
+		}
+
+		if (strategyType.equals("mu+lambda")) {
+			strategy = new MuPlusLambda(resources);
+		} else if (strategyType.equals("tournament")) {
+			strategy = new TournamentSelection(resources);
+		} else {
+			throw new IllegalArgumentException("Unknown evolutionary strategy: " + strategyType);
+		}
+	}
+
+	@Benchmark
+	public Chromosome mutate() {
+		mutator.mutate(chromosome);
+		return chromosome;
+	}
+
+	@Benchmark
+	public Population evolve() {
+		strategy.evolve(population, mutator);
+		return population;
+	}
+}
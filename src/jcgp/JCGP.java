@@ -1,7 +1,19 @@
 package jcgp;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
 
+import jcgp.backend.checkpoint.Checkpoint;
+import jcgp.backend.checkpoint.CheckpointWriter;
+
+import jcgp.backend.jfr.EvolutionEvent;
+import jcgp.backend.jfr.GenerationEvent;
+import jcgp.backend.jfr.ImprovementEvent;
+import jcgp.backend.jfr.RunFinishedEvent;
+import jcgp.backend.modules.Module;
 import jcgp.backend.modules.es.EvolutionaryStrategy;
 import jcgp.backend.modules.es.MuPlusLambda;
 import jcgp.backend.modules.es.TournamentSelection;
@@ -10,18 +22,26 @@ import jcgp.backend.modules.mutator.Mutator;
 import jcgp.backend.modules.mutator.PercentPointMutator;
 import jcgp.backend.modules.mutator.ProbabilisticMutator;
 import jcgp.backend.modules.problem.DigitalCircuitProblem;
+import jcgp.backend.modules.problem.OutOfCoreRegressionProblem;
 import jcgp.backend.modules.problem.Problem;
 import jcgp.backend.modules.problem.SymbolicRegressionProblem;
 import jcgp.backend.modules.problem.TestCaseProblem;
 import jcgp.backend.modules.problem.PolynomialProblem;
+import jcgp.backend.parameters.Parameter;
 import jcgp.backend.parsers.ChromosomeParser;
 import jcgp.backend.parsers.FunctionParser;
 import jcgp.backend.parsers.ParameterParser;
+import jcgp.backend.parsers.PopulationParser;
 import jcgp.backend.parsers.TestCaseParser;
 import jcgp.backend.population.Population;
+import jcgp.backend.population.PopulationSnapshot;
+import jcgp.backend.resources.AsyncLog;
 import jcgp.backend.resources.Console;
 import jcgp.backend.resources.ModifiableResources;
+import jcgp.backend.statistics.ConvergenceHistory;
+import jcgp.backend.statistics.GenerationMetrics;
 import jcgp.backend.statistics.StatisticsLogger;
+import jcgp.backend.statistics.TimeSeriesWriter;
 
 /**
  * 
@@ -38,6 +58,25 @@ import jcgp.backend.statistics.StatisticsLogger;
  * JCGP supports an extra console in addition to {@code System.console()}, so that messages
  * can also be printed to a GUI, for example. This extra console can be set with {@code setConsole()}, 
  * and must implement jcgp.resources.Console.
+ * <br><br>
+ * Long experiments can be checkpointed to a file using {@code setCheckpoint()}, and
+ * resumed from that file later using {@code resume()}.
+ * <br><br>
+ * Other threads must not read the population while the experiment is running. Instead,
+ * the experiment can publish immutable snapshots of the population at a set interval,
+ * see {@code setSnapshotInterval()} and {@code getSnapshot()}. The progress of the current
+ * run can also be followed through a downsampled {@code ConvergenceHistory}, see
+ * {@code setConvergenceHistory()}.
+ * <br><br>
+ * Generations, evolution steps, improvements and the end of each run are recorded
+ * as Java Flight Recorder events (see jcgp.backend.jfr), so they show up alongside
+ * the JVM's own events when an experiment is profiled. The events are only filled in
+ * while a recording is in progress.
+ * <br><br>
+ * This class, {@code SweepRunner} and everything in jcgp.backend make up the headless
+ * backend: they depend on nothing but the JDK, so they can be compiled and run on
+ * machines with no JavaFX installed. Only jcgp.gui may depend on JavaFX, and it
+ * observes the backend through {@code ParameterListener}s and {@code Console}.
  * 
  * @author Eduardo Pedroni
  */
@@ -71,13 +110,17 @@ public class JCGP {
 	private Problem[] problems = new Problem[] {
 			new DigitalCircuitProblem(resources),
 			new SymbolicRegressionProblem(resources),
-			new PolynomialProblem(resources)
+			new PolynomialProblem(resources),
+			new OutOfCoreRegressionProblem(resources)
 	};
 	private Problem problem;
 
 	private Population population;
 
 	private StatisticsLogger statistics = new StatisticsLogger();
+	private GenerationMetrics metrics = new GenerationMetrics();
+	// the selected mutator, wrapped so that mutation time is measured
+	private Mutator timedMutator;
 	
 	// these record the best results found in the run, in case the runs ends before a perfect solution is found
 	private int lastImprovementGeneration = 0, activeNodes = 0;
@@ -85,12 +128,41 @@ public class JCGP {
 	
 	private boolean finished = false;
 	
+	/**
+	 * The default number of generations between checkpoints when running
+	 * from the command line.
+	 */
+	public static final int CHECKPOINT_INTERVAL = 10000;
+	
+	// checkpointing is disabled unless a writer is set
+	private CheckpointWriter checkpointWriter;
+	private Checkpoint checkpoint = new Checkpoint();
+	private int checkpointInterval = 0;
+	
+	// the time series is not recorded unless a writer is set
+	private TimeSeriesWriter timeSeriesWriter;
+	
+	// snapshots are not taken unless an interval is set
+	private volatile PopulationSnapshot snapshot;
+	private volatile long snapshotInterval = 0;
+	private volatile boolean snapshotChromosomes = true;
+	private long lastSnapshot = 0;
+	
+	// the convergence history is not kept unless one is set
+	private volatile ConvergenceHistory convergenceHistory;
+	
 	/**
 	 * JCGP main method, this is used to execute JCGP from the command line. 
 	 * <br><br>
 	 * In this case the program works in the same way as the classic CGP implementation,
 	 * requiring a .par file and an optional problem data file. As in the traditional CGP
 	 * implementation, the program must be compiled with the right problem type selected.
+	 * <br><br>
+	 * An optional fourth argument specifies a checkpoint file. If the file exists, the
+	 * experiment is resumed from it; either way, the experiment is checkpointed to it every
+	 * {@code CHECKPOINT_INTERVAL} generations. An optional fifth argument specifies a file
+	 * to record the time series of the experiment in, as CSV if its name ends in .csv and
+	 * in binary otherwise.
 	 * 
 	 * @param args one or more files needed to perform the experiment.
 	 */
@@ -100,15 +172,28 @@ public class JCGP {
 			System.err.println("JCGP requires at least a .par file.");
 			System.exit(1);
 		}
-		// prepare experiment
+		// prepare experiment, printing in the background so that reports do not slow it down
 		JCGP jcgp = new JCGP();
+		jcgp.getResources().setAsyncLogging(AsyncLog.DEFAULT_CAPACITY, AsyncLog.Policy.BLOCK);
 		jcgp.loadParameters(new File(args[0]));
 		
 		if (jcgp.getProblem() instanceof TestCaseProblem) {
 			TestCaseParser.parse(new File(args[2]), (TestCaseProblem<?>) jcgp.getProblem(), jcgp.getResources());
 		}
+		if (args.length > 3) {
+			File checkpointFile = new File(args[3]);
+			if (checkpointFile.exists()) {
+				jcgp.resume(checkpointFile);
+			}
+			jcgp.setCheckpoint(checkpointFile, CHECKPOINT_INTERVAL);
+		}
+		if (args.length > 4) {
+			jcgp.setTimeSeries(new File(args[4]));
+		}
 		// kick it off
 		jcgp.start();
+		jcgp.setTimeSeries(null);
+		jcgp.getResources().setAsyncLogging(0, null);
 	}
 	
 	
@@ -123,6 +208,7 @@ public class JCGP {
 
 		// create a new population
 		population = new Population(resources);
+		population.setMetrics(metrics);
 	}
 	
 
@@ -144,6 +230,76 @@ public class JCGP {
 	public Population getPopulation() {
 		return population;
 	}
+	
+	/**
+	 * @return the statistics logged for the runs performed so far.
+	 */
+	public StatisticsLogger getStatistics() {
+		return statistics;
+	}
+	
+	/**
+	 * @return the metrics measuring the time spent in each phase of a generation.
+	 */
+	public GenerationMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Returns the latest snapshot of the population. This may be called
+	 * from any thread, and is the only safe way to look at the population
+	 * from another thread while the experiment is running.
+	 * 
+	 * @return the latest snapshot, or null if none has been taken.
+	 * @see #setSnapshotInterval(long)
+	 */
+	public PopulationSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Sets how often a snapshot of the population is published, at the end
+	 * of a generation. A snapshot is also published on reset, on resume and
+	 * when the experiment finishes. An interval of 0 disables snapshots,
+	 * which is the default.
+	 * 
+	 * @param millis the minimum time between snapshots, in milliseconds.
+	 */
+	public void setSnapshotInterval(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Snapshot interval must not be negative.");
+		}
+		snapshotInterval = millis * 1000000L;
+	}
+	
+	/**
+	 * Sets whether snapshots include copies of the chromosomes. Without
+	 * them, snapshots are almost free to take but only hold a summary of
+	 * the experiment's progress.
+	 * 
+	 * @param value true if snapshots should include the chromosomes.
+	 */
+	public void setSnapshotChromosomes(boolean value) {
+		snapshotChromosomes = value;
+	}
+
+	/**
+	 * Sets the history that the best fitness and active nodes of every
+	 * generation are recorded in, or stops recording them if the history
+	 * is null. The history is cleared whenever the experiment is reset.
+	 * 
+	 * @param history the history to record generations in, or null.
+	 */
+	public void setConvergenceHistory(ConvergenceHistory history) {
+		convergenceHistory = history;
+	}
+	
+	/**
+	 * @return the history generations are recorded in, or null if there is none.
+	 */
+	public ConvergenceHistory getConvergenceHistory() {
+		return convergenceHistory;
+	}
 
 	/**
 	 * @return a complete list of the experiment's mutators.
@@ -198,6 +354,7 @@ public class JCGP {
 	 */
 	public void setMutator(int index) {
 		this.mutator = mutators[index];
+		this.timedMutator = metrics.time(mutator, resources);
 		resources.println("[CGP] Mutator selected: " + mutator.toString());
 	}
 
@@ -235,15 +392,31 @@ public class JCGP {
 	 */
 	public void nextGeneration() {
 		if (!finished) {
+			GenerationEvent generationEvent = new GenerationEvent();
+			generationEvent.begin();
+			// the generation being performed, before the counters move on
+			int run = resources.currentRun(), generation = resources.currentGeneration();
+			double fitness;
+			int active;
+			long start = metrics.start();
+			long executions = metrics.countNodeExecutions(population);
 			problem.evaluate(population);
+			metrics.endEvaluation(start, population, executions);
 
 			if (resources.currentGeneration() < resources.generations()) {
 				
 				// we still have generations left to go
+				start = metrics.start();
 				int perfect = problem.hasPerfectSolution(population);
 				if (perfect >= 0) {
+					metrics.endChecks(start);
+					
 					// log results
-					statistics.logRun(resources.currentGeneration(), population.get(perfect).getFitness(), population.get(perfect).getActiveNodes().size(), true);
+					fitness = population.get(perfect).getFitness();
+					active = population.get(perfect).getActiveNodes().size();
+					statistics.logRun(resources.currentGeneration(), fitness, active, true);
+					recordGeneration(fitness, active);
+					commitRunFinished(resources.currentGeneration(), fitness, active, true);
 					resetStatisticsValues();
 					
 					// solution has been found, start next run
@@ -267,6 +440,7 @@ public class JCGP {
 				} else {
 					// solution not found, look for improvement
 					int improvement = problem.hasImprovement(population);
+					metrics.endChecks(start);
 					
 					if (improvement >= 0) {
 						// there has been improvement, print it
@@ -274,14 +448,39 @@ public class JCGP {
 						lastImprovementGeneration = resources.currentGeneration();
 						bestFitnessFound = population.get(improvement).getFitness();
 						activeNodes = population.get(improvement).getActiveNodes().size();
+						
+						ImprovementEvent improvementEvent = new ImprovementEvent();
+						if (improvementEvent.shouldCommit()) {
+							improvementEvent.run = resources.currentRun();
+							improvementEvent.generation = resources.currentGeneration();
+							improvementEvent.chromosome = improvement;
+							improvementEvent.fitness = bestFitnessFound;
+							improvementEvent.activeNodes = activeNodes;
+							improvementEvent.commit();
+						}
 					} else {
 						// there has been no improvement, report generation
 						reportGeneration();
 					}
+					fitness = bestFitnessFound;
+					active = activeNodes;
+					recordGeneration(fitness, active);
 					resources.incrementGeneration();
 					
 					// we still have generations left, evolve more!
-					evolutionaryStrategy.evolve(population, mutator);
+					start = metrics.start();
+					EvolutionEvent evolutionEvent = new EvolutionEvent();
+					evolutionEvent.begin();
+					evolutionaryStrategy.evolve(population, timedMutator);
+					evolutionEvent.end();
+					if (evolutionEvent.shouldCommit()) {
+						evolutionEvent.generation = generation;
+						evolutionEvent.strategy = evolutionaryStrategy.toString();
+						evolutionEvent.mutator = mutator.toString();
+						evolutionEvent.commit();
+					}
+					metrics.endEvolution(start);
+					checkpoint();
 				}
 			} else {
 				// the run has ended, tell the user and log it 
@@ -289,6 +488,10 @@ public class JCGP {
 						+ bestFitnessFound + "\n");
 				
 				statistics.logRun(lastImprovementGeneration, bestFitnessFound, activeNodes, false);
+				fitness = bestFitnessFound;
+				active = activeNodes;
+				recordGeneration(fitness, active);
+				commitRunFinished(lastImprovementGeneration, bestFitnessFound, activeNodes, false);
 				resetStatisticsValues();
 				
 				// check if any more runs must be done
@@ -305,6 +508,100 @@ public class JCGP {
 					finished = true;
 				}
 			}
+			metrics.endGeneration();
+			if (snapshotInterval > 0 && (finished || System.nanoTime() - lastSnapshot >= snapshotInterval)) {
+				publishSnapshot(run, generation, fitness, active);
+			}
+			if (finished) {
+				metrics.publish();
+				if (timeSeriesWriter != null) {
+					timeSeriesWriter.sync();
+				}
+				resources.flushLog();
+			}
+			
+			generationEvent.end();
+			if (generationEvent.shouldCommit()) {
+				generationEvent.run = run;
+				generationEvent.generation = generation;
+				generationEvent.bestFitness = fitness;
+				generationEvent.activeNodes = active;
+				generationEvent.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Used internally for publishing a snapshot of the population
+	 * before any generation of the current run has been performed.
+	 */
+	private void publishSnapshot() {
+		publishSnapshot(resources.currentRun(), resources.currentGeneration(), bestFitnessFound, activeNodes);
+	}
+	
+	/**
+	 * Used internally for publishing a snapshot of the population.
+	 * 
+	 * @param run the run of the last generation performed.
+	 * @param generation the last generation performed.
+	 * @param fitness the best fitness found in the run up to that generation.
+	 * @param active the active nodes of the chromosome with that fitness.
+	 */
+	private void publishSnapshot(int run, int generation, double fitness, int active) {
+		lastSnapshot = System.nanoTime();
+		snapshot = new PopulationSnapshot(population, run, generation, fitness, active,
+				resources.fitnessOrientation(), snapshotChromosomes);
+	}
+	
+	/**
+	 * Used internally for recording the current generation in the time
+	 * series and the convergence history, if enabled.
+	 * 
+	 * @param fitness the best fitness found in the run so far.
+	 * @param active the active nodes of the chromosome with the best fitness.
+	 */
+	private void recordGeneration(double fitness, int active) {
+		if (timeSeriesWriter != null) {
+			timeSeriesWriter.record(resources.currentRun(), resources.currentGeneration(), fitness, active, population.size());
+		}
+		ConvergenceHistory history = convergenceHistory;
+		if (history != null) {
+			history.record(resources.currentRun(), resources.currentGeneration(), fitness, active);
+		}
+	}
+	
+	/**
+	 * Used internally for recording the end of a run with the flight recorder,
+	 * if it is recording.
+	 * 
+	 * @param generation the generation of the best chromosome of the run.
+	 * @param fitness the best fitness of the run.
+	 * @param activeNodes the active nodes of the best chromosome of the run.
+	 * @param successful true if a perfect solution was found.
+	 */
+	private void commitRunFinished(int generation, double fitness, int activeNodes, boolean successful) {
+		RunFinishedEvent event = new RunFinishedEvent();
+		if (event.shouldCommit()) {
+			event.run = resources.currentRun();
+			event.generation = generation;
+			event.fitness = fitness;
+			event.activeNodes = activeNodes;
+			event.successful = successful;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Used internally for writing checkpoints, if enabled. The state is captured
+	 * on this thread but written in the background; if the previous checkpoint
+	 * is still being written, this one is skipped so that evolution never waits.
+	 */
+	private void checkpoint() {
+		if (checkpointWriter != null && resources.currentGeneration() % checkpointInterval == 0 
+				&& !checkpointWriter.isBusy()) {
+			checkpoint.capture(resources, population, Checkpoint.serialise(statistics), problem.getBestFitness(),
+					lastImprovementGeneration, bestFitnessFound, activeNodes);
+			checkpointWriter.write(checkpoint);
 		}
 	}
 	
@@ -348,8 +645,13 @@ public class JCGP {
 	 * by the report interval parameter.
 	 */
 	private void reportGeneration() {
-		resources.reportln("[CGP] Generation: " + resources.currentGeneration() + ", best fitness: " 
-				+ problem.getBestFitness());
+		resources.reportln(new Supplier<String>() {
+			@Override
+			public String get() {
+				return "[CGP] Generation: " + resources.currentGeneration() + ", best fitness: " 
+						+ problem.getBestFitness();
+			}
+		});
 	}
 
 	/**
@@ -367,6 +669,9 @@ public class JCGP {
 			while (!finished) {
 				nextGeneration();
 			}
+			if (checkpointWriter != null) {
+				checkpointWriter.await();
+			}
 		}
 	}
 	
@@ -386,10 +691,18 @@ public class JCGP {
 			return;
 		}
 		finished = false;
+		validateParameters();
+		// parameter changes made since the last reset take effect from here
+		resources.updateConfiguration();
 		population = new Population(resources);
+		population.setMetrics(metrics);
+		metrics.reset();
 		resetStatisticsValues();
 		resources.setCurrentGeneration(1);
 		resources.setCurrentRun(1);
+		if (convergenceHistory != null) {
+			convergenceHistory.clear();
+		}
 		resources.println("*********************************************************");
 		resources.println("[CGP] New experiment: " + problem.toString());
 		resources.println("[CGP] Rows: " + resources.rows());
@@ -403,6 +716,33 @@ public class JCGP {
 		resources.println("");
 		resources.println("[CGP] Evolutionary strategy: " + evolutionaryStrategy.toString());
 		resources.println("[CGP] Mutator: " + mutator.toString());
+		if (snapshotInterval > 0) {
+			publishSnapshot();
+		}
+	}
+
+	/**
+	 * Internally used to validate the parameters of the selected modules.
+	 * Some parameters derive other values when they are validated, such as
+	 * the number of genes mutated by the percent point mutator; the GUI
+	 * validates parameters whenever they change, but headless experiments
+	 * rely on this being done on reset.
+	 */
+	private void validateParameters() {
+		for (Module module : new Module[] {mutator, evolutionaryStrategy, problem}) {
+			for (Parameter<?> parameter : module.getLocalParameters()) {
+				validate(parameter);
+			}
+		}
+	}
+	
+	/**
+	 * Internally used to validate a parameter against its current value.
+	 * 
+	 * @param parameter the parameter to validate.
+	 */
+	private static <T> void validate(Parameter<T> parameter) {
+		parameter.validate(parameter.get());
 	}
 
 	/**
@@ -461,6 +801,107 @@ public class JCGP {
 		ChromosomeParser.save(file, population.get(chromosomeIndex), resources);
 	}
 
+	/**
+	 * Loads the chromosomes saved in the given population
+	 * file into the experiment's population.
+	 * 
+	 * @param file the population file to parse.
+	 */
+	public void loadPopulation(File file) {
+		PopulationParser.parse(file, population, resources);
+	}
+	
+	/**
+	 * Saves the entire population into the given file,
+	 * using the binary population format.
+	 * 
+	 * @param file the target file.
+	 */
+	public void savePopulation(File file) {
+		PopulationParser.save(file, population, resources);
+	}
+	
+	/**
+	 * Enables checkpointing. Every {@code interval} generations, the state
+	 * of the experiment is written to the specified file in the background.
+	 * The file can later be passed to {@code resume()} to continue the
+	 * experiment from the last checkpoint.
+	 * <br><br>
+	 * Passing a null file disables checkpointing.
+	 * 
+	 * @param file the checkpoint file.
+	 * @param interval the number of generations between checkpoints.
+	 */
+	public void setCheckpoint(File file, int interval) {
+		if (checkpointWriter != null) {
+			checkpointWriter.close();
+			checkpointWriter = null;
+		}
+		if (file != null) {
+			if (interval <= 0) {
+				throw new IllegalArgumentException("Checkpoint interval must be greater than 0.");
+			}
+			checkpointWriter = new CheckpointWriter(file, resources);
+			checkpointInterval = interval;
+		}
+	}
+	
+	/**
+	 * Records the time series of the experiment in the specified file: the
+	 * best fitness, active nodes and number of evaluations at every generation.
+	 * The file is written in the background, as CSV if its name ends in .csv
+	 * and in binary otherwise (see {@code TimeSeriesWriter}).
+	 * <br><br>
+	 * Passing a null file stops recording and closes the previous file.
+	 * 
+	 * @param file the time series file.
+	 */
+	public void setTimeSeries(File file) {
+		if (timeSeriesWriter != null) {
+			timeSeriesWriter.close();
+			timeSeriesWriter = null;
+		}
+		if (file != null) {
+			try {
+				timeSeriesWriter = new TimeSeriesWriter(file, TimeSeriesWriter.Format.forFile(file), resources);
+			} catch (IOException e) {
+				resources.println("[CGP] Error: could not create " + file.getName() + ": " + e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Resumes the experiment from a checkpoint file written by an experiment
+	 * with the same parameters. The population, the current generation and run,
+	 * the random number generator and the statistics are all restored, so the
+	 * experiment continues exactly where the checkpoint was taken.
+	 * 
+	 * @param file the checkpoint file to resume from.
+	 */
+	public void resume(File file) {
+		Checkpoint resumed;
+		StatisticsLogger resumedStatistics;
+		try {
+			resumed = Checkpoint.read(file, resources);
+			resumedStatistics = StatisticsLogger.read(new DataInputStream(new ByteArrayInputStream(resumed.getStatistics())));
+		} catch (IOException e) {
+			resources.println("[CGP] Error: could not resume from " + file.getName() + ": " + e.getMessage());
+			return;
+		}
+		resumed.restore(resources, population);
+		statistics = resumedStatistics;
+		problem.setBestFitness(resumed.getProblemBestFitness());
+		lastImprovementGeneration = resumed.getLastImprovementGeneration();
+		bestFitnessFound = resumed.getBestFitnessFound();
+		activeNodes = resumed.getActiveNodes();
+		finished = false;
+		if (snapshotInterval > 0) {
+			publishSnapshot();
+		}
+		resources.println("[CGP] Resumed from " + file.getName() + ": run " + resources.currentRun() 
+				+ ", generation " + resources.currentGeneration());
+	}
+	
 	/**
 	 * Returns the experiment's status. When finished, the only
 	 * way to continue is by calling {@code reset()}.
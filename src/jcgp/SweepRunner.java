@@ -0,0 +1,432 @@
+package jcgp;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jcgp.backend.modules.Module;
+import jcgp.backend.parameters.BooleanParameter;
+import jcgp.backend.parameters.DoubleParameter;
+import jcgp.backend.parameters.IntegerParameter;
+import jcgp.backend.parameters.Parameter;
+import jcgp.backend.parameters.ParameterStatus;
+import jcgp.backend.parsers.SweepParser;
+import jcgp.backend.resources.ModifiableResources;
+import jcgp.backend.statistics.StatisticsLogger;
+import jcgp.backend.sweep.Sweep;
+import jcgp.backend.sweep.Sweep.Job;
+
+/**
+ * Runs the jobs of a parameter sweep concurrently, each as an independent
+ * {@code JCGP} instance, and writes the results of every job to a single
+ * CSV file.
+ * <br><br>
+ * Jobs are executed on a work-stealing pool with as many threads as the
+ * sweep specifies, so that long jobs do not hold up the rest of the sweep.
+ * Each job loads the sweep's parameter file, applies its own values and
+ * seed, loads the problem data and runs every run of the experiment. The
+ * messages printed by the experiments are discarded while the sweep runs;
+ * only the progress of the sweep is printed.
+ * <br><br>
+ * Swept parameters can be any of the experiment parameters found in .par
+ * files (num_rows, num_cols, levels_back, population_size, num_generations,
+ * num_runs_total), per_cent_mutate for the percent point mutator, mu and
+ * lambda for the (μ + λ) strategy, or the name of any parameter of the
+ * selected modules in lower case with underscores instead of spaces, such
+ * as tournament_size. When mu or lambda are swept, the population size is
+ * set to their sum.
+ * <br><br>
+ * Before any job starts, the parameters of every configuration are
+ * validated as the GUI would validate them; if any of them is invalid,
+ * such as levels back greater than the number of columns, the problems
+ * are printed and nothing is run.
+ * <br><br>
+ * Usage: {@code SweepRunner <sweep file> <results.csv>}.
+ *
+ * @see SweepParser
+ * @author Eduardo Pedroni
+ *
+ */
+public class SweepRunner {
+
+	private final Sweep sweep;
+	private final PrintStream progress;
+
+	/**
+	 * Creates a new runner for the specified sweep.
+	 *
+	 * @param sweep the sweep to run.
+	 * @param progress where to print the progress of the sweep.
+	 */
+	public SweepRunner(Sweep sweep, PrintStream progress) {
+		this.sweep = sweep;
+		this.progress = progress;
+	}
+
+	/**
+	 * @param args the sweep file and the results file.
+	 */
+	public static void main(String... args) {
+		if (args.length < 2) {
+			System.err.println("Usage: SweepRunner <sweep file> <results.csv>");
+			System.exit(1);
+		}
+		Sweep sweep;
+		try {
+			sweep = SweepParser.parse(new File(args[0]));
+		} catch (FileNotFoundException e) {
+			System.err.println("[Sweep] Error: could not find " + new File(args[0]).getAbsolutePath());
+			System.exit(1);
+			return;
+		} catch (IllegalArgumentException e) {
+			System.err.println("[Sweep] Error: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		SweepRunner runner = new SweepRunner(sweep, System.out);
+		List<String> results = runner.run();
+		if (results == null) {
+			System.exit(1);
+		}
+		try {
+			runner.write(new File(args[1]), results);
+		} catch (FileNotFoundException e) {
+			System.err.println("[Sweep] Error: could not write " + new File(args[1]).getAbsolutePath());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs every job of the sweep, blocking until all of them have finished.
+	 * The parameters of every job are validated first, and no job is run
+	 * if any of them is invalid.
+	 *
+	 * @return the results of each job as lines of CSV, in job order,
+	 * or null if any parameter was invalid.
+	 */
+	public List<String> run() {
+		final List<Job> jobs = sweep.getJobs();
+		final AtomicInteger finished = new AtomicInteger(0);
+
+		List<Callable<String>> tasks = new ArrayList<Callable<String>>(jobs.size());
+		for (final Job job : jobs) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() {
+					String result = runJob(job);
+					progress.println("[Sweep] Finished job " + job.getIndex() + " (" + finished.incrementAndGet() + " of " + jobs.size() + ")");
+					return result;
+				}
+			});
+		}
+
+		// experiments print to System.out, which would interleave across jobs
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {}
+
+			@Override
+			public void write(byte[] b, int off, int len) {}
+		}));
+		boolean valid;
+		try {
+			valid = validate(jobs);
+		} catch (RuntimeException e) {
+			System.setOut(out);
+			throw e;
+		}
+		if (!valid) {
+			System.setOut(out);
+			return null;
+		}
+		progress.println("[Sweep] Running " + jobs.size() + " jobs on " + sweep.getThreads() + " threads");
+		ForkJoinPool pool = new ForkJoinPool(sweep.getThreads());
+		List<String> results = new ArrayList<String>(jobs.size());
+		try {
+			for (Future<String> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// runJob() reports failures in its result, so this is never expected
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+			System.setOut(out);
+		}
+		return results;
+	}
+
+	/**
+	 * Writes the results of a sweep into a CSV file, with a header naming
+	 * the swept parameters.
+	 *
+	 * @param file the file to write.
+	 * @param results the results returned by {@code run()}.
+	 * @throws FileNotFoundException if the file cannot be written.
+	 */
+	public void write(File file, List<String> results) throws FileNotFoundException {
+		PrintWriter writer;
+		try {
+			writer = new PrintWriter(file, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		StringBuilder header = new StringBuilder("job,configuration,repeat,seed");
+		for (String name : sweep.getParameters().keySet()) {
+			header.append(',').append(name);
+		}
+		header.append(",successful_runs,runs,success_rate,average_fitness,highest_fitness,")
+				.append("average_successful_generations,average_active_nodes,wall_ms,error");
+		writer.println(header);
+		for (String result : results) {
+			writer.println(result);
+		}
+		writer.close();
+		progress.println("[Sweep] Results written to " + file.getAbsolutePath());
+	}
+
+	/**
+	 * Validates the parameters of every configuration of the sweep, printing
+	 * each invalid parameter. Jobs of the same configuration differ only in
+	 * their seed, so only the first job of each configuration is checked.
+	 *
+	 * @param jobs the jobs of the sweep.
+	 * @return true if no parameter is invalid.
+	 */
+	private boolean validate(List<Job> jobs) {
+		boolean valid = true;
+		int lastConfiguration = -1;
+		for (Job job : jobs) {
+			if (job.getConfiguration() == lastConfiguration) {
+				continue;
+			}
+			lastConfiguration = job.getConfiguration();
+
+			JCGP jcgp;
+			try {
+				jcgp = prepare(job);
+			} catch (IllegalArgumentException e) {
+				progress.println("[Sweep] Error: configuration " + job.getConfiguration() + ": " + e.getMessage());
+				valid = false;
+				continue;
+			}
+			ModifiableResources resources = jcgp.getResources();
+			List<Parameter<?>> parameters = new ArrayList<Parameter<?>>();
+			parameters.add(resources.getRowsParameter());
+			parameters.add(resources.getColumnsParameter());
+			parameters.add(resources.getLevelsBackParameter());
+			parameters.add(resources.getPopulationSizeParameter());
+			parameters.add(resources.getGenerationsParameter());
+			parameters.add(resources.getRunsParameter());
+			for (Module module : new Module[] {jcgp.getMutator(), jcgp.getEvolutionaryStrategy(), jcgp.getProblem()}) {
+				parameters.addAll(module.getLocalParameters());
+			}
+			for (Parameter<?> parameter : parameters) {
+				if (validate(parameter) == ParameterStatus.INVALID) {
+					progress.println("[Sweep] Error: configuration " + job.getConfiguration() + ": "
+							+ parameter + ": " + parameter.getDetails());
+					valid = false;
+				}
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Validates a parameter against its current value.
+	 *
+	 * @param parameter the parameter to validate.
+	 * @return the resulting status of the parameter.
+	 */
+	private static <T> ParameterStatus validate(Parameter<T> parameter) {
+		parameter.validate(parameter.get());
+		return parameter.getStatus();
+	}
+
+	/**
+	 * Runs a single job to completion.
+	 *
+	 * @param job the job to run.
+	 * @return the result of the job as a line of CSV.
+	 */
+	private String runJob(Job job) {
+		StringBuilder result = new StringBuilder();
+		result.append(job.getIndex()).append(',').append(job.getConfiguration()).append(',')
+				.append(job.getRepeat()).append(',').append(job.getSeed());
+		for (String value : job.getValues().values()) {
+			result.append(',').append(value);
+		}
+
+		try {
+			JCGP jcgp = configure(job);
+			long start = System.nanoTime();
+			jcgp.start();
+			long wall = (System.nanoTime() - start) / 1000000;
+
+			StatisticsLogger statistics = jcgp.getStatistics();
+			result.append(String.format(Locale.ROOT, ",%d,%d,%.4f,%s,%s,%s,%s,%d,", statistics.getSuccessfulRuns(),
+					jcgp.getResources().runs(), statistics.getSuccessRate(), statistics.getAverageFitness(),
+					statistics.getHighestFitness(), statistics.getAverageSuccessfulGenerations(),
+					statistics.getAverageActiveNodes(), wall));
+		} catch (RuntimeException e) {
+			result.append(",,,,,,,,,").append(String.valueOf(e.getMessage()).replace(',', ';'));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Creates the experiment for a job.
+	 *
+	 * @param job the job to create the experiment for.
+	 * @return the experiment, ready to start.
+	 */
+	private JCGP configure(Job job) {
+		JCGP jcgp = prepare(job);
+		if (sweep.getProblemData() != null) {
+			jcgp.loadProblemData(sweep.getProblemData());
+		} else {
+			jcgp.reset();
+		}
+		return jcgp;
+	}
+
+	/**
+	 * Creates the experiment for a job and applies its parameters, without
+	 * loading the problem data.
+	 *
+	 * @param job the job to create the experiment for.
+	 * @return the experiment, with every parameter of the job applied.
+	 */
+	private JCGP prepare(Job job) {
+		JCGP jcgp = new JCGP();
+		jcgp.setProblem(sweep.getProblem());
+		jcgp.setMutator(sweep.getMutator());
+		jcgp.setEvolutionaryStrategy(sweep.getStrategy());
+		if (sweep.getParameterFile() != null) {
+			jcgp.loadParameters(sweep.getParameterFile());
+		}
+
+		Map<String, String> values = job.getValues();
+		for (Entry<String, String> value : values.entrySet()) {
+			apply(jcgp, value.getKey(), value.getValue());
+		}
+		if (values.containsKey("mu") || values.containsKey("lambda")) {
+			jcgp.getResources().setPopulationSize(
+					((Number) findParameter(jcgp.getEvolutionaryStrategy(), "Parents (\u03BC)").get()).intValue()
+					+ ((Number) findParameter(jcgp.getEvolutionaryStrategy(), "Offspring (\u03BB)").get()).intValue());
+		}
+		jcgp.getResources().setSeed(job.getSeed());
+		jcgp.getResources().setReportInterval(0);
+		return jcgp;
+	}
+
+	/**
+	 * Applies a single swept value to an experiment.
+	 *
+	 * @param jcgp the experiment.
+	 * @param name the name of the swept parameter.
+	 * @param value the value to apply.
+	 */
+	private static void apply(JCGP jcgp, String name, String value) {
+		ModifiableResources resources = jcgp.getResources();
+		switch (name) {
+		case "num_rows":
+			resources.setRows(Integer.parseInt(value));
+			break;
+
+		case "num_cols":
+			resources.setColumns(Integer.parseInt(value));
+			break;
+
+		case "levels_back":
+			resources.setLevelsBack(Integer.parseInt(value));
+			break;
+
+		case "population_size":
+			resources.setPopulationSize(Integer.parseInt(value));
+			break;
+
+		case "num_generations":
+			resources.setGenerations(Integer.parseInt(value));
+			break;
+
+		case "num_runs_total":
+			resources.setRuns(Integer.parseInt(value));
+			break;
+
+		case "per_cent_mutate":
+			set(findParameter(jcgp.getMutator(), "Percent mutation"), value);
+			break;
+
+		case "mu":
+			set(findParameter(jcgp.getEvolutionaryStrategy(), "Parents (\u03BC)"), value);
+			break;
+
+		case "lambda":
+			set(findParameter(jcgp.getEvolutionaryStrategy(), "Offspring (\u03BB)"), value);
+			break;
+
+		default:
+			for (Module module : new Module[] {jcgp.getMutator(), jcgp.getEvolutionaryStrategy(), jcgp.getProblem()}) {
+				for (Parameter<?> parameter : module.getLocalParameters()) {
+					if (parameter.toString().toLowerCase(Locale.ROOT).replace(' ', '_').equals(name)) {
+						set(parameter, value);
+						return;
+					}
+				}
+			}
+			throw new IllegalArgumentException("Unknown parameter " + name + ".");
+		}
+	}
+
+	/**
+	 * @param module the module to search.
+	 * @param name the name of the parameter.
+	 * @return the parameter of the module with the specified name.
+	 */
+	private static Parameter<?> findParameter(Module module, String name) {
+		for (Parameter<?> parameter : module.getLocalParameters()) {
+			if (parameter.toString().equals(name)) {
+				return parameter;
+			}
+		}
+		throw new IllegalArgumentException(module + " has no parameter named " + name + ".");
+	}
+
+	/**
+	 * Sets a module parameter from its string representation.
+	 *
+	 * @param parameter the parameter to set.
+	 * @param value the new value.
+	 */
+	private static void set(Parameter<?> parameter, String value) {
+		if (parameter.isMonitor()) {
+			throw new IllegalArgumentException(parameter + " cannot be set.");
+		} else if (parameter instanceof IntegerParameter) {
+			((IntegerParameter) parameter).set(Integer.parseInt(value));
+		} else if (parameter instanceof DoubleParameter) {
+			((DoubleParameter) parameter).set(Double.parseDouble(value));
+		} else if (parameter instanceof BooleanParameter) {
+			((BooleanParameter) parameter).set(Boolean.parseBoolean(value));
+		} else {
+			throw new IllegalArgumentException(parameter + " cannot be set from a sweep.");
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package jcgp.backend.checkpoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import jcgp.backend.population.GeneStore;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.ModifiableResources;
+import jcgp.backend.resources.Resources;
+import jcgp.backend.statistics.StatisticsLogger;
+
+/**
+ * This class holds a snapshot of the state of an experiment, so that
+ * the experiment can be interrupted and resumed later from the same point.
+ * <br><br>
+ * A checkpoint contains the current generation and run, the state of the
+ * random number generator, the best results found in the current run, the
+ * statistics logged so far and the genes of the entire population. Resuming
+ * from a checkpoint therefore continues the experiment exactly as if it had
+ * never been interrupted.
+ * <br><br>
+ * The population is captured into a {@code GeneStore} allocated in direct
+ * memory, which is reused by subsequent captures as long as the dimensions
+ * of the experiment do not change. Capturing is therefore cheap and allocates
+ * very little; the actual writing can be done on a separate thread using
+ * {@code CheckpointWriter}.
+ * <br><br>
+ * Checkpoint files start with their own header, followed by the experiment
+ * state and statistics, followed by a complete {@code GeneStore} header and
+ * its records. Files are written to a temporary file first and then moved
+ * over the target file, so an interrupted write never corrupts the previous
+ * checkpoint.
+ *
+ * @see CheckpointWriter
+ * @author Eduardo Pedroni
+ *
+ */
+public class Checkpoint {
+
+	/**
+	 * Identifies checkpoint files.
+	 */
+	public static final int MAGIC = 0x4A434743;
+	/**
+	 * The current version of the checkpoint layout.
+	 */
+	public static final int VERSION = 2;
+
+	private int generation, run;
+	private long randomState;
+	private double threshold;
+	private int lastImprovementGeneration, activeNodes;
+	private double bestFitnessFound, problemBestFitness;
+	private byte[] statistics = new byte[0];
+
+	private GeneStore genes;
+
+	/**
+	 * Captures the state of the experiment into this checkpoint,
+	 * overwriting whatever was previously captured.
+	 *
+	 * @param resources the experiment's resources.
+	 * @param population the population to capture.
+	 * @param statistics the experiment's statistics, as written by {@code StatisticsLogger.write()}.
+	 * @param problemBestFitness the best fitness recorded by the problem.
+	 * @param lastImprovementGeneration the last generation when improvement occurred.
+	 * @param bestFitnessFound the best fitness found in the current run.
+	 * @param activeNodes the number of active nodes in the best chromosome of the current run.
+	 */
+	public void capture(ModifiableResources resources, Population population, byte[] statistics,
+			double problemBestFitness, int lastImprovementGeneration, double bestFitnessFound, int activeNodes) {
+		generation = resources.currentGeneration();
+		run = resources.currentRun();
+		randomState = resources.getRandomState();
+		threshold = resources.threshold();
+		this.statistics = statistics;
+		this.problemBestFitness = problemBestFitness;
+		this.lastImprovementGeneration = lastImprovementGeneration;
+		this.bestFitnessFound = bestFitnessFound;
+		this.activeNodes = activeNodes;
+
+		// reuse the store if the dimensions are still the same
+		if (genes == null || !genes.matches(resources, resources.populationSize())) {
+			genes = GeneStore.allocate(resources, resources.populationSize());
+		}
+		population.store(genes);
+	}
+
+	/**
+	 * Restores the captured resources and population. The remaining
+	 * values must be restored by the caller using the getters.
+	 *
+	 * @param resources the experiment's resources.
+	 * @param population the population into which to restore the genes.
+	 */
+	public void restore(ModifiableResources resources, Population population) {
+		resources.setCurrentGeneration(generation);
+		resources.setCurrentRun(run);
+		resources.setThreshold(threshold);
+		population.restore(genes);
+		// the RNG is restored last, nothing above may consume random numbers
+		resources.setRandomState(randomState);
+	}
+
+	/**
+	 * Writes this checkpoint to the specified file. The data is
+	 * written to a temporary file in the same directory, which
+	 * then atomically replaces the target file.
+	 *
+	 * @param file the file to write.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(File file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(64 + statistics.length + GeneStore.HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION);
+		header.putInt(generation).putInt(run);
+		header.putLong(randomState);
+		header.putDouble(threshold);
+		header.putInt(lastImprovementGeneration).putInt(activeNodes);
+		header.putDouble(bestFitnessFound).putDouble(problemBestFitness);
+		header.putInt(statistics.length).put(statistics);
+		genes.writeHeader(header, genes.size());
+		header.flip();
+
+		// gather the header and all records into a single write
+		ByteBuffer[] buffers = new ByteBuffer[genes.size() + 1];
+		buffers[0] = header;
+		for (int i = 0; i < genes.size(); i++) {
+			buffers[i + 1] = genes.getRecord(i);
+		}
+
+		File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffers[buffers.length - 1].hasRemaining()) {
+				channel.write(buffers);
+			}
+			channel.force(true);
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint from the specified file. The checkpoint must
+	 * have been written by an experiment with the same dimensions as the
+	 * one described by the resources.
+	 *
+	 * @param file the file to read.
+	 * @param resources the experiment's resources.
+	 * @return the checkpoint read from the file.
+	 * @throws IOException if the file cannot be read or does not match the experiment.
+	 */
+	public static Checkpoint read(File file, Resources resources) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		try {
+			return read(buffer, resources);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Checkpoint is truncated.");
+		}
+	}
+
+	/**
+	 * For internal use only, reads a checkpoint from the buffer.
+	 *
+	 * @param buffer the buffer containing the checkpoint.
+	 * @param resources the experiment's resources.
+	 * @return the checkpoint read from the buffer.
+	 * @throws IOException if the buffer does not contain a suitable checkpoint.
+	 */
+	private static Checkpoint read(ByteBuffer buffer, Resources resources) throws IOException {
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException("File is not a checkpoint.");
+		} else if (buffer.getInt() != VERSION) {
+			throw new IOException("Checkpoint version is not supported.");
+		}
+
+		Checkpoint checkpoint = new Checkpoint();
+		checkpoint.generation = buffer.getInt();
+		checkpoint.run = buffer.getInt();
+		checkpoint.randomState = buffer.getLong();
+		checkpoint.threshold = buffer.getDouble();
+		checkpoint.lastImprovementGeneration = buffer.getInt();
+		checkpoint.activeNodes = buffer.getInt();
+		checkpoint.bestFitnessFound = buffer.getDouble();
+		checkpoint.problemBestFitness = buffer.getDouble();
+		checkpoint.statistics = new byte[buffer.getInt()];
+		buffer.get(checkpoint.statistics);
+
+		GeneStore genes = GeneStore.allocate(resources, resources.populationSize());
+		if (!genes.matchesHeader(buffer, resources.populationSize())) {
+			throw new IOException("Checkpoint dimensions do not match the experiment.");
+		}
+		buffer.position(buffer.position() + GeneStore.HEADER_SIZE);
+		if (buffer.remaining() != (long) genes.size() * genes.getRecordSize()) {
+			throw new IOException("Checkpoint is truncated.");
+		}
+		for (int i = 0; i < genes.size(); i++) {
+			ByteBuffer record = buffer.slice();
+			record.limit(genes.getRecordSize());
+			genes.putRecord(i, record);
+			buffer.position(buffer.position() + genes.getRecordSize());
+		}
+		checkpoint.genes = genes;
+		return checkpoint;
+	}
+
+	/**
+	 * Convenience method for serialising statistics, so that they can
+	 * be passed to {@code capture()}.
+	 *
+	 * @param statistics the statistics logger to serialise.
+	 * @return the serialised statistics.
+	 */
+	public static byte[] serialise(StatisticsLogger statistics) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			statistics.write(new DataOutputStream(bytes));
+		} catch (IOException e) {
+			// ByteArrayOutputStream does not throw
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @return the captured generation.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return the captured run.
+	 */
+	public int getRun() {
+		return run;
+	}
+
+	/**
+	 * @return the captured statistics, as written by {@code StatisticsLogger.write()}.
+	 */
+	public byte[] getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the best fitness recorded by the problem.
+	 */
+	public double getProblemBestFitness() {
+		return problemBestFitness;
+	}
+
+	/**
+	 * @return the last generation when improvement occurred.
+	 */
+	public int getLastImprovementGeneration() {
+		return lastImprovementGeneration;
+	}
+
+	/**
+	 * @return the best fitness found in the captured run.
+	 */
+	public double getBestFitnessFound() {
+		return bestFitnessFound;
+	}
+
+	/**
+	 * @return the number of active nodes in the best chromosome of the captured run.
+	 */
+	public int getActiveNodes() {
+		return activeNodes;
+	}
+}
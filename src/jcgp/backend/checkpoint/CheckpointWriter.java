@@ -0,0 +1,118 @@
+package jcgp.backend.checkpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jcgp.backend.resources.Resources;
+
+/**
+ * Writes checkpoints to a file on a background thread, so that the
+ * experiment does not stall while the file is written.
+ * <br><br>
+ * Only one checkpoint is written at a time. The experiment should check
+ * {@code isBusy()} before capturing a new checkpoint; if the previous
+ * checkpoint is still being written, the new one is simply skipped rather
+ * than making evolution wait. The checkpoint passed to {@code write()} must
+ * not be modified until the writer is no longer busy.
+ *
+ * @see Checkpoint
+ * @author Eduardo Pedroni
+ *
+ */
+public class CheckpointWriter {
+
+	private final File file;
+	private final Resources resources;
+	private final AtomicBoolean busy = new AtomicBoolean(false);
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "JCGP checkpoint writer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Creates a new writer for the specified file.
+	 *
+	 * @param file the checkpoint file to write.
+	 * @param resources the experiment's resources, used for printing errors.
+	 */
+	public CheckpointWriter(File file, Resources resources) {
+		this.file = file;
+		this.resources = resources;
+	}
+
+	/**
+	 * @return true if a checkpoint is currently being written.
+	 */
+	public boolean isBusy() {
+		return busy.get();
+	}
+
+	/**
+	 * Writes the checkpoint in the background. If a checkpoint is
+	 * already being written, this does nothing and returns false.
+	 *
+	 * @param checkpoint the checkpoint to write.
+	 * @return true if the checkpoint was scheduled for writing.
+	 */
+	public boolean write(final Checkpoint checkpoint) {
+		if (!busy.compareAndSet(false, true)) {
+			return false;
+		}
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					checkpoint.write(file);
+				} catch (IOException e) {
+					resources.println("[Checkpoint] Error: could not write " + file.getName() + ": " + e.getMessage());
+				} finally {
+					busy.set(false);
+				}
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Blocks until any checkpoint being written is finished.
+	 */
+	public void await() {
+		while (busy.get()) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Waits for any pending write and stops the background thread.
+	 * The writer cannot be used after this is called.
+	 */
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the file this writer writes to.
+	 */
+	public File getFile() {
+		return file;
+	}
+}
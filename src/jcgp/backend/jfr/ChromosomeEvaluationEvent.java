@@ -0,0 +1,77 @@
+package jcgp.backend.jfr;
+
+import jcgp.backend.population.Population;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event describing the evaluation of a single chromosome.
+ * <br><br>
+ * Problems usually evaluate the whole population one test case at a time,
+ * so the time spent on each chromosome is interleaved with the others. Problems
+ * therefore accumulate the time of each chromosome themselves: they call
+ * {@code startTiming()} before evaluating, add the time spent on chromosome
+ * {@code i} to element {@code i} of the returned array, and call {@code commit()}
+ * once the fitness values are set. When the event is disabled, {@code startTiming()}
+ * returns null and nothing is measured.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@Name("jcgp.ChromosomeEvaluation")
+@Label("Chromosome Evaluation")
+@Category("JCGP")
+@Description("The evaluation of one chromosome over the problem's test cases")
+public class ChromosomeEvaluationEvent extends Event {
+
+	@Label("Chromosome")
+	@Description("The index of the chromosome in the population")
+	public int chromosome;
+
+	@Label("Evaluation Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long evaluationTime;
+
+	@Label("Fitness")
+	public double fitness;
+
+	@Label("Active Nodes")
+	public int activeNodes;
+
+	/**
+	 * Prepares to time the evaluation of a population.
+	 *
+	 * @param size the number of chromosomes to be evaluated.
+	 * @return an array to accumulate the time of each chromosome, or null if the event is disabled.
+	 */
+	public static long[] startTiming(int size) {
+		return new ChromosomeEvaluationEvent().isEnabled() ? new long[size] : null;
+	}
+
+	/**
+	 * Commits one event for each timed chromosome. This does nothing
+	 * if {@code nanos} is null.
+	 *
+	 * @param population the evaluated population.
+	 * @param first the index of the first timed chromosome.
+	 * @param nanos the time spent on each chromosome, as returned by {@code startTiming()}.
+	 */
+	public static void commit(Population population, int first, long[] nanos) {
+		if (nanos != null) {
+			for (int i = 0; i < nanos.length; i++) {
+				ChromosomeEvaluationEvent event = new ChromosomeEvaluationEvent();
+				if (event.shouldCommit()) {
+					event.chromosome = first + i;
+					event.evaluationTime = nanos[i];
+					event.fitness = population.get(first + i).getFitness();
+					event.activeNodes = population.get(first + i).getActiveNodes().size();
+					event.commit();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package jcgp.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one call to {@code EvolutionaryStrategy.evolve()},
+ * which selects parents, copies them and mutates the offspring.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@Name("jcgp.Evolution")
+@Label("Evolution")
+@Category("JCGP")
+@Description("Selection, copying and mutation of one generation")
+public class EvolutionEvent extends Event {
+
+	@Label("Generation")
+	public int generation;
+
+	@Label("Evolutionary Strategy")
+	public String strategy;
+
+	@Label("Mutator")
+	public String mutator;
+}
@@ -0,0 +1,38 @@
+package jcgp.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one call to {@code JCGP.nextGeneration()},
+ * from the evaluation of the population to the end of the evolution step.
+ * <br><br>
+ * The fields are only filled in if the event is going to be committed,
+ * so this costs nothing when recording is disabled.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@Name("jcgp.Generation")
+@Label("Generation")
+@Category("JCGP")
+@Description("One generation of the experiment")
+public class GenerationEvent extends Event {
+
+	@Label("Run")
+	public int run;
+
+	@Label("Generation")
+	public int generation;
+
+	@Label("Best Fitness")
+	@Description("The best fitness found in the run by the end of this generation, including the last generation of a run")
+	public double bestFitness;
+
+	@Label("Active Nodes")
+	@Description("The number of active nodes of the chromosome with the best fitness")
+	public int activeNodes;
+}
@@ -0,0 +1,37 @@
+package jcgp.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event marking a generation in which a chromosome
+ * improved on the best fitness of the run.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@Name("jcgp.Improvement")
+@Label("Improvement")
+@Category("JCGP")
+@Description("A chromosome improved on the best fitness of the run")
+public class ImprovementEvent extends Event {
+
+	@Label("Run")
+	public int run;
+
+	@Label("Generation")
+	public int generation;
+
+	@Label("Chromosome")
+	@Description("The index of the improved chromosome in the population")
+	public int chromosome;
+
+	@Label("Fitness")
+	public double fitness;
+
+	@Label("Active Nodes")
+	public int activeNodes;
+}
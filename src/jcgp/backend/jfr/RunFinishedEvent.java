@@ -0,0 +1,38 @@
+package jcgp.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event marking the end of a run, either because a
+ * perfect solution was found or because the generations ran out.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+@Name("jcgp.RunFinished")
+@Label("Run Finished")
+@Category("JCGP")
+@Description("A run of the experiment ended")
+public class RunFinishedEvent extends Event {
+
+	@Label("Run")
+	public int run;
+
+	@Label("Generation")
+	@Description("The generation of the best chromosome of the run")
+	public int generation;
+
+	@Label("Fitness")
+	public double fitness;
+
+	@Label("Active Nodes")
+	public int activeNodes;
+
+	@Label("Successful")
+	@Description("Whether a perfect solution was found")
+	public boolean successful;
+}
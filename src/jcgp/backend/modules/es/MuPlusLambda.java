@@ -44,10 +44,10 @@ public class MuPlusLambda extends EvolutionaryStrategy {
 			public void validate(Number newValue) {
 				if (newValue.intValue() + lambda.get() != getResources().populationSize()) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Parents + offspring must equal population size.");
+					details = "Parents + offspring must equal population size.";
 				} else if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("ES needs at least 1 parent.");
+					details = "ES needs at least 1 parent.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -59,10 +59,10 @@ public class MuPlusLambda extends EvolutionaryStrategy {
 			public void validate(Number newValue) {
 				if (newValue.intValue() + mu.get() != getResources().populationSize()) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Parents + offspring must equal population size.");
+					details = "Parents + offspring must equal population size.";
 				} else if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("ES needs at least 1 offspring.");
+					details = "ES needs at least 1 offspring.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -77,24 +77,28 @@ public class MuPlusLambda extends EvolutionaryStrategy {
 
 	@Override
 	public void evolve(Population population, Mutator mutator) {	
+		// read the parameters once, rather than for every offspring
+		boolean reporting = report.get() && getResources().isReporting();
+		int parents = mu.get();
+		
 		// sort the population neutrally
 		sort(population);
 		
 		// population is now sorted such that the new parents are in the last mu positions
-		for (int i = 0; i < getResources().populationSize() - mu.get(); i++) {
+		for (int i = 0; i < population.size() - parents; i++) {
 			// select a random parent out of the mu population parents
-			int randomParent = getResources().populationSize() - 1 - getResources().getRandomInt(mu.get());
-			if (report.get()) getResources().reportln("[ES] Copying Chr " + randomParent + " to population position " + i);
+			int randomParent = population.size() - 1 - getResources().getRandomInt(parents);
+			if (reporting) getResources().reportln("[ES] Copying Chr " + randomParent + " to population position " + i);
 			
 			// copy it into the offspring position
 			population.copyChromosome(randomParent, i);
 
 			// mutate the new offspring chromosome
-			if (report.get()) getResources().reportln("[ES] Mutating copied chromosome");
+			if (reporting) getResources().reportln("[ES] Mutating copied chromosome");
 			mutator.mutate(population.get(i));
 		}
 
-		if (report.get()) getResources().reportln("[ES] Generation is complete");
+		if (reporting) getResources().reportln("[ES] Generation is complete");
 	}
 
 	/**
@@ -125,7 +129,7 @@ public class MuPlusLambda extends EvolutionaryStrategy {
 		}
 		
 		// cycle through the offspring, i.e. the first lambda elements of the population
-		for (int o = 0; o < getResources().populationSize() - mu.get(); o++) {
+		for (int o = 0; o < population.size() - mu.get(); o++) {
 			// compare each offspring with each parent, as stored in parents
 			for (int p = 0; p < parents.length; p++) {
 				/* replace parent if the offspring fitness and greater than or equal to its own
@@ -50,16 +50,16 @@ public class TournamentSelection extends EvolutionaryStrategy {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Tournament size must be greater than 0.");
+					details = "Tournament size must be greater than 0.";
 				} else if (newValue.intValue() > resources.populationSize()) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Tournament size must not be greater than the population size.");
+					details = "Tournament size must not be greater than the population size.";
 				} else if (newValue.intValue() == 1) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("A tournament size of 1 results in a random search.");
+					details = "A tournament size of 1 results in a random search.";
 				} else if (newValue.intValue() == resources.populationSize()) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("A tournament size equal to population size results in the same individual being selected every time.");
+					details = "A tournament size equal to population size results in the same individual being selected every time.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -80,37 +80,41 @@ public class TournamentSelection extends EvolutionaryStrategy {
 		 * population.
 		 */
 		
+		// read the parameters once, rather than for every tournament
+		boolean reporting = report.get() && getResources().isReporting();
+		int size = tournamentSize.get();
+		
 		// sort the population by fitness to make things easier
 		population.sort();
 		
 		// this array holds the new population temporarily, until it is copied over
-		Chromosome[] newPopulation = new Chromosome[getResources().populationSize()];
+		Chromosome[] newPopulation = new Chromosome[population.size()];
 		
 		// start by selecting all of the chromosomes that will be promoted
-		for (int i = 0; i < getResources().populationSize(); i++) {
-			if (report.get()) getResources().reportln("[ES] Starting tournament " + i);
+		for (int i = 0; i < population.size(); i++) {
+			if (reporting) getResources().reportln("[ES] Starting tournament " + i);
 			
 			/* the population is sorted in ascending order of fitness,
 			 * meaning the higher the index of the contender, the fitter
 			 * it is
 			 */
-			int[] contenders = new int[tournamentSize.get()];
-			for (int t = 0; t < tournamentSize.get() - 1; t++) {
-				contenders[t] = getResources().getRandomInt(getResources().populationSize());
+			int[] contenders = new int[size];
+			for (int t = 0; t < size - 1; t++) {
+				contenders[t] = getResources().getRandomInt(population.size());
 			}
-			if (report.get()) getResources().reportln("[ES] Selected contenders: " + Arrays.toString(contenders));
+			if (reporting) getResources().reportln("[ES] Selected contenders: " + Arrays.toString(contenders));
 			Arrays.sort(contenders);
-			if (report.get()) getResources().reportln("[ES] Chr " + contenders[contenders.length - 1] + " wins the tournament, copying and mutating...");
+			if (reporting) getResources().reportln("[ES] Chr " + contenders[contenders.length - 1] + " wins the tournament, copying and mutating...");
 			// create a copy of the selected chromosome and mutate it
 			newPopulation[i] = new Chromosome(population.get(contenders[contenders.length - 1]));
 			mutator.mutate(newPopulation[i]);
 		}
-		if (report.get()) getResources().reportln("[ES] Tournaments are finished, copying new chromosomes into population");
+		if (reporting) getResources().reportln("[ES] Tournaments are finished, copying new chromosomes into population");
 		// newPopulation has been generated, copy into the population
-		for (int c = 0; c < getResources().populationSize(); c++) {
-			population.get(c).copyGenes(newPopulation[c]);
+		for (int c = 0; c < population.size(); c++) {
+			population.copyChromosome(newPopulation[c], c);
 		}
 		
-		if (report.get()) getResources().reportln("[ES] Generation is complete");
+		if (reporting) getResources().reportln("[ES] Generation is complete");
 	}
 }
@@ -31,10 +31,10 @@ public class FixedPointMutator extends PointMutator {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("At least 1 mutation must take place.");
+					details = "At least 1 mutation must take place.";
 				} else if (newValue.intValue() > (resources.nodes() * (resources.arity() + 1)) + resources.outputs()) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("More genes are mutated than there are genes in the genotype.");
+					details = "More genes are mutated than there are genes in the genotype.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -40,10 +40,10 @@ public class PercentPointMutator extends PointMutator {
 				
 				if (newValue.doubleValue() <= 0 || newValue.doubleValue() > 100) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Mutation rate must be > 0 and <= 100");
+					details = "Mutation rate must be > 0 and <= 100";
 				} else if (genesMutated.get() <=  0) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("With mutation rate " + mutationRate.get() + ", 0 genes will be mutated.");
+					details = "With mutation rate " + mutationRate.get() + ", 0 genes will be mutated.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
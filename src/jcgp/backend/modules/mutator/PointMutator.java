@@ -34,14 +34,17 @@ public abstract class PointMutator extends Mutator {
 
 	@Override
 	public void mutate(Chromosome chromosome) {
-		if (report.get()) getResources().reportln("[Mutator] Number of mutations to be performed: " + genesMutated.get());
+		// read the parameters once, rather than for every gene
+		boolean reporting = report.get() && getResources().isReporting();
+		int mutations = genesMutated.get();
+		if (reporting) getResources().reportln("[Mutator] Number of mutations to be performed: " + mutations);
 		
 		// for however many genes must be mutated
-		for (int i = 0; i < genesMutated.get(); i++) {
+		for (int i = 0; i < mutations; i++) {
 			// choose a random mutable
 			Mutable mutable = chromosome.getRandomMutable();
 			
-			if (report.get()) getResources().reportln("[Mutator] Mutation " + i + " selected " + mutable);
+			if (reporting) getResources().reportln("[Mutator] Mutation " + i + " selected " + mutable);
 			
 			// mutate a random gene
 			mutable.mutate();
@@ -7,6 +7,7 @@ import jcgp.backend.population.Chromosome;
 import jcgp.backend.population.Node;
 import jcgp.backend.population.Output;
 import jcgp.backend.resources.Resources;
+import jcgp.backend.resources.RunConfiguration;
 
 /**
  * Probabilistic mutator
@@ -39,7 +40,7 @@ public class ProbabilisticMutator extends Mutator {
 			public void validate(Number newValue) {
 				if (newValue.doubleValue() <= 0 || newValue.doubleValue() > 100) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Mutation rate must be > 0 and <= 100");
+					details = "Mutation rate must be > 0 and <= 100";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -54,52 +55,56 @@ public class ProbabilisticMutator extends Mutator {
 
 	@Override
 	public void mutate(Chromosome chromosome) {
-		if (report.get()) getResources().reportln("[Mutator] Starting mutations");
+		// read the parameters once, rather than for every gene
+		boolean reporting = report.get() && getResources().isReporting();
+		double probability = mutationProbability.get();
+		if (reporting) getResources().reportln("[Mutator] Starting mutations");
 		
+		RunConfiguration configuration = chromosome.getConfiguration();
 		// go through nodes - [rows][columns]
-		for (int r = 0; r < getResources().rows(); r++) {
-			for (int c = 0; c < getResources().columns(); c++) {
+		for (int r = 0; r < configuration.rows(); r++) {
+			for (int c = 0; c < configuration.columns(); c++) {
 				// go through all connections
-				for (int a = 0; a < getResources().arity(); a++) {
-					if (mutateGene()) {
+				for (int a = 0; a < configuration.arity(); a++) {
+					if (mutateGene(probability)) {
 						Node n = chromosome.getNode(r, c);
 						
-						if (report.get()) getResources().report("[Mutator] Mutating " + n +
+						if (reporting) getResources().report("[Mutator] Mutating " + n +
 								", changed connection " + a + " from " + n.getConnection(a) + " ");
 						
 						n.setConnection(a, chromosome.getRandomConnection(c));
 						
-						if (report.get()) getResources().reportln("to " + n.getConnection(a));
+						if (reporting) getResources().reportln("to " + n.getConnection(a));
 						
 					}
 				}
 				// deal with node function next
-				if (mutateGene()) {
+				if (mutateGene(probability)) {
 					Node n = chromosome.getNode(r, c);
-					if (report.get()) getResources().report("[Mutator] Mutating " + n +
+					if (reporting) getResources().report("[Mutator] Mutating " + n +
 							", changed function from " + n.getFunction());
 					
 					n.setFunction(getResources().getRandomFunction());
 					
-					if (report.get()) getResources().reportln(" to " + n.getFunction());
+					if (reporting) getResources().reportln(" to " + n.getFunction());
 				}
 			}
 		}
 		// finally, mutate outputs
-		for (int o = 0; o < getResources().outputs(); o++) {
-			if (mutateGene()) {
+		for (int o = 0; o < configuration.outputs(); o++) {
+			if (mutateGene(probability)) {
 				Output out = chromosome.getOutput(o);
 				
-				if (report.get()) getResources().report("[Mutator] Mutating " + out +
+				if (reporting) getResources().report("[Mutator] Mutating " + out +
 						", changed source from " + out.getSource());
 				
 				out.setSource(chromosome.getRandomConnection());
 				
-				if (report.get()) getResources().reportln("to " + out.getSource());
+				if (reporting) getResources().reportln("to " + out.getSource());
 			}
 		}
 		
-		if (report.get()) getResources().reportln("[Mutator] Mutation finished");
+		if (reporting) getResources().reportln("[Mutator] Mutation finished");
 
 	}
 	
@@ -109,9 +114,10 @@ public class ProbabilisticMutator extends Mutator {
 	 * mutation probability parameter. If the generated number is less than the mutation
 	 * probability, this returns true meaning a mutation should occur.
 	 * 
+	 * @param probability the mutation probability.
 	 * @return true if a mutation should be performed, false if otherwise.
 	 */
-	private boolean mutateGene() {
-		return getResources().getRandomDouble(100) < mutationProbability.get();
+	private boolean mutateGene(double probability) {
+		return getResources().getRandomDouble(100) < probability;
 	}
 }
@@ -2,8 +2,10 @@ package jcgp.backend.modules.problem;
 
 import jcgp.backend.function.DigitalCircuitFunctions;
 import jcgp.backend.function.UnsignedInteger;
+import jcgp.backend.jfr.ChromosomeEvaluationEvent;
 import jcgp.backend.population.Population;
 import jcgp.backend.resources.Resources;
+import jcgp.backend.resources.RunConfiguration;
 
 /**
  * Digital circuit problem
@@ -32,33 +34,45 @@ public class DigitalCircuitProblem extends TestCaseProblem<UnsignedInteger> {
 
 	@Override
 	public void evaluate(Population population) {
-		// for every chromosome in the population
-		for (int i = 0; i < getResources().populationSize(); i++) {
-			// assume an initial fitness of 0
-			int fitness = 0;
-
-			// iterate over every test case
-			for (int t = 0; t < testCases.size(); t++) {
-				population.get(i).setInputs((Object[]) testCases.get(t).getInputs());
+		// check only the relevant bits
+		int bits;
+		if (getResources().inputs() < 5) {
+			bits = (int) Math.pow(2.0, (double) getResources().inputs());
+		} else {
+			bits = 32;
+		}
+		
+		RunConfiguration configuration = getResources().configuration();
+		int outputs = configuration.outputs();
+		// assume an initial fitness of 0 for every chromosome in the population
+		int[] fitness = new int[configuration.populationSize()];
+		// time spent on each chromosome, only measured while the flight recorder is recording
+		long[] nanos = ChromosomeEvaluationEvent.startTiming(fitness.length);
+		// iterate over every test case
+		for (int t = 0; t < getTestCaseCount(); t++) {
+			Object[] inputs = getInputs(t);
+			// for every chromosome in the population
+			for (int i = 0; i < fitness.length; i++) {
+				long start = nanos == null ? 0 : System.nanoTime();
+				population.get(i).setInputs(inputs);
 				// check each output
-				for (int o = 0; o < getResources().outputs(); o++) {
+				for (int o = 0; o < outputs; o++) {
 					Integer output = ((UnsignedInteger) population.get(i).getOutput(o).calculate()).get();
-					Integer matches = ~(output ^ testCases.get(t).getOutputs()[o].get());
-					// check only the relevant bits
-					int bits;
-					if (getResources().inputs() < 5) {
-						bits = (int) Math.pow(2.0, (double) getResources().inputs());
-					} else {
-						bits = 32;
-					}
+					Integer matches = ~(output ^ (int) (long) getOutputValue(t, o));
 					for (int b = 0; b < bits; b++) {
-						fitness += (matches >>> b) & 1;
+						fitness[i] += (matches >>> b) & 1;
 					}
 				}
+				if (nanos != null) {
+					nanos[i] += System.nanoTime() - start;
+				}
 			}
-			// assign the resulting fitness to the respective individual
-			population.get(i).setFitness(fitness);
 		}
+		// assign the resulting fitness to the respective individual
+		for (int i = 0; i < fitness.length; i++) {
+			population.get(i).setFitness(fitness[i]);
+		}
+		ChromosomeEvaluationEvent.commit(population, 0, nanos);
 	}
 
 	@Override
@@ -69,20 +83,31 @@ public class DigitalCircuitProblem extends TestCaseProblem<UnsignedInteger> {
 	}
 
 	@Override
-	public TestCase<UnsignedInteger> parseTestCase(String[] inputs, String[] outputs) {
-		// cast the test case values to UnsignedInteger
+	protected double parseValue(String value) {
+		// values are unsigned, so keep them positive
+		return Integer.parseUnsignedInt(value) & 0xFFFFFFFFL;
+	}
+
+	@Override
+	protected TestCase<UnsignedInteger> parseTestCase(double[] inputs, double[] outputs) {
+		// the values are unsigned 32-bit integers, so narrow through long
 		UnsignedInteger[] inputCases = new UnsignedInteger[inputs.length];
 		UnsignedInteger[] outputCases = new UnsignedInteger[outputs.length];
 		for (int i = 0; i < inputCases.length; i++) {
-			inputCases[i] = new UnsignedInteger(inputs[i]);
+			inputCases[i] = new UnsignedInteger((int) (long) inputs[i]);
 		}
 		for (int o = 0; o < outputCases.length; o++) {
-			outputCases[o] = new UnsignedInteger(outputs[o]);
+			outputCases[o] = new UnsignedInteger((int) (long) outputs[o]);
 		}
 
 		return new TestCase<UnsignedInteger>(inputCases, outputCases);
 	}
 
+	@Override
+	protected UnsignedInteger parseInput(double value) {
+		return new UnsignedInteger((int) (long) value);
+	}
+
 	@Override
 	public int hasPerfectSolution(Population population) {
 		// higher fitness is better
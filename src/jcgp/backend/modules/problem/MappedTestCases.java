@@ -0,0 +1,274 @@
+package jcgp.backend.modules.problem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Provides access to the test cases in a binary test case file
+ * through memory mapping, so that data sets larger than the heap
+ * can be used.
+ * <br><br>
+ * The file is mapped once, when it is opened, as a fixed set of regions
+ * of whole test cases; a region is only split off when the file is larger
+ * than 2 GB, so even very large files take a handful of mappings. None of
+ * the test cases are held in the heap. The operating system reads pages of
+ * the file in as they are touched and, since they are never written, can
+ * drop them again whenever memory is needed elsewhere, so how much of the
+ * file stays resident is up to the operating system rather than bounded by
+ * this class. Reading the test cases in ascending order lets it read ahead.
+ * <br><br>
+ * Binary test case files are written with {@code MappedTestCases.Writer},
+ * usually through {@code TestCaseParser.convert()}. A file contains a header
+ * holding the magic number, version, number of inputs, number of outputs and
+ * number of test cases, followed by the test cases one after the other, each
+ * stored as its inputs followed by its outputs.
+ *
+ * @see jcgp.backend.parsers.TestCaseParser
+ * @author Eduardo Pedroni
+ *
+ */
+public class MappedTestCases {
+
+	/**
+	 * Identifies binary test case files.
+	 */
+	public static final int MAGIC = 0x4A434744;
+	/**
+	 * The current version of the binary test case layout.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The size of the header, in bytes.
+	 */
+	public static final int HEADER_SIZE = 32;
+
+	// the largest region of the file, in bytes
+	private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+	private final RandomAccessFile file;
+	private final int inputs, outputs, size;
+	// the test cases, split into regions of testCasesPerRegion test cases
+	private final int testCasesPerRegion;
+	private volatile DoubleBuffer[] regions;
+
+	/**
+	 * Opens and maps a binary test case file.
+	 *
+	 * @param file the file to open.
+	 * @throws IOException if the file cannot be read or mapped, or is not a binary test case file.
+	 */
+	public MappedTestCases(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		FileChannel channel = this.file.getChannel();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header) < 0) {
+				break;
+			}
+		}
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+			close();
+			throw new IOException(file.getName() + " is not a binary test case file.");
+		} else if (header.getInt() != VERSION) {
+			close();
+			throw new IOException("The version of " + file.getName() + " is not supported.");
+		}
+		inputs = header.getInt();
+		outputs = header.getInt();
+		long count = header.getLong();
+		long testCaseSize = 8L * Math.max(1, inputs + outputs);
+		if (inputs < 0 || outputs < 0 || count < 0 || count > Integer.MAX_VALUE
+				|| channel.size() < HEADER_SIZE + (count * (inputs + outputs) * 8)) {
+			close();
+			throw new IOException(file.getName() + " is truncated.");
+		}
+		size = (int) count;
+
+		testCasesPerRegion = (int) Math.max(1, Math.min(size, MAX_REGION_SIZE / testCaseSize));
+		DoubleBuffer[] mapped = new DoubleBuffer[size == 0 ? 0 : ((size - 1) / testCasesPerRegion) + 1];
+		long rowSize = 8L * (inputs + outputs);
+		try {
+			for (int r = 0; r < mapped.length; r++) {
+				long first = (long) r * testCasesPerRegion;
+				long last = Math.min(size, first + testCasesPerRegion);
+				mapped[r] = channel.map(MapMode.READ_ONLY, HEADER_SIZE + (first * rowSize),
+						(last - first) * rowSize).asDoubleBuffer();
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+		regions = mapped;
+	}
+
+	/**
+	 * @return the number of test cases in the file.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of inputs in each test case.
+	 */
+	public int getInputCount() {
+		return inputs;
+	}
+
+	/**
+	 * @return the number of outputs in each test case.
+	 */
+	public int getOutputCount() {
+		return outputs;
+	}
+
+	/**
+	 * @param testCase the index of the test case.
+	 * @param input the index of the input.
+	 * @return the value of the input in the specified test case.
+	 */
+	public double getInput(int testCase, int input) {
+		return getRegion(testCase).get(((testCase % testCasesPerRegion) * (inputs + outputs)) + input);
+	}
+
+	/**
+	 * @param testCase the index of the test case.
+	 * @param output the index of the output.
+	 * @return the value of the output in the specified test case.
+	 */
+	public double getOutput(int testCase, int output) {
+		return getRegion(testCase).get(((testCase % testCasesPerRegion) * (inputs + outputs)) + inputs + output);
+	}
+
+	/**
+	 * Closes the file. Test cases can no longer be read after this, and
+	 * the mappings are released once they have been garbage collected.
+	 *
+	 * @throws IOException if the file cannot be closed.
+	 */
+	public void close() throws IOException {
+		regions = new DoubleBuffer[0];
+		file.close();
+	}
+
+	/**
+	 * Returns the region containing the specified test case.
+	 *
+	 * @param testCase the test case to access.
+	 * @return the region containing the test case.
+	 */
+	private DoubleBuffer getRegion(int testCase) {
+		if (testCase < 0 || testCase >= size) {
+			throw new IndexOutOfBoundsException("Test case " + testCase + " does not exist, there are " + size + " test cases.");
+		}
+		DoubleBuffer[] current = regions;
+		int region = testCase / testCasesPerRegion;
+		if (region >= current.length) {
+			throw new IllegalStateException("The test case file has been closed.");
+		}
+		return current[region];
+	}
+
+	/**
+	 * Writes binary test case files one test case at a time, so
+	 * that files of any size can be written with little memory.
+	 *
+	 * @author Eduardo Pedroni
+	 *
+	 */
+	public static class Writer {
+
+		private final RandomAccessFile file;
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+		private int inputs = -1, outputs;
+		private long count = 0;
+
+		/**
+		 * Creates a new writer, overwriting the specified file.
+		 *
+		 * @param target the file to write.
+		 * @throws IOException if the file cannot be opened.
+		 */
+		public Writer(File target) throws IOException {
+			file = new RandomAccessFile(target, "rw");
+			file.setLength(0);
+			channel = file.getChannel();
+		}
+
+		/**
+		 * Sets the dimensions of the test cases. This must be
+		 * called before any test cases are added.
+		 *
+		 * @param inputs the number of inputs in each test case.
+		 * @param outputs the number of outputs in each test case.
+		 * @throws IOException if the file cannot be written.
+		 */
+		public void begin(int inputs, int outputs) throws IOException {
+			this.inputs = inputs;
+			this.outputs = outputs;
+			// leave room for the header, which is written when closing
+			channel.position(HEADER_SIZE);
+		}
+
+		/**
+		 * Adds a test case.
+		 *
+		 * @param values the inputs of the test case followed by its outputs.
+		 * @throws IOException if the file cannot be written.
+		 */
+		public void add(double[] values) throws IOException {
+			if (inputs < 0) {
+				throw new IllegalStateException("begin() must be called before adding test cases.");
+			} else if (values.length != inputs + outputs) {
+				throw new IllegalArgumentException("Received " + values.length + " values but need exactly " + (inputs + outputs));
+			}
+			if (buffer.remaining() < values.length * 8) {
+				flush();
+			}
+			for (int v = 0; v < values.length; v++) {
+				buffer.putDouble(values[v]);
+			}
+			count++;
+		}
+
+		/**
+		 * Writes any buffered test cases and the header,
+		 * and closes the file.
+		 *
+		 * @throws IOException if the file cannot be written.
+		 */
+		public void close() throws IOException {
+			if (file.getChannel().isOpen()) {
+				flush();
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putInt(VERSION);
+				header.putInt(Math.max(inputs, 0)).putInt(outputs);
+				header.putLong(count);
+				header.clear();
+				channel.write(header, 0);
+				file.close();
+			}
+		}
+
+		/**
+		 * Writes the buffered test cases to the file.
+		 *
+		 * @throws IOException if the file cannot be written.
+		 */
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package jcgp.backend.modules.problem;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import jcgp.backend.parsers.TestCaseParser;
+import jcgp.backend.resources.ModifiableResources;
+import jcgp.backend.resources.Resources;
+
+/**
+ * Out-of-core symbolic regression
+ * <br><br>
+ * This problem type behaves exactly like {@code SymbolicRegressionProblem},
+ * but its test cases are never loaded into the heap. Instead, they are read
+ * from a binary test case file through {@code MappedTestCases}, which maps
+ * the file outside of the heap. This makes it possible to use data sets
+ * which are larger than the available memory.
+ * <br><br>
+ * Problem data can be given either as a standard CGP .dat file or as a
+ * binary test case file. A .dat file is converted into a binary file the
+ * first time it is loaded; the binary file is written next to it, with
+ * the same name followed by ".bin", and is used instead of the .dat file
+ * for as long as it is newer. Binary files can also be loaded directly.
+ * <br><br>
+ * The whole population is evaluated in a single pass over the test cases,
+ * in ascending order, so the file is read through once per generation (and
+ * once more when mini-batch fitness values need confirming).
+ *
+ * @see MappedTestCases
+ * @author Eduardo Pedroni
+ *
+ */
+public class OutOfCoreRegressionProblem extends SymbolicRegressionProblem {
+
+	private MappedTestCases mappedTestCases;
+
+	/**
+	 * Creates a new instance of OutOfCoreRegressionProblem.
+	 *
+	 * @param resources a reference to the experiment's resources.
+	 */
+	public OutOfCoreRegressionProblem(Resources resources) {
+		super(resources);
+		setName("Symbolic regression (out-of-core)");
+	}
+
+	@Override
+	public int getTestCaseCount() {
+		return mappedTestCases == null ? 0 : mappedTestCases.size();
+	}
+
+	@Override
+	protected double getInputValue(int testCase, int input) {
+		return mappedTestCases.getInput(testCase, input);
+	}
+
+	@Override
+	protected double getOutputValue(int testCase, int output) {
+		return mappedTestCases.getOutput(testCase, output);
+	}
+
+	@Override
+	public void parseProblemData(File file, ModifiableResources resources) {
+		File binary = file;
+		MappedTestCases opened = null;
+		if (!isBinary(file)) {
+			binary = new File(file.getPath() + ".bin");
+			// reuse a previous conversion, unless the data file has changed since
+			if (binary.lastModified() > file.lastModified() && isBinary(binary)) {
+				try {
+					opened = new MappedTestCases(binary);
+					resources.println("[Parser] Using " + binary.getName() + ", converted from " + file.getName());
+				} catch (IOException e) {
+					// convert the data file again
+				}
+			}
+			if (opened == null && !TestCaseParser.convert(file, binary, resources)) {
+				return;
+			}
+		}
+
+		if (opened == null) {
+			try {
+				opened = new MappedTestCases(binary);
+			} catch (IOException e) {
+				resources.println("[Parser] Error: " + e.getMessage());
+				return;
+			}
+		}
+
+		resources.setInputs(opened.getInputCount());
+		resources.setOutputs(opened.getOutputCount());
+		clearTestCases();
+		mappedTestCases = opened;
+		maxFitness.set(getMaxFitness());
+		resources.println("[Parser] Mapped " + opened.size() + " test cases from " + binary.getName());
+	}
+
+	@Override
+	public void clearTestCases() {
+		if (mappedTestCases != null) {
+			try {
+				mappedTestCases.close();
+			} catch (IOException e) {
+				// nothing can be read from it anymore either way
+			}
+			mappedTestCases = null;
+		}
+		super.clearTestCases();
+	}
+
+	/**
+	 * For internal use only, checks whether a file starts
+	 * with the magic number of binary test case files.
+	 *
+	 * @param file the file to check.
+	 * @return true if the file is a binary test case file.
+	 */
+	private boolean isBinary(File file) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MappedTestCases.MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package jcgp.backend.modules.problem;
 
 import jcgp.backend.function.PolynomialFunctions;
+import jcgp.backend.jfr.ChromosomeEvaluationEvent;
 import jcgp.backend.population.Population;
 import jcgp.backend.resources.Resources;
+import jcgp.backend.resources.RunConfiguration;
 
 /**
  * Polynomial solver problem
@@ -35,42 +37,63 @@ public class PolynomialProblem extends TestCaseProblem<Integer> {
 	
 	@Override
 	public void evaluate(Population population) {
-		// for every chromosome in the population
-		for (int i = 0; i < getResources().populationSize(); i++) {
-			// assume an initial fitness of 0
-			double fitness = 0;
-			// for each test case
-			for (int t = 0; t < testCases.size(); t++) {
-				population.get(i).setInputs((Object[]) testCases.get(t).getInputs());
+		// assume an initial fitness of 0 for every chromosome in the population
+		RunConfiguration configuration = getResources().configuration();
+		int outputs = configuration.outputs();
+		double[] fitness = new double[configuration.populationSize()];
+		// time spent on each chromosome, only measured while the flight recorder is recording
+		long[] nanos = ChromosomeEvaluationEvent.startTiming(fitness.length);
+		// for each test case
+		for (int t = 0; t < getTestCaseCount(); t++) {
+			Object[] inputs = getInputs(t);
+			// for every chromosome in the population
+			for (int i = 0; i < fitness.length; i++) {
+				long start = nanos == null ? 0 : System.nanoTime();
+				population.get(i).setInputs(inputs);
 				// check each output
-				for (int o = 0; o < getResources().outputs(); o++) {
+				for (int o = 0; o < outputs; o++) {
 					Integer cgpValue = (Integer) population.get(i).getOutput(o).calculate();
-					Integer dataValue = testCases.get(t).getOutputs()[o];
+					int dataValue = (int) getOutputValue(t, o);
 				
-					fitness += 1 - Math.abs(cgpValue - dataValue);
+					fitness[i] += 1 - Math.abs(cgpValue - dataValue);
 				
 				}
+				if (nanos != null) {
+					nanos[i] += System.nanoTime() - start;
+				}
 			}
-			// assign the resulting fitness to the respective individual
-			population.get(i).setFitness(fitness);
 		}
+		// assign the resulting fitness to the respective individual
+		for (int i = 0; i < fitness.length; i++) {
+			population.get(i).setFitness(fitness[i]);
+		}
+		ChromosomeEvaluationEvent.commit(population, 0, nanos);
 	}
 	
 	@Override
-	public TestCase<Integer> parseTestCase(String[] inputs, String[] outputs) {
-		// cast the test case values to UnsignedInteger
+	protected double parseValue(String value) {
+		return Integer.parseInt(value);
+	}
+	
+	@Override
+	protected TestCase<Integer> parseTestCase(double[] inputs, double[] outputs) {
 		Integer[] inputCases = new Integer[inputs.length];
 		Integer[] outputCases = new Integer[outputs.length];
 		for (int i = 0; i < inputCases.length; i++) {
-			inputCases[i] = Integer.parseInt(inputs[i]);
+			inputCases[i] = (int) inputs[i];
 		}
 		for (int o = 0; o < outputCases.length; o++) {
-			outputCases[o] = Integer.parseInt(outputs[o]);
+			outputCases[o] = (int) outputs[o];
 		}
 		
 		return new TestCase<Integer>(inputCases, outputCases);
 	}
 
+	@Override
+	protected Integer parseInput(double value) {
+		return (int) value;
+	}
+
 	@Override
 	public int hasPerfectSolution(Population population) {
 		// higher fitness is better
@@ -170,6 +170,16 @@ public abstract class Problem extends Module {
 		return bestFitness.get();
 	}
 	
+	/**
+	 * Sets the current best fitness. This is used to restore the
+	 * state of the problem, when resuming from a checkpoint for instance.
+	 * 
+	 * @param newBestFitness the best fitness to set.
+	 */
+	public void setBestFitness(double newBestFitness) {
+		bestFitness.set(newBestFitness);
+	}
+	
 	/**
 	 * Resets the bestFitness parameter.
 	 */
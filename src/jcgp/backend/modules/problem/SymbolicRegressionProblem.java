@@ -1,9 +1,15 @@
 package jcgp.backend.modules.problem;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import jcgp.backend.function.SymbolicRegressionFunctions;
+import jcgp.backend.jfr.ChromosomeEvaluationEvent;
 import jcgp.backend.parameters.BooleanParameter;
 import jcgp.backend.parameters.DoubleParameter;
+import jcgp.backend.parameters.IntegerParameter;
 import jcgp.backend.parameters.ParameterStatus;
+import jcgp.backend.population.Chromosome;
 import jcgp.backend.population.Population;
 import jcgp.backend.resources.Resources;
 
@@ -25,7 +31,15 @@ import jcgp.backend.resources.Resources;
  * considered perfect when the difference between its fitness and
  * the maximum possible fitness is within the perfection threshold.</li>
  * <li>Hits-based fitness: increment the fitness by 1 whenever the
- * chromosome output is within the error threshold.</li></ul>
+ * chromosome output is within the error threshold.</li>
+ * <li>Mini-batch size: if greater than 0, each generation is evaluated
+ * on a random subset of this many test cases rather than on all of them.
+ * The subset is drawn using the experiment's random number generator, and
+ * fitness values are scaled up to the size of the whole data set. Chromosomes
+ * which appear to improve on the best fitness or to be perfect are always
+ * evaluated again on every test case before they are accepted; all of the
+ * chromosomes which need confirming are evaluated together, in a single
+ * pass over the data.</li></ul>
  * 
  * 
  * @see SymbolicRegressionFunctions
@@ -36,6 +50,10 @@ public class SymbolicRegressionProblem extends TestCaseProblem<Double> {
 	
 	private DoubleParameter errorThreshold, perfectionThreshold;
 	private BooleanParameter hitsBasedFitness;
+	private IntegerParameter miniBatchSize;
+	
+	// the test cases used in the current generation, or null if all were used
+	private int[] batch;
 		
 	/**
 	 * Creates a new instance of SymbolicRegressionProblem.
@@ -53,10 +71,10 @@ public class SymbolicRegressionProblem extends TestCaseProblem<Double> {
 			public void validate(Number newValue) {
 				if (newValue.doubleValue() < 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Error threshold must be a positive value.");
+					details = "Error threshold must be a positive value.";
 				} else if (newValue.doubleValue() == 0) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("An error threshold of 0 is very rigorous and difficult to achieve.");
+					details = "An error threshold of 0 is very rigorous and difficult to achieve.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -68,10 +86,10 @@ public class SymbolicRegressionProblem extends TestCaseProblem<Double> {
 			public void validate(Number newValue) {
 				if (newValue.doubleValue() < 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Perfection threshold must be a positive value.");
+					details = "Perfection threshold must be a positive value.";
 				} else if (newValue.doubleValue() == 0) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("A perfection threshold of 0 is very rigorous and difficult to achieve.");
+					details = "A perfection threshold of 0 is very rigorous and difficult to achieve.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -80,53 +98,211 @@ public class SymbolicRegressionProblem extends TestCaseProblem<Double> {
 		
 		hitsBasedFitness = new BooleanParameter(false, "Hits-based fitness");
 		
-		registerParameters(errorThreshold, perfectionThreshold, hitsBasedFitness);
+		miniBatchSize = new IntegerParameter(0, "Mini-batch size") {
+			@Override
+			public void validate(Number newValue) {
+				if (newValue.intValue() < 0) {
+					status = ParameterStatus.INVALID;
+					details = "Mini-batch size must be 0 (disabled) or a positive value.";
+				} else if (newValue.intValue() >= getTestCaseCount() && newValue.intValue() > 0) {
+					status = ParameterStatus.WARNING;
+					details = "Mini-batch is not smaller than the data set, all test cases will be used.";
+				} else {
+					status = ParameterStatus.VALID;
+				}
+			}
+		};
+		
+		registerParameters(errorThreshold, perfectionThreshold, hitsBasedFitness, miniBatchSize);
 	}
 	
 	@Override
 	public void evaluate(Population population) {
-		// for every chromosome in the population
-		for (int i = 0; i < getResources().populationSize(); i++) {
-			// assume an initial fitness of 0
-			double fitness = 0;
-			// for each test case
-			for (int t = 0; t < testCases.size(); t++) {
-				population.get(i).setInputs((Object[]) testCases.get(t).getInputs());
+		double[] fitness;
+		// time spent on each chromosome, only measured while the flight recorder is recording
+		long[] nanos = ChromosomeEvaluationEvent.startTiming(getResources().populationSize());
+		if (miniBatchSize.get() > 0 && miniBatchSize.get() < getTestCaseCount()) {
+			// evaluate on a random subset and scale up to the whole data set
+			batch = sampleTestCases(miniBatchSize.get());
+			fitness = evaluate(population, all(), batch, nanos);
+			for (int i = 0; i < fitness.length; i++) {
+				fitness[i] *= getBatchScale();
+			}
+		} else {
+			batch = null;
+			fitness = evaluate(population, all(), null, nanos);
+		}
+		// assign the resulting fitness to the respective individual
+		for (int i = 0; i < fitness.length; i++) {
+			population.get(i).setFitness(fitness[i]);
+		}
+		ChromosomeEvaluationEvent.commit(population, 0, nanos);
+	}
+	
+	/**
+	 * @return the indices of every chromosome in the population.
+	 */
+	private int[] all() {
+		int[] chromosomes = new int[getResources().populationSize()];
+		for (int i = 0; i < chromosomes.length; i++) {
+			chromosomes[i] = i;
+		}
+		return chromosomes;
+	}
+	
+	/**
+	 * For internal use only, computes the fitness of a number of chromosomes
+	 * over the specified test cases. The test cases are gone through once,
+	 * evaluating every chromosome on each of them in turn.
+	 * 
+	 * @param population the population containing the chromosomes.
+	 * @param chromosomes the indices of the chromosomes to evaluate.
+	 * @param rows the test cases to use in ascending order, or null to use all test cases.
+	 * @param nanos accumulates the time spent on each chromosome, in the same order, or null.
+	 * @return the fitness of each chromosome, in the same order.
+	 */
+	private double[] evaluate(Population population, int[] chromosomes, int[] rows, long[] nanos) {
+		// assume an initial fitness of 0 for every chromosome
+		double[] fitness = new double[chromosomes.length];
+		int cases = rows == null ? getTestCaseCount() : rows.length;
+		int outputs = getResources().configuration().outputs();
+		// read the parameters once, rather than for every output
+		boolean hits = hitsBasedFitness.get();
+		double threshold = errorThreshold.get();
+		// for each test case
+		for (int r = 0; r < cases; r++) {
+			int t = rows == null ? r : rows[r];
+			Object[] inputs = getInputs(t);
+			// for every chromosome being evaluated
+			for (int c = 0; c < chromosomes.length; c++) {
+				long start = nanos == null ? 0 : System.nanoTime();
+				Chromosome chromosome = population.get(chromosomes[c]);
+				chromosome.setInputs(inputs);
 				// check each output
-				for (int o = 0; o < getResources().outputs(); o++) {
-					Double cgpValue = (Double) population.get(i).getOutput(o).calculate();
-					Double dataValue = testCases.get(t).getOutputs()[o];
-					if (hitsBasedFitness.get()) {
-						if (Math.abs(cgpValue - dataValue) <= errorThreshold.get()) {
-							fitness++;
+				for (int o = 0; o < outputs; o++) {
+					Double cgpValue = (Double) chromosome.getOutput(o).calculate();
+					double dataValue = getOutputValue(t, o);
+					if (hits) {
+						if (Math.abs(cgpValue - dataValue) <= threshold) {
+							fitness[c]++;
 						}
 					} else {
-						fitness += 1 - Math.abs(cgpValue - dataValue);
+						fitness[c] += 1 - Math.abs(cgpValue - dataValue);
 					}
 				}
+				if (nanos != null) {
+					nanos[c] += System.nanoTime() - start;
+				}
+			}
+		}
+		return fitness;
+	}
+	
+	/**
+	 * For internal use only, draws a random subset of distinct test cases
+	 * using Floyd's algorithm, which only needs memory for the subset.
+	 * 
+	 * @param size the number of test cases to draw.
+	 * @return the indices of the test cases, in ascending order.
+	 */
+	private int[] sampleTestCases(int size) {
+		HashSet<Integer> chosen = new HashSet<Integer>(size * 2);
+		for (int j = getTestCaseCount() - size; j < getTestCaseCount(); j++) {
+			int t = getResources().getRandomInt(j + 1);
+			if (!chosen.add(t)) {
+				chosen.add(j);
+			}
+		}
+		int[] rows = new int[size];
+		int r = 0;
+		for (Integer t : chosen) {
+			rows[r++] = t;
+		}
+		Arrays.sort(rows);
+		return rows;
+	}
+	
+	/**
+	 * @return the factor by which mini-batch fitness values are scaled up.
+	 */
+	private double getBatchScale() {
+		return (double) getTestCaseCount() / batch.length;
+	}
+	
+	/**
+	 * For internal use only, evaluates the chromosomes whose mini-batch
+	 * fitness is at least the specified value on every test case, in a
+	 * single pass, and replaces their mini-batch fitness with the result.
+	 * 
+	 * @param population the population containing the chromosomes.
+	 * @param threshold the lowest mini-batch fitness which is confirmed.
+	 * @param inclusive false if chromosomes must exceed the threshold.
+	 */
+	private void evaluateFully(Population population, double threshold, boolean inclusive) {
+		int[] candidates = new int[getResources().populationSize()];
+		int count = 0;
+		for (int i = 0; i < candidates.length; i++) {
+			double fitness = population.get(i).getFitness();
+			if (fitness > threshold || (inclusive && fitness == threshold)) {
+				candidates[count++] = i;
+			}
+		}
+		candidates = Arrays.copyOf(candidates, count);
+		long[] nanos = ChromosomeEvaluationEvent.startTiming(count);
+		double[] fitness = evaluate(population, candidates, null, nanos);
+		for (int c = 0; c < count; c++) {
+			population.get(candidates[c]).setFitness(fitness[c]);
+			if (nanos != null) {
+				ChromosomeEvaluationEvent.commit(population, candidates[c], new long[] {nanos[c]});
 			}
-			// assign the resulting fitness to the respective individual
-			population.get(i).setFitness(fitness);
 		}
 	}
 	
 	@Override
-	public TestCase<Double> parseTestCase(String[] inputs, String[] outputs) {
-		// cast the test case values to UnsignedInteger
+	public int hasImprovement(Population population) {
+		if (batch == null) {
+			return super.hasImprovement(population);
+		}
+		// higher fitness is better, but mini-batch fitness must be confirmed first
+		evaluateFully(population, bestFitness.get(), false);
+		for (int i = 0; i < getResources().populationSize(); i++) {
+			if (population.get(i).getFitness() > bestFitness.get()) {
+				bestFitness.set(population.get(i).getFitness());
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	protected TestCase<Double> parseTestCase(double[] inputs, double[] outputs) {
 		Double[] inputCases = new Double[inputs.length];
 		Double[] outputCases = new Double[outputs.length];
 		for (int i = 0; i < inputCases.length; i++) {
-			inputCases[i] = Double.parseDouble(inputs[i]);
+			inputCases[i] = inputs[i];
 		}
 		for (int o = 0; o < outputCases.length; o++) {
-			outputCases[o] = Double.parseDouble(outputs[o]);
+			outputCases[o] = outputs[o];
 		}
 		
 		return new TestCase<Double>(inputCases, outputCases);
 	}
 
+	@Override
+	protected Double parseInput(double value) {
+		return value;
+	}
+
 	@Override
 	public int hasPerfectSolution(Population population) {
+		if (batch != null) {
+			/*
+			 * The error on a subset of distinct test cases is never larger than the
+			 * error on the whole data set, so any chromosome which is perfect must be
+			 * within the scaled threshold here. Those are confirmed on every test case.
+			 */
+			evaluateFully(population, maxFitness.get() - (perfectionThreshold.get() * getBatchScale()), true);
+		}
 		// higher fitness is better
 		for (int i = 0; i < getResources().populationSize(); i++) {
 			if (population.get(i).getFitness() >= maxFitness.get() - perfectionThreshold.get()) {
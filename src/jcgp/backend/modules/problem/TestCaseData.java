@@ -0,0 +1,183 @@
+package jcgp.backend.modules.problem;
+
+import java.util.Arrays;
+
+/**
+ * Stores the values of a set of test cases in primitive columns,
+ * one array per input and one per output.
+ * <br><br>
+ * This is the storage used by {@code TestCaseProblem}. Every value takes
+ * exactly 8 bytes regardless of the problem's data type, and the values
+ * of each input or output are contiguous, so problems can evaluate many
+ * test cases with tight loops over the columns. Values are stored as
+ * doubles, which represent every 32-bit integer exactly, so integer
+ * problems lose no precision.
+ * <br><br>
+ * The number of inputs and outputs is fixed when the data is created.
+ * Columns grow as test cases are added; the arrays returned by the column
+ * getters may therefore be longer than {@code size()} and are replaced
+ * whenever the columns grow, so they should not be kept across additions.
+ *
+ * @see TestCaseProblem
+ * @author Eduardo Pedroni
+ *
+ */
+public class TestCaseData {
+
+	private final double[][] inputs, outputs;
+	private int size = 0;
+
+	/**
+	 * Creates a new, empty set of test cases.
+	 *
+	 * @param inputs the number of inputs in each test case.
+	 * @param outputs the number of outputs in each test case.
+	 */
+	public TestCaseData(int inputs, int outputs) {
+		this.inputs = new double[inputs][0];
+		this.outputs = new double[outputs][0];
+	}
+
+	/**
+	 * @return the number of test cases.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of inputs in each test case.
+	 */
+	public int getInputCount() {
+		return inputs.length;
+	}
+
+	/**
+	 * @return the number of outputs in each test case.
+	 */
+	public int getOutputCount() {
+		return outputs.length;
+	}
+
+	/**
+	 * @param testCase the index of the test case.
+	 * @param input the index of the input.
+	 * @return the value of the input in the specified test case.
+	 */
+	public double getInput(int testCase, int input) {
+		checkIndex(testCase);
+		return inputs[input][testCase];
+	}
+
+	/**
+	 * @param testCase the index of the test case.
+	 * @param output the index of the output.
+	 * @return the value of the output in the specified test case.
+	 */
+	public double getOutput(int testCase, int output) {
+		checkIndex(testCase);
+		return outputs[output][testCase];
+	}
+
+	/**
+	 * Returns the values of one input across every test case. Only the
+	 * first {@code size()} values are valid, and the array must not be
+	 * modified.
+	 *
+	 * @param input the index of the input.
+	 * @return the column of input values.
+	 */
+	public double[] getInputColumn(int input) {
+		return inputs[input];
+	}
+
+	/**
+	 * Returns the values of one output across every test case. Only the
+	 * first {@code size()} values are valid, and the array must not be
+	 * modified.
+	 *
+	 * @param output the index of the output.
+	 * @return the column of output values.
+	 */
+	public double[] getOutputColumn(int output) {
+		return outputs[output];
+	}
+
+	/**
+	 * Adds a single test case.
+	 *
+	 * @param inputValues the inputs of the test case.
+	 * @param outputValues the outputs of the test case.
+	 */
+	public void add(double[] inputValues, double[] outputValues) {
+		addAll(inputValues, outputValues, 1);
+	}
+
+	/**
+	 * Adds a number of test cases at once. The values of all test cases are
+	 * given in flat arrays, one test case after the other, so that the inputs
+	 * of test case {@code c} start at index {@code c * getInputCount()}.
+	 *
+	 * @param inputValues the inputs of every test case.
+	 * @param outputValues the outputs of every test case.
+	 * @param count the number of test cases in the arrays.
+	 */
+	public void addAll(double[] inputValues, double[] outputValues, int count) {
+		if (inputValues.length < count * inputs.length) {
+			throw new IllegalArgumentException("Received " + inputValues.length + " inputs but need at least " + (count * inputs.length));
+		} else if (outputValues.length < count * outputs.length) {
+			throw new IllegalArgumentException("Received " + outputValues.length + " outputs but need at least " + (count * outputs.length));
+		}
+		ensureCapacity(size + count);
+		for (int c = 0; c < count; c++) {
+			for (int i = 0; i < inputs.length; i++) {
+				inputs[i][size + c] = inputValues[(c * inputs.length) + i];
+			}
+			for (int o = 0; o < outputs.length; o++) {
+				outputs[o][size + c] = outputValues[(c * outputs.length) + o];
+			}
+		}
+		size += count;
+	}
+
+	/**
+	 * Removes every test case and releases the memory used by the columns.
+	 */
+	public void clear() {
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = new double[0];
+		}
+		for (int o = 0; o < outputs.length; o++) {
+			outputs[o] = new double[0];
+		}
+		size = 0;
+	}
+
+	/**
+	 * Grows the columns so that they can hold at least the specified
+	 * number of test cases.
+	 *
+	 * @param capacity the number of test cases to hold.
+	 */
+	private void ensureCapacity(int capacity) {
+		int current = inputs.length > 0 ? inputs[0].length : (outputs.length > 0 ? outputs[0].length : capacity);
+		if (capacity > current) {
+			int newCapacity = Math.max(capacity, current + (current >> 1));
+			for (int i = 0; i < inputs.length; i++) {
+				inputs[i] = Arrays.copyOf(inputs[i], newCapacity);
+			}
+			for (int o = 0; o < outputs.length; o++) {
+				outputs[o] = Arrays.copyOf(outputs[o], newCapacity);
+			}
+		}
+	}
+
+	/**
+	 * @param testCase the test case index to check.
+	 */
+	private void checkIndex(int testCase) {
+		if (testCase < 0 || testCase >= size) {
+			throw new IndexOutOfBoundsException("Test case " + testCase + " does not exist, there are " + size + " test cases.");
+		}
+	}
+}
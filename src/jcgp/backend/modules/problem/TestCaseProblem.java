@@ -1,9 +1,9 @@
 package jcgp.backend.modules.problem;
 
 import java.io.File;
+import java.util.AbstractList;
+import java.util.List;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import jcgp.backend.parsers.TestCaseParser;
 import jcgp.backend.population.Population;
 import jcgp.backend.resources.ModifiableResources;
@@ -14,13 +14,26 @@ import jcgp.backend.resources.Resources;
  * problem is any problem that compares the chromosome output to
  * an expected output taken from a table of input-output mappings.
  * <br><br>
- * This class defines a basic data type for storing test cases, 
- * TestCase, and provides core functionality to add and manipulate
- * test cases in the problem. A subclass of {@code TestCaseProblem}
- * must simply override {@code parseTestCase()} to convert parsed
- * problem data strings into the required data type (T).
+ * The test case values are stored in primitive columns in a
+ * {@code TestCaseData} object, which subclasses can read directly
+ * when evaluating chromosomes. This class also defines a basic data
+ * type for presenting a single test case, TestCase, whose values are
+ * in the problem's data type (T). A subclass of {@code TestCaseProblem}
+ * must simply override {@code parseTestCase()} to convert stored values
+ * into a {@code TestCase} and {@code parseInput()} to convert a single input,
+ * and may override {@code parseValue()} if its values are not written as
+ * decimal numbers in problem data files.
+ * <br><br>
+ * Evaluation loops should read the inputs of each test case with
+ * {@code getInputs()}, which fills the same array every time, rather than
+ * building a {@code TestCase} for every row.
+ * <br><br>
+ * Large numbers of test cases should be added with {@code addTestCases()},
+ * which takes the parsed values as flat arrays of numbers and adds every test
+ * case at once.
  * 
  * @see Problem
+ * @see TestCaseData
  * @author Eduardo Pedroni
  * @param <T> the data type to be used by the TestCaseProblem.
  */
@@ -29,6 +42,10 @@ public abstract class TestCaseProblem<T> extends Problem {
 	/**
 	 * Basic data type for encapsulating test cases, it simply
 	 * contains arrays of inputs and outputs and associated getters.
+	 * <br><br>
+	 * Test cases are created on demand from the problem's
+	 * {@code TestCaseData}, so changes to their arrays are not
+	 * reflected in the problem.
 	 * 
 	 * @author Eduardo Pedroni
 	 * @param <U> the data type of the test case.
@@ -64,7 +81,10 @@ public abstract class TestCaseProblem<T> extends Problem {
 		}
 	}
 	
-	protected ObservableList<TestCase<T>> testCases;
+	protected TestCaseData testCases;
+	
+	// refilled by getInputs() for every test case evaluated
+	private Object[] inputs = new Object[0];
 	
 	/**
 	 * Creates a new TestCaseProblem object.
@@ -73,7 +93,7 @@ public abstract class TestCaseProblem<T> extends Problem {
 	 */
 	protected TestCaseProblem(Resources resources) {
 		super(resources);
-		testCases = FXCollections.observableArrayList();
+		testCases = new TestCaseData(resources.inputs(), resources.outputs());
 	}
 	
 	/**
@@ -84,52 +104,185 @@ public abstract class TestCaseProblem<T> extends Problem {
 	 * @return the maximum fitness based on number of test cases.
 	 */
 	protected double getMaxFitness() {
-		int fitness = 0;
-		for (TestCase<T> tc : testCases) {
-			fitness += tc.getOutputs().length;
+		return (double) getTestCaseCount() * getResources().outputs();
+	}
+	
+	/**
+	 * @return the stored test case values.
+	 */
+	public TestCaseData getTestCaseData() {
+		return testCases;
+	}
+	
+	/**
+	 * @return the number of test cases in the problem.
+	 */
+	public int getTestCaseCount() {
+		return testCases.size();
+	}
+	
+	/**
+	 * Returns a single stored input value. Subclasses which do not keep
+	 * their test cases in {@code testCases} must override this, along with
+	 * {@code getOutputValue()} and {@code getTestCaseCount()}.
+	 * 
+	 * @param testCase the index of the test case.
+	 * @param input the index of the input.
+	 * @return the input value.
+	 */
+	protected double getInputValue(int testCase, int input) {
+		return testCases.getInput(testCase, input);
+	}
+	
+	/**
+	 * Returns a single stored output value. See {@code getInputValue()}.
+	 * 
+	 * @param testCase the index of the test case.
+	 * @param output the index of the output.
+	 * @return the output value.
+	 */
+	protected double getOutputValue(int testCase, int output) {
+		return testCases.getOutput(testCase, output);
+	}
+	
+	/**
+	 * Returns the indexed test case, converted to the
+	 * problem's data type.
+	 * 
+	 * @param index the test case to return.
+	 * @return the test case.
+	 */
+	public TestCase<T> getTestCase(int index) {
+		double[] inputs = new double[getResources().inputs()];
+		double[] outputs = new double[getResources().outputs()];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = getInputValue(index, i);
+		}
+		for (int o = 0; o < outputs.length; o++) {
+			outputs[o] = getOutputValue(index, o);
 		}
-		return fitness;
+		return parseTestCase(inputs, outputs);
 	}
 	
 	/**
+	 * Returns the inputs of the indexed test case, converted to the
+	 * problem's data type with {@code parseInput()}. The same array is
+	 * returned by every call and overwritten with the new inputs, so
+	 * it must not be kept beyond evaluating the test case.
+	 * 
+	 * @param testCase the index of the test case.
+	 * @return the inputs of the test case.
+	 */
+	protected Object[] getInputs(int testCase) {
+		if (inputs.length != getResources().inputs()) {
+			inputs = new Object[getResources().inputs()];
+		}
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = parseInput(getInputValue(testCase, i));
+		}
+		return inputs;
+	}
+	
+	/**
+	 * Returns a read-only list view of the test cases. The test
+	 * cases are created as they are requested from the list, so 
+	 * the view itself takes no memory.
+	 * 
 	 * @return a list containing the test cases.
 	 */
-	public ObservableList<TestCase<T>> getTestCases() {
-		return testCases;
+	public List<TestCase<T>> getTestCases() {
+		return new AbstractList<TestCase<T>>() {
+			@Override
+			public TestCase<T> get(int index) {
+				return getTestCase(index);
+			}
+
+			@Override
+			public int size() {
+				return getTestCaseCount();
+			}
+		};
 	}
 	
 	/**
-	 * This method is used internally by {@code addTestCase()} in order
-	 * to appropriately parse strings into the right data type for the 
-	 * test cases. Since the data type is problem-dependent, subclasses must 
-	 * implement this method. This method must return a built {@code TestCase}
-	 * object from the arguments given.
+	 * This method is used internally to convert stored values into the 
+	 * right data type for the test cases. Since the data type is 
+	 * problem-dependent, subclasses must implement this method. This method
+	 * must return a built {@code TestCase} object from the arguments given.
 	 * 
-	 * @param inputs the inputs represented as strings.
-	 * @param outputs the outputs represented as strings.
+	 * @param inputs the inputs as numbers.
+	 * @param outputs the outputs as numbers.
 	 * @return the parsed test case.
 	 */
-	protected abstract TestCase<T> parseTestCase(String[] inputs, String[] outputs);
+	protected abstract TestCase<T> parseTestCase(double[] inputs, double[] outputs);
+	
+	/**
+	 * This method is used internally by {@code getInputs()} to convert a
+	 * single stored input into the problem's data type.
+	 * 
+	 * @param value the input as a number.
+	 * @return the converted input.
+	 */
+	protected abstract T parseInput(double value);
+	
+	/**
+	 * This method is used internally by {@code addTestCase()} in order to
+	 * convert values from problem data files into numbers for storage. By
+	 * default, values are parsed as decimal numbers; subclasses should override
+	 * this if their values are written in a different format.
+	 * 
+	 * @param value the value represented as a string.
+	 * @return the value as a number.
+	 */
+	protected double parseValue(String value) {
+		return Double.parseDouble(value);
+	}
+	
+	/**
+	 * Adds a number of test cases at once, typically parsed from a large
+	 * problem data file. The values of all test cases are given in flat arrays,
+	 * one test case after the other, so that the inputs of test case {@code c}
+	 * start at index {@code c * inputs}.
+	 * <br><br>
+	 * Unlike calling {@code addTestCase()} repeatedly, this computes the 
+	 * maximum fitness once.
+	 * 
+	 * @param inputs the inputs of every test case.
+	 * @param outputs the outputs of every test case.
+	 * @param count the number of test cases in the arrays.
+	 */
+	public final void addTestCases(double[] inputs, double[] outputs, int count) {
+		prepareData();
+		testCases.addAll(inputs, outputs, count);
+		maxFitness.set(getMaxFitness());
+	}
 	
 	/**
 	 * Adds test cases to the problem instance as they get parsed from a 
-	 * problem data file. This template method uses {@code parseTestCase}, which
-	 * must be implemented by subclasses.
+	 * problem data file. This template method uses {@code parseValue()}, which
+	 * may be overridden by subclasses.
 	 * 
 	 * @param inputs the inputs represented as strings.
 	 * @param outputs the outputs represented as strings.
 	 */
 	public final void addTestCase(String[] inputs, String[] outputs) {
-		TestCase<T> testCase = parseTestCase(inputs, outputs);
-		
-		if (testCase.getInputs().length != getResources().inputs()) {
-			throw new IllegalArgumentException("Received test case with " + testCase.getInputs().length + 
+		if (inputs.length != getResources().inputs()) {
+			throw new IllegalArgumentException("Received test case with " + inputs.length + 
 					" inputs but need exactly " + getResources().inputs());
-		} else if (testCase.getOutputs().length != getResources().outputs()) {
-			throw new IllegalArgumentException("Received test case with " + testCase.getOutputs().length + 
+		} else if (outputs.length != getResources().outputs()) {
+			throw new IllegalArgumentException("Received test case with " + outputs.length + 
 					" outputs but need exactly " + getResources().outputs());
 		} else {
-			this.testCases.add(testCase);
+			double[] inputValues = new double[inputs.length];
+			double[] outputValues = new double[outputs.length];
+			for (int i = 0; i < inputs.length; i++) {
+				inputValues[i] = parseValue(inputs[i]);
+			}
+			for (int o = 0; o < outputs.length; o++) {
+				outputValues[o] = parseValue(outputs[o]);
+			}
+			prepareData();
+			testCases.add(inputValues, outputValues);
 			maxFitness.set(getMaxFitness());
 		}
 	}
@@ -138,14 +291,31 @@ public abstract class TestCaseProblem<T> extends Problem {
 	 * Remove all test cases.
 	 */
 	public void clearTestCases() {
-		testCases.clear();
+		testCases = new TestCaseData(getResources().inputs(), getResources().outputs());
 		maxFitness.set(getMaxFitness());
 	}
+	
+	/**
+	 * For internal use only, makes sure the stored test cases have the
+	 * number of inputs and outputs currently set in the resources, 
+	 * recreating the storage if it is still empty.
+	 */
+	private void prepareData() {
+		if (testCases.getInputCount() != getResources().inputs() 
+				|| testCases.getOutputCount() != getResources().outputs()) {
+			if (testCases.size() == 0) {
+				testCases = new TestCaseData(getResources().inputs(), getResources().outputs());
+			} else {
+				throw new IllegalArgumentException("Existing test cases have " + testCases.getInputCount() + " inputs and " 
+						+ testCases.getOutputCount() + " outputs, clear them before adding test cases of a different size");
+			}
+		}
+	}
 
 	@Override
 	public void parseProblemData(File file, ModifiableResources resources) {
 		// use standard test case parser for this
-		TestCaseParser.parse(file, this, resources);
+		TestCaseParser.load(file, this, resources);
 	}
 	
 	@Override
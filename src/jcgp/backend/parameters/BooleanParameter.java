@@ -1,6 +1,5 @@
 package jcgp.backend.parameters;
 
-import javafx.beans.property.SimpleBooleanProperty;
 import jcgp.backend.parameters.monitors.BooleanMonitor;
 
 /**
@@ -36,7 +35,7 @@ public class BooleanParameter extends Parameter<Boolean> {
 	 */
 	public BooleanParameter(boolean value, String name) {
 		super(name, false, false);
-		this.valueProperty = new SimpleBooleanProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -48,7 +47,7 @@ public class BooleanParameter extends Parameter<Boolean> {
 	 */
 	public BooleanParameter(boolean value, String name, boolean critical) {
 		super(name, false, critical);
-		this.valueProperty = new SimpleBooleanProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -61,7 +60,7 @@ public class BooleanParameter extends Parameter<Boolean> {
 	 */
 	protected BooleanParameter(boolean value, String name, boolean monitor, boolean critical) {
 		super(name, monitor, critical);
-		this.valueProperty = new SimpleBooleanProperty(value);
+		this.value = value;
 	}
 	
 	@Override
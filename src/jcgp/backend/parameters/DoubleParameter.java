@@ -1,6 +1,5 @@
 package jcgp.backend.parameters;
 
-import javafx.beans.property.SimpleDoubleProperty;
 import jcgp.backend.parameters.monitors.DoubleMonitor;
 
 /**
@@ -36,7 +35,7 @@ public class DoubleParameter extends Parameter<Number> {
 	 */
 	public DoubleParameter(double value, String name) {
 		super(name, false, false);
-		this.valueProperty = new SimpleDoubleProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -48,7 +47,7 @@ public class DoubleParameter extends Parameter<Number> {
 	 */
 	public DoubleParameter(double value, String name, boolean critical) {
 		super(name, false, critical);
-		this.valueProperty = new SimpleDoubleProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -61,12 +60,23 @@ public class DoubleParameter extends Parameter<Number> {
 	 */
 	protected DoubleParameter(double value, String name, boolean monitor, boolean critical) {
 		super(name, monitor, critical);
-		this.valueProperty = new SimpleDoubleProperty(value);
+		this.value = value;
 	}
 
 	@Override
 	public Double get() {
-		return super.get().doubleValue();
+		// set() always stores a Double
+		return (Double) super.get();
+	}
+	
+	/**
+	 * Sets the parameter to the specified value, converted to double.
+	 * 
+	 * @param newValue the new value for the parameter.
+	 */
+	@Override
+	public void set(Number newValue) {
+		super.set(newValue.doubleValue());
 	}
 
 	@Override
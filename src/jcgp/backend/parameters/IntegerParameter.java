@@ -1,6 +1,5 @@
 package jcgp.backend.parameters;
 
-import javafx.beans.property.SimpleIntegerProperty;
 import jcgp.backend.parameters.monitors.IntegerMonitor;
 
 /**
@@ -36,7 +35,7 @@ public class IntegerParameter extends Parameter<Number> {
 	 */
 	public IntegerParameter(int value, String name) {
 		super(name, false, false);
-		this.valueProperty = new SimpleIntegerProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -48,7 +47,7 @@ public class IntegerParameter extends Parameter<Number> {
 	 */
 	public IntegerParameter(int value, String name, boolean critical) {
 		super(name, false, critical);
-		this.valueProperty = new SimpleIntegerProperty(value);
+		this.value = value;
 	}
 	
 	/**
@@ -61,12 +60,23 @@ public class IntegerParameter extends Parameter<Number> {
 	 */
 	protected IntegerParameter(int value, String name, boolean monitor, boolean critical) {
 		super(name, monitor, critical);
-		this.valueProperty = new SimpleIntegerProperty(value);
+		this.value = value;
 	}
 
 	@Override
 	public Integer get() {
-		return super.get().intValue();
+		// set() always stores an Integer
+		return (Integer) super.get();
+	}
+	
+	/**
+	 * Sets the parameter to the specified value, converted to int.
+	 * 
+	 * @param newValue the new value for the parameter.
+	 */
+	@Override
+	public void set(Number newValue) {
+		super.set(newValue.intValue());
 	}
 
 	@Override
@@ -0,0 +1,103 @@
+package jcgp.backend.parameters;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes changes to monitor parameters at a bounded rate.
+ * <br><br>
+ * Monitors such as the current generation or the best fitness change on
+ * every generation, far more often than anyone can read them. Setting a
+ * monitor therefore only writes its value; it is this class that notifies
+ * the monitor's listeners, {@code getRate()} times per second at most,
+ * visiting every monitor with listeners in a single pass. Each pass only
+ * reports the latest value of each monitor, and only if it has changed
+ * since the previous pass, so the cost of evolution does not depend on
+ * how many listeners are attached or how fast generations go by.
+ * <br><br>
+ * Monitors are registered automatically when their first listener is
+ * added, and the background thread is only started then, so experiments
+ * with nothing listening never start it. Listeners of monitors are called
+ * on the background thread.
+ * 
+ * @see Parameter#isMonitor()
+ * @author Eduardo Pedroni
+ *
+ */
+public final class MonitorPublisher {
+	
+	/**
+	 * The default number of passes per second.
+	 */
+	public static final int DEFAULT_RATE = 30;
+	
+	private static final CopyOnWriteArrayList<Parameter<?>> monitors = new CopyOnWriteArrayList<Parameter<?>>();
+	private static volatile long period = TimeUnit.SECONDS.toNanos(1) / DEFAULT_RATE;
+	private static Thread thread;
+	
+	/**
+	 * Private constructor, this class should not be instantiated.
+	 */
+	private MonitorPublisher() {}
+	
+	/**
+	 * Sets the number of passes made per second.
+	 * 
+	 * @param rate the new rate, in passes per second.
+	 */
+	public static void setRate(int rate) {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("Rate must be greater than 0.");
+		}
+		period = TimeUnit.SECONDS.toNanos(1) / rate;
+	}
+	
+	/**
+	 * @return the number of passes made per second.
+	 */
+	public static int getRate() {
+		return (int) (TimeUnit.SECONDS.toNanos(1) / period);
+	}
+	
+	/**
+	 * Publishes any pending changes immediately, on the calling thread.
+	 * This is useful to show the final state of an experiment without
+	 * waiting for the next pass.
+	 */
+	public static synchronized void publish() {
+		for (Parameter<?> monitor : monitors) {
+			monitor.publish();
+		}
+	}
+	
+	/**
+	 * For internal use only, starts publishing changes to a monitor.
+	 * 
+	 * @param monitor the monitor to publish.
+	 */
+	static synchronized void register(Parameter<?> monitor) {
+		if (monitors.addIfAbsent(monitor) && thread == null) {
+			thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					while (true) {
+						LockSupport.parkNanos(period);
+						publish();
+					}
+				}
+			}, "JCGP monitor publisher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * For internal use only, stops publishing changes to a monitor.
+	 * 
+	 * @param monitor the monitor to stop publishing.
+	 */
+	static void unregister(Parameter<?> monitor) {
+		monitors.remove(monitor);
+	}
+}
@@ -1,7 +1,6 @@
 package jcgp.backend.parameters;
 
-import javafx.beans.property.Property;
-import javafx.beans.property.ReadOnlyProperty;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Specifies an abstract model of a module parameter.
@@ -17,10 +16,9 @@ import javafx.beans.property.ReadOnlyProperty;
  * an experiment-wide reset.
  * <br><br>
  * {@code Parameter} is abstract. A typical implementation defines
- * the data type T and initialises the {@code valueProperty} field
- * with a suitable type. For the sake of clarity, it may not be ideal 
- * for a subclass constructor to expose an argument for the monitor
- * field. Instead, a different class should be created which constructs
+ * the data type T and initialises the {@code value} field. For the
+ * sake of clarity, it may not be ideal for a subclass constructor to
+ * expose an argument for the monitor field. Instead, a different class should be created which constructs
  * the parameter as a monitor, so that the distinction between a regular
  * parameter and a parameter monitor is more apparent. The boolean, integer
  * and double implementations of parameter (and their associated monitors)
@@ -32,7 +30,20 @@ import javafx.beans.property.ReadOnlyProperty;
  * the parameter status should be updated. This being the case, it should
  * be overridden on an instance-to-instance basis, as each parameter 
  * will likely have different validity criteria. The type of status is
- * {@link ParameterStatus}, an enum type defining all valid states.
+ * {@link ParameterStatus}, an enum type defining all valid states; an
+ * explanation of the status should be written into the {@code details}
+ * field at the same time.
+ * <br><br>
+ * Changes to the value can be observed by adding a {@link ParameterListener}.
+ * Parameters are plain Java objects with no dependency on any user
+ * interface toolkit, so the backend can run headless. When nothing is
+ * listening, {@code set()} costs a field write and an emptiness check.
+ * <br><br>
+ * The value is volatile, so that changes made on one thread (a user
+ * interface, for instance) are seen by the experiment's thread. This makes
+ * every {@code get()} a volatile read, so modules read their parameters
+ * into local variables once per generation or chromosome rather than once
+ * per gene or test case.
  * 
  * @see jcgp.backend.modules.Module
  * @author Eduardo Pedroni
@@ -42,8 +53,12 @@ public abstract class Parameter<T> {
 	
 	private boolean monitor, critical;
 	protected ParameterStatus status = ParameterStatus.VALID;
+	protected String details;
 	protected String name;
-	protected Property<T> valueProperty;
+	protected volatile T value;
+	// the last value of a monitor that its listeners were told about, only used by the publisher
+	private T published;
+	private final CopyOnWriteArrayList<ParameterListener<? super T>> listeners = new CopyOnWriteArrayList<ParameterListener<? super T>>();
 	
 	/**
 	 * For internal use only. This creates a new instance of the class
@@ -80,33 +95,90 @@ public abstract class Parameter<T> {
 	public ParameterStatus getStatus() {
 		return status;
 	}
+	
+	/**
+	 * @return details about the current status of the parameter, to be displayed by GUIs (if in use).
+	 */
+	public String getDetails() {
+		return details;
+	}
 		
 	/**
-	 * This method is intended for bindings only. Changes to the parameter
-	 * value should be made using {@code set()}.
+	 * Adds a listener to be notified whenever the value of the
+	 * parameter changes. If the parameter is a monitor, the listener
+	 * is notified by the {@code MonitorPublisher}.
+	 * 
+	 * @param listener the listener to add.
+	 */
+	public void addListener(ParameterListener<? super T> listener) {
+		listeners.add(listener);
+		if (monitor) {
+			synchronized (this) {
+				if (published == null) {
+					published = value;
+				}
+			}
+			MonitorPublisher.register(this);
+		}
+	}
+	
+	/**
+	 * Removes a listener previously added with {@code addListener()}.
 	 * 
-	 * @return the property which holds the parameter value.
+	 * @param listener the listener to remove.
 	 */
-	public ReadOnlyProperty<T> valueProperty() {
-		return valueProperty;
+	public void removeListener(ParameterListener<? super T> listener) {
+		listeners.remove(listener);
+		if (monitor && listeners.isEmpty()) {
+			MonitorPublisher.unregister(this);
+		}
 	}
 	
 	/**
 	 * @return the parameter's current value.
 	 */
 	public T get() {
-		return valueProperty.getValue();
+		return value;
 	}
 	
 	/**
-	 * Sets the parameter to the specified value, if the property
-	 * is not bound.
+	 * Sets the parameter to the specified value, and notifies
+	 * the listeners if the value has changed. Monitors leave
+	 * the notification to the {@code MonitorPublisher}.
 	 * 
 	 * @param newValue the new value for the parameter.
 	 */
 	public void set(T newValue) {
-		if (!valueProperty.isBound()) {
-			valueProperty.setValue(newValue);
+		T oldValue = value;
+		value = newValue;
+		if (!monitor && !listeners.isEmpty()) {
+			notifyListeners(oldValue, newValue);
+		}
+	}
+	
+	/**
+	 * For internal use only, called by the {@code MonitorPublisher}
+	 * to notify the listeners of a monitor of its latest value.
+	 */
+	synchronized void publish() {
+		T current = value;
+		T oldValue = published;
+		published = current;
+		notifyListeners(oldValue, current);
+	}
+	
+	/**
+	 * For internal use only, notifies every listener if the two
+	 * values differ.
+	 * 
+	 * @param oldValue the previous value.
+	 * @param newValue the new value.
+	 */
+	private void notifyListeners(T oldValue, T newValue) {
+		if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+			for (ParameterListener<? super T> listener : listeners) {
+				listener.changed(this, oldValue, newValue);
+			}
 		}
 	}
 	
@@ -0,0 +1,27 @@
+package jcgp.backend.parameters;
+
+/**
+ * Receives notifications of changes to the value of a {@code Parameter}.
+ * <br><br>
+ * Listeners of regular parameters are notified on the thread which
+ * changed the value, and listeners of monitors on the thread of the
+ * {@link MonitorPublisher}. Neither is a user interface thread, so
+ * listeners which update a user interface must hand the update over
+ * to the interface's own thread.
+ * 
+ * @see Parameter#addListener(ParameterListener)
+ * @author Eduardo Pedroni
+ * @param <T> the data type stored in the parameter.
+ */
+public interface ParameterListener<T> {
+	
+	/**
+	 * Called after the value of a parameter has changed.
+	 * 
+	 * @param parameter the parameter that changed.
+	 * @param oldValue the previous value.
+	 * @param newValue the new value.
+	 */
+	public void changed(Parameter<? extends T> parameter, T oldValue, T newValue);
+	
+}
@@ -18,12 +18,12 @@ package jcgp.backend.parameters;
  * status (e.g. if any parameters are set to WARNING_RESET, a reset 
  * will automatically be performed when the experiment is run).
  * <br>
- * In addition to the status itself, this class includes a field
- * to contain details about the current status. If a GUI is in use, 
- * the contents of the field should be displayed to the user, as well
- * as some visual indication of the status itself. Both the status
- * and the message should be updated by each parameter when {@code validate()}
- * is called.
+ * Details about the current status are kept by each parameter rather
+ * than by this class, since its constants are shared by every parameter
+ * of every experiment, possibly across threads. If a GUI is in use, the
+ * details should be displayed to the user, as well as some visual indication
+ * of the status itself. Both the status and the details should be updated
+ * by each parameter when {@code validate()} is called.
  * 
  * @see Parameter
  * @author Eduardo Pedroni
@@ -31,24 +31,4 @@ package jcgp.backend.parameters;
  */
 public enum ParameterStatus {
 	INVALID, WARNING, WARNING_RESET, VALID;
-
-	private String details;
-
-	/**
-	 * Sets a new string containing details about the current status.
-	 * This should be displayed by the GUI, if one is in use.
-	 * 
-	 * @param details an explanation of the current status.
-	 */
-	public void setDetails(String details) {
-		this.details = details;
-	}
-
-	/**
-	 * @return the string containing details about the current status.
-	 */
-	public String getDetails() {
-		return details;
-	}
-
 }
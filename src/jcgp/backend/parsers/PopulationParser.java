@@ -0,0 +1,208 @@
+package jcgp.backend.parsers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+
+import jcgp.backend.function.FunctionSet;
+import jcgp.backend.population.GeneStore;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.Resources;
+
+/**
+ * This class contains methods for saving entire populations into
+ * compact binary files and for loading them back.
+ * <br><br>
+ * Unlike .chr files, population files are versioned and contain enough
+ * metadata to check that they match the experiment: the dimensions of
+ * the chromosomes and the names of every function in the function set
+ * are stored along with the genes. The genes themselves are stored using
+ * the {@code GeneStore} record layout, so that files are written and read
+ * with bulk channel operations rather than one number at a time.
+ * <br><br>
+ * A population file contains, in order: the magic number and version,
+ * the number of functions followed by the name of each function, a
+ * {@code GeneStore} header, and one record per chromosome.
+ *
+ * @see GeneStore
+ * @author Eduardo Pedroni
+ *
+ */
+public abstract class PopulationParser {
+
+	/**
+	 * Identifies population files.
+	 */
+	public static final int MAGIC = 0x4A435050;
+	/**
+	 * The current version of the population file layout.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Writes every chromosome of the population into the specified file,
+	 * along with the metadata needed to check the file when it is loaded.
+	 *
+	 * @param file the file to write to.
+	 * @param population the population to save.
+	 * @param resources the experiment's resources.
+	 */
+	public static void save(File file, Population population, Resources resources) {
+		resources.println("[Parser] Saving to " + file.getAbsolutePath() + "...");
+
+		GeneStore store = GeneStore.allocate(resources, population.size());
+		population.store(store);
+
+		// gather the header and every record into a single write
+		ByteBuffer[] buffers = new ByteBuffer[store.size() + 1];
+		buffers[0] = createHeader(store, resources.getFunctionSet());
+		for (int i = 0; i < store.size(); i++) {
+			buffers[i + 1] = store.getRecord(i);
+		}
+
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			out.setLength(0);
+			FileChannel channel = out.getChannel();
+			while (buffers[buffers.length - 1].hasRemaining()) {
+				channel.write(buffers);
+			}
+		} catch (IOException e) {
+			resources.println("[Parser] Error: could not write " + file.getAbsolutePath() + ": " + e.getMessage());
+			return;
+		}
+
+		resources.println("[Parser] Population saved successfully");
+	}
+
+	/**
+	 * Loads the chromosomes in the specified file into the population.
+	 * <br><br>
+	 * The file must have been saved from an experiment with the same
+	 * dimensions and function set as the current one. If the file contains
+	 * fewer chromosomes than the population, only the first chromosomes
+	 * of the population are replaced; if it contains more, the excess
+	 * chromosomes are ignored.
+	 *
+	 * @param file the file to parse.
+	 * @param population the population to load into.
+	 * @param resources the experiment's resources.
+	 */
+	public static void parse(File file, Population population, Resources resources) {
+		MappedByteBuffer buffer;
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			buffer = in.getChannel().map(MapMode.READ_ONLY, 0, in.length());
+		} catch (IOException e) {
+			resources.println("[Parser] Error: could not read " + file.getAbsolutePath());
+			return;
+		}
+
+		resources.println("[Parser] Parsing file: " + file.getAbsolutePath() + "...");
+		try {
+			load(buffer, file, population, resources);
+		} catch (BufferUnderflowException e) {
+			resources.println("[Parser] Error: " + file.getName() + " is truncated");
+		}
+	}
+
+	/**
+	 * For internal use only, loads the population from a buffer
+	 * containing the entire file.
+	 *
+	 * @param buffer the contents of the file.
+	 * @param file the file being parsed, used for printing messages.
+	 * @param population the population to load into.
+	 * @param resources the experiment's resources.
+	 */
+	private static void load(ByteBuffer buffer, File file, Population population, Resources resources) {
+		if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+			resources.println("[Parser] Error: " + file.getName() + " is not a population file");
+			return;
+		} else if (buffer.getInt() != VERSION) {
+			resources.println("[Parser] Error: the version of " + file.getName() + " is not supported");
+			return;
+		}
+
+		// check that the function set matches
+		FunctionSet functionSet = resources.getFunctionSet();
+		int functions = buffer.getInt();
+		boolean functionsMatch = functions == functionSet.getTotalFunctionCount();
+		for (int f = 0; f < functions; f++) {
+			byte[] name = new byte[buffer.getShort() & 0xFFFF];
+			buffer.get(name);
+			if (functionsMatch && !new String(name, StandardCharsets.UTF_8).equals(functionSet.getFunction(f).toString())) {
+				functionsMatch = false;
+			}
+		}
+		if (!functionsMatch) {
+			resources.println("[Parser] Error: the function set in " + file.getName() + " does not match that of the experiment");
+			return;
+		}
+
+		// the stored size is the last integer of the store header
+		if (buffer.remaining() < GeneStore.HEADER_SIZE) {
+			resources.println("[Parser] Error: " + file.getName() + " is truncated");
+			return;
+		}
+		int size = buffer.getInt(buffer.position() + GeneStore.HEADER_SIZE - 4);
+		if (size < 0 || size > buffer.remaining() / (8 + (GeneStore.getGenesPerChromosome(resources) * 4))) {
+			resources.println("[Parser] Error: the dimensions of the chromosomes in " + file.getName() + " do not match those of the experiment");
+			return;
+		}
+		GeneStore store = GeneStore.allocate(resources, size);
+		if (!store.matchesHeader(buffer, size)) {
+			resources.println("[Parser] Error: the dimensions of the chromosomes in " + file.getName() + " do not match those of the experiment");
+			return;
+		}
+		buffer.position(buffer.position() + GeneStore.HEADER_SIZE);
+		if (buffer.remaining() != (long) size * store.getRecordSize()) {
+			resources.println("[Parser] Error: " + file.getName() + " is truncated");
+			return;
+		}
+
+		for (int i = 0; i < size; i++) {
+			ByteBuffer record = buffer.slice();
+			record.limit(store.getRecordSize());
+			store.putRecord(i, record);
+			buffer.position(buffer.position() + store.getRecordSize());
+		}
+		int loaded = Math.min(size, population.size());
+		for (int i = 0; i < loaded; i++) {
+			store.read(i, population.get(i));
+		}
+
+		resources.println("[Parser] File parsed successfully, loaded " + loaded + " of " + size + " chromosomes");
+	}
+
+	/**
+	 * For internal use only, creates the header of a population file,
+	 * ready to be written.
+	 *
+	 * @param store the store containing the chromosomes to write.
+	 * @param functionSet the experiment's function set.
+	 * @return the header.
+	 */
+	private static ByteBuffer createHeader(GeneStore store, FunctionSet functionSet) {
+		byte[][] names = new byte[functionSet.getTotalFunctionCount()][];
+		int length = 12 + GeneStore.HEADER_SIZE;
+		for (int f = 0; f < names.length; f++) {
+			names[f] = functionSet.getFunction(f).toString().getBytes(StandardCharsets.UTF_8);
+			length += 2 + names[f].length;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(length);
+		header.putInt(MAGIC).putInt(VERSION);
+		header.putInt(names.length);
+		for (int f = 0; f < names.length; f++) {
+			header.putShort((short) names[f].length).put(names[f]);
+		}
+		store.writeHeader(header, store.size());
+		header.flip();
+		return header;
+	}
+}
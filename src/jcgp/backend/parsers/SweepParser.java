@@ -0,0 +1,119 @@
+package jcgp.backend.parsers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.Scanner;
+
+import jcgp.backend.sweep.Sweep;
+
+/**
+ * Contains a static method for parsing parameter sweeps from
+ * a sweep file.
+ * <br><br>
+ * Sweep files are laid out like .par files: each line holds a value
+ * followed by its name, separated by spaces or tabs, and lines starting
+ * with # are ignored. The following names set up the sweep itself:
+ * <ul>
+ * <li>parameter_file: a .par file loaded by every job before the swept values are applied.</li>
+ * <li>problem_data: the problem data file loaded by every job.</li>
+ * <li>problem, mutator, strategy: the index of the module to use, as listed by JCGP.</li>
+ * <li>expansion: "grid" to run every combination of values, or "list" to take them in order.</li>
+ * <li>repeats: the number of jobs to run for each configuration.</li>
+ * <li>global_seed: the seed from which the seed of each job is drawn.</li>
+ * <li>threads: the number of jobs to run at once.</li></ul>
+ * Any other name is a swept parameter, whose values are separated by commas,
+ * for example "1,2,4 num_rows". File names are relative to the sweep file.
+ *
+ * @see Sweep
+ * @author Eduardo Pedroni
+ *
+ */
+public abstract class SweepParser {
+
+	/**
+	 * Parses the sweep in the specified file.
+	 *
+	 * @param file the sweep file to parse.
+	 * @return the parsed sweep.
+	 * @throws FileNotFoundException if the file does not exist.
+	 * @throws IllegalArgumentException if the file contains invalid values.
+	 */
+	public static Sweep parse(File file) throws FileNotFoundException {
+		Sweep sweep = new Sweep();
+		File directory = file.getAbsoluteFile().getParentFile();
+
+		Scanner in = new Scanner(new FileReader(file));
+		try {
+			// parse line by line
+			while (in.hasNextLine()) {
+				String line = in.nextLine().trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] splitString = line.split("( |\t)+");
+				if (splitString.length < 2) {
+					throw new IllegalArgumentException("Line \"" + line + "\" has no parameter name.");
+				}
+				String value = splitString[0];
+				switch (splitString[1]) {
+				case "parameter_file":
+					sweep.setParameterFile(resolve(directory, value));
+					break;
+
+				case "problem_data":
+					sweep.setProblemData(resolve(directory, value));
+					break;
+
+				case "problem":
+					sweep.setProblem(Integer.parseInt(value));
+					break;
+
+				case "mutator":
+					sweep.setMutator(Integer.parseInt(value));
+					break;
+
+				case "strategy":
+					sweep.setStrategy(Integer.parseInt(value));
+					break;
+
+				case "expansion":
+					if (!value.equals("grid") && !value.equals("list")) {
+						throw new IllegalArgumentException("Expansion must be grid or list, not " + value + ".");
+					}
+					sweep.setGrid(value.equals("grid"));
+					break;
+
+				case "repeats":
+					sweep.setRepeats(Integer.parseInt(value));
+					break;
+
+				case "global_seed":
+					sweep.setSeed(Long.parseLong(value));
+					break;
+
+				case "threads":
+					sweep.setThreads(Integer.parseInt(value));
+					break;
+
+				default:
+					sweep.addParameter(splitString[1], value.split(","));
+					break;
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return sweep;
+	}
+
+	/**
+	 * @param directory the directory of the sweep file.
+	 * @param name a file name from the sweep file.
+	 * @return the file, relative to the sweep file if the name is not absolute.
+	 */
+	private static File resolve(File directory, String name) {
+		File file = new File(name);
+		return file.isAbsolute() ? file : new File(directory, name);
+	}
+}
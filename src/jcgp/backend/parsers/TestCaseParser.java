@@ -2,95 +2,516 @@ package jcgp.backend.parsers;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+import jcgp.backend.modules.problem.MappedTestCases;
 import jcgp.backend.modules.problem.TestCaseProblem;
 import jcgp.backend.resources.ModifiableResources;
 
 /**
- * Contains a static method for parsing values from a
+ * Contains static methods for parsing values from a
  * CGP problem data file. The actual file extension
  * varies from problem to problem, and is therefore
  * defined in the experiment's Problem instance.
- * 
- * 
+ * <br><br>
+ * Problem data files can contain millions of test cases, so
+ * the file is memory-mapped and numbers are read straight from
+ * the mapped bytes rather than through intermediate strings. All
+ * test cases are added to the problem at once when parsing is done.
+ * <br><br>
+ * Files too large to hold in memory can instead be converted into
+ * binary test case files with {@code convert()}, and used through
+ * {@code MappedTestCases}.
+ *
+ *
  * @author Eduardo Pedroni
  *
  */
 public abstract class TestCaseParser {
-	
+
 	/**
 	 * Sets the number of inputs and outputs in the resources
 	 * to match the given file, and parses each test case
 	 * from the file into the specified problem.
-	 * 
+	 * <br><br>
+	 * This goes through the problem's {@code parseProblemData()}, so
+	 * problems which keep their test cases out of the heap, such as
+	 * {@code OutOfCoreRegressionProblem}, map the file instead.
+	 *
 	 * @param file the problem file to parse.
 	 * @param problem the problem into which to parse the problem data.
 	 * @param resources a modifiable reference to the experiment's resources
 	 */
 	public static void parse(File file, TestCaseProblem<?> problem, ModifiableResources resources) {
-		// create reader and scanner, print error message if file is missing
-		FileReader fr;
+		problem.parseProblemData(file, resources);
+	}
+	
+	/**
+	 * Sets the number of inputs and outputs in the resources
+	 * to match the given file, and loads each test case from
+	 * the file into the specified problem's {@code TestCaseData}.
+	 *
+	 * @param file the problem file to parse.
+	 * @param problem the problem into which to load the problem data.
+	 * @param resources a modifiable reference to the experiment's resources
+	 */
+	public static void load(File file, final TestCaseProblem<?> problem, ModifiableResources resources) {
+		// this overwrites any previously added test cases
+		problem.clearTestCases();
+		
+		parse(file, resources, new TestCaseSink() {
+			// values are accumulated here and added in bulk at the end
+			private double[] inputValues = new double[0], outputValues = new double[0];
+			private int inputs, outputs, cases = 0;
+			
+			@Override
+			public void expect(int inputs, int outputs, int count) {
+				this.inputs = inputs;
+				this.outputs = outputs;
+				inputValues = new double[count * inputs];
+				outputValues = new double[count * outputs];
+			}
+
+			@Override
+			public void add(double[] values) {
+				if ((cases + 1) * inputs > inputValues.length) {
+					inputValues = Arrays.copyOf(inputValues, Math.max(16, (cases + 1) * 2) * inputs);
+				}
+				if ((cases + 1) * outputs > outputValues.length) {
+					outputValues = Arrays.copyOf(outputValues, Math.max(16, (cases + 1) * 2) * outputs);
+				}
+				System.arraycopy(values, 0, inputValues, cases * inputs, inputs);
+				System.arraycopy(values, inputs, outputValues, cases * outputs, outputs);
+				cases++;
+			}
+
+			@Override
+			public void finish() {
+				problem.addTestCases(inputValues, outputValues, cases);
+			}
+		});
+	}
+	
+	/**
+	 * Converts a problem data file into a binary test case file which can be
+	 * used with {@code MappedTestCases}, without holding the test cases in memory.
+	 * The number of inputs and outputs in the resources is set to match the file.
+	 *
+	 * @param file the problem file to convert.
+	 * @param target the binary file to write.
+	 * @param resources a modifiable reference to the experiment's resources
+	 * @return true if the file was converted successfully.
+	 */
+	public static boolean convert(File file, File target, ModifiableResources resources) {
+		final MappedTestCases.Writer writer;
+		try {
+			writer = new MappedTestCases.Writer(target);
+		} catch (IOException e) {
+			resources.println("[Parser] Error: could not write " + target.getAbsolutePath());
+			return false;
+		}
+		
+		boolean parsed = parse(file, resources, new TestCaseSink() {
+			@Override
+			public void expect(int inputs, int outputs, int count) throws IOException {
+				writer.begin(inputs, outputs);
+			}
+
+			@Override
+			public void add(double[] values) throws IOException {
+				writer.add(values);
+			}
+
+			@Override
+			public void finish() throws IOException {
+				writer.close();
+			}
+		});
+		if (!parsed) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				// the file is unusable anyway
+			}
+			target.delete();
+		}
+		return parsed;
+	}
+
+	/**
+	 * For internal use only, parses a problem data file and passes
+	 * every test case to the specified sink.
+	 *
+	 * @param file the problem file to parse.
+	 * @param resources a modifiable reference to the experiment's resources
+	 * @param sink the sink which receives the test cases.
+	 * @return true if the whole file was parsed successfully.
+	 */
+	private static boolean parse(File file, ModifiableResources resources, TestCaseSink sink) {
+		// open the file, print error message if file is missing
+		RandomAccessFile in;
 		try {
-			fr = new FileReader(file);
+			in = new RandomAccessFile(file, "r");
 		} catch (FileNotFoundException e) {
 			resources.println("[Parser] Error: could not find " + file.getAbsolutePath());
-			return;
+			return false;
 		}
 		resources.println("[Parser] Parsing file: " + file.getAbsolutePath() + "...");
-		Scanner in = new Scanner(fr);
-		boolean readingTestCases = false;
+
+		try {
+			return parse(new MappedLines(in.getChannel()), file, resources, sink);
+		} catch (IOException e) {
+			resources.println("[Parser] Error: could not read " + file.getAbsolutePath());
+			return false;
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing to do, the file has been read
+			}
+		}
+	}
+
+	/**
+	 * For internal use only, parses the lines of a problem
+	 * data file. See {@code parse()} for details.
+	 *
+	 * @param lines the lines of the file.
+	 * @param file the file being parsed, used for printing messages.
+	 * @param resources a modifiable reference to the experiment's resources
+	 * @param sink the sink which receives the test cases.
+	 * @return true if the whole file was parsed successfully.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static boolean parse(MappedLines lines, File file, ModifiableResources resources, TestCaseSink sink) throws IOException {
+		boolean readingTestCases = false, started = false;
 		int inputs = 0, outputs = 0;
-		int cases = 0;
-		
-		// this overwrites any previously added test cases
-		problem.clearTestCases();
-		
-		while (in.hasNextLine()) {
-			String nextLine = in.nextLine();
-			// set resources input count to parsed value
-			if (nextLine.startsWith(".i")) {
-				String[] split = nextLine.split(" +");
-				inputs = Integer.parseInt(split[1]);
+		int cases = 0, lineNumber = 0;
+		double[] values = new double[0];
+
+		while (lines.next()) {
+			lineNumber++;
+			if (lines.startsWith(".i")) {
+				// set resources input count to parsed value
+				try {
+					inputs = (int) lines.skip(2).nextNumber();
+				} catch (NumberFormatException e) {
+					resources.println("[Parser] Error: line " + lineNumber + " of " + file.getName() + " has an invalid number of inputs");
+					return false;
+				}
 				resources.setInputs(inputs);
 				resources.println("[Parser] Number of inputs set to " + resources.inputs());
-			}
-			// set resources output count to parsed value
-			else if (nextLine.startsWith(".o")) {
-				String[] split = nextLine.split(" +");
-				outputs = Integer.parseInt(split[1]);
+
+			} else if (lines.startsWith(".o")) {
+				// set resources output count to parsed value
+				try {
+					outputs = (int) lines.skip(2).nextNumber();
+				} catch (NumberFormatException e) {
+					resources.println("[Parser] Error: line " + lineNumber + " of " + file.getName() + " has an invalid number of outputs");
+					return false;
+				}
 				resources.setOutputs(outputs);
 				resources.println("[Parser] Number of outputs set to " + resources.outputs());
-				
-			} else if (nextLine.startsWith(".p") || nextLine.startsWith(".t")) {
+
+			} else if (lines.startsWith(".p") || lines.startsWith(".t")) {
 				readingTestCases = true;
-				
-			} else if (nextLine.startsWith(".e")) {
+				// the number of test cases is optional, but saves resizing if present
+				if (!started) {
+					int count;
+					try {
+						count = lines.skip(2).hasNumber() ? (int) lines.nextNumber() : 0;
+					} catch (NumberFormatException e) {
+						resources.println("[Parser] Error: line " + lineNumber + " of " + file.getName() + " has an invalid number of test cases");
+						return false;
+					}
+					sink.expect(inputs, outputs, Math.max(count, 0));
+					values = new double[inputs + outputs];
+					started = true;
+				}
+
+			} else if (lines.startsWith(".e")) {
 				readingTestCases = false;
-			
+
 			/*
-			 * Split every line at one or more spaces or tabs, and 
-			 * parse the two sides into inputs and outputs.
+			 * Read inputs and then outputs from every non-empty line,
+			 * separated by any amount of spaces or tabs.
 			 */
-			} else if (readingTestCases) {
-				String[] split = nextLine.split("( |\t)+");
-				String[] inputCases = new String[inputs];
-				String[] outputCases = new String[outputs];
-				
-				for (int i = 0; i < inputs; i++) {
-					inputCases[i] = split[i];
-				}
-				
-				for (int o = 0; o < outputs; o++) {
-					outputCases[o] = split[o + inputs];
+			} else if (readingTestCases && lines.hasNumber()) {
+				for (int i = 0; i < values.length; i++) {
+					if (!lines.hasNumber()) {
+						resources.println("[Parser] Error: line " + lineNumber + " of " + file.getName() + " has fewer than " + values.length + " values");
+						return false;
+					}
+					try {
+						values[i] = lines.nextNumber();
+					} catch (NumberFormatException e) {
+						resources.println("[Parser] Error: line " + lineNumber + " of " + file.getName() + " contains an invalid number");
+						return false;
+					}
 				}
-				
-				problem.addTestCase(inputCases, outputCases);
+				sink.add(values);
 				cases++;
 			}
 		}
+		if (!started) {
+			sink.expect(inputs, outputs, 0);
+		}
+		sink.finish();
 		resources.println("[Parser] Finished, added " + cases + " test cases");
-		in.close();
+		return true;
+	}
+
+	/**
+	 * Receives the test cases read by the parser, so that the same
+	 * parsing code can load test cases into memory or write them
+	 * elsewhere.
+	 *
+	 * @author Eduardo Pedroni
+	 *
+	 */
+	private interface TestCaseSink {
+
+		/**
+		 * Called once, before any test cases are added.
+		 *
+		 * @param inputs the number of inputs in each test case.
+		 * @param outputs the number of outputs in each test case.
+		 * @param count the expected number of test cases, or 0 if unknown.
+		 * @throws IOException if the sink cannot be prepared.
+		 */
+		void expect(int inputs, int outputs, int count) throws IOException;
+
+		/**
+		 * Adds a test case. The array is reused for the next test case.
+		 *
+		 * @param values the inputs of the test case followed by its outputs.
+		 * @throws IOException if the test case cannot be written.
+		 */
+		void add(double[] values) throws IOException;
+
+		/**
+		 * Called once when every test case has been added.
+		 *
+		 * @throws IOException if the sink cannot be completed.
+		 */
+		void finish() throws IOException;
+	}
+
+	/**
+	 * Reads the lines of a file through a memory-mapped window,
+	 * and numbers from the current line without creating strings.
+	 * <br><br>
+	 * The window is moved forward whenever a line crosses its end,
+	 * so files of any size can be read.
+	 *
+	 * @author Eduardo Pedroni
+	 *
+	 */
+	private static final class MappedLines {
+
+		// the size of each mapped window, enlarged if a single line is larger
+		private static final int WINDOW = 1 << 26;
+
+		// powers of ten which are exactly representable as doubles
+		private static final double[] POWERS = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+		};
+
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer buffer;
+		private long base;
+
+		// the current line, and the position after it
+		private int start, end, next;
+		// the position of the next value in the current line
+		private int cursor;
+
+		private MappedLines(FileChannel channel) throws IOException {
+			this.channel = channel;
+			size = channel.size();
+			map(0, WINDOW);
+		}
+
+		/**
+		 * Maps a new window of the file.
+		 *
+		 * @param position the position in the file where the window starts.
+		 * @param length the maximum length of the window.
+		 * @throws IOException if the file cannot be mapped.
+		 */
+		private void map(long position, int length) throws IOException {
+			base = position;
+			buffer = channel.map(MapMode.READ_ONLY, position, Math.min(length, size - position));
+			next = 0;
+		}
+
+		/**
+		 * Moves to the next line of the file.
+		 *
+		 * @return false if there are no more lines.
+		 * @throws IOException if the file cannot be mapped.
+		 */
+		private boolean next() throws IOException {
+			int length = WINDOW;
+			while (true) {
+				int limit = buffer.limit();
+				boolean last = base + limit >= size;
+				if (next >= limit && last) {
+					return false;
+				}
+				int i = next;
+				while (i < limit && buffer.get(i) != '\n') {
+					i++;
+				}
+				if (i < limit || last) {
+					start = next;
+					end = (i > start && buffer.get(i - 1) == '\r') ? i - 1 : i;
+					cursor = start;
+					next = i + 1;
+					return true;
+				}
+				// the line crosses the end of the window, map a new one starting at the line
+				if (next == 0) {
+					length = (int) Math.min(Integer.MAX_VALUE, length * 2L);
+				}
+				map(base + next, length);
+			}
+		}
+
+		/**
+		 * @param prefix the prefix to check, in ASCII.
+		 * @return true if the current line starts with the prefix.
+		 */
+		private boolean startsWith(String prefix) {
+			if (end - start < prefix.length()) {
+				return false;
+			}
+			for (int i = 0; i < prefix.length(); i++) {
+				if (buffer.get(start + i) != prefix.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Skips a number of characters from the start of the current line.
+		 *
+		 * @param characters the number of characters to skip.
+		 * @return this object, for convenience.
+		 */
+		private MappedLines skip(int characters) {
+			cursor = start + characters;
+			return this;
+		}
+
+		/**
+		 * Skips any spaces or tabs.
+		 *
+		 * @return true if a value follows in the current line.
+		 */
+		private boolean hasNumber() {
+			while (cursor < end && (buffer.get(cursor) == ' ' || buffer.get(cursor) == '\t')) {
+				cursor++;
+			}
+			return cursor < end;
+		}
+
+		/**
+		 * Reads the next number in the current line. Simple decimal numbers are
+		 * converted directly; anything else falls back to {@code Double.parseDouble()}.
+		 *
+		 * @return the number read.
+		 * @throws NumberFormatException if the next value is not a number.
+		 */
+		private double nextNumber() {
+			hasNumber();
+			int token = cursor, i = cursor;
+			boolean negative = false;
+			if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = buffer.get(i) == '-';
+				i++;
+			}
+
+			long mantissa = 0;
+			int digits = 0, exponent = 0;
+			boolean fraction = false, any = false;
+			for (; i < end; i++) {
+				byte b = buffer.get(i);
+				if (b >= '0' && b <= '9') {
+					any = true;
+					if (mantissa != 0 || b != '0') {
+						digits++;
+					}
+					mantissa = (mantissa * 10) + (b - '0');
+					if (fraction) {
+						exponent--;
+					}
+					if (digits > 18) {
+						break;
+					}
+				} else if (b == '.' && !fraction) {
+					fraction = true;
+				} else if (b == 'e' || b == 'E') {
+					exponent += readExponent(i + 1);
+					i = cursor;
+					break;
+				} else {
+					break;
+				}
+			}
+
+			// the value was exactly representable if it ends at a separator and fits in 53 bits
+			boolean separated = i == end || buffer.get(i) == ' ' || buffer.get(i) == '\t';
+			if (separated && any && digits <= 18 && mantissa < (1L << 53)
+					&& exponent >= -22 && exponent <= 22) {
+				cursor = i;
+				double value = exponent < 0 ? mantissa / POWERS[-exponent] : mantissa * POWERS[exponent];
+				return negative ? -value : value;
+			}
+
+			// fall back to the standard conversion
+			while (i < end && buffer.get(i) != ' ' && buffer.get(i) != '\t') {
+				i++;
+			}
+			byte[] bytes = new byte[i - token];
+			for (int b = 0; b < bytes.length; b++) {
+				bytes[b] = buffer.get(token + b);
+			}
+			cursor = i;
+			return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+		}
+
+		/**
+		 * Reads the exponent of a number, setting the cursor after it. If the
+		 * exponent is malformed, the cursor is set to a non-separator character
+		 * so that the standard conversion is used.
+		 *
+		 * @param i the position after the exponent character.
+		 * @return the exponent.
+		 */
+		private int readExponent(int i) {
+			boolean negative = false;
+			if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = buffer.get(i) == '-';
+				i++;
+			}
+			int exponent = 0, first = i;
+			while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9' && exponent < 1000) {
+				exponent = (exponent * 10) + (buffer.get(i) - '0');
+				i++;
+			}
+			// an empty exponent is invalid, point back at the exponent character
+			cursor = i > first ? i : first - 1;
+			return negative ? -exponent : exponent;
+		}
 	}
 }
@@ -2,7 +2,9 @@ package jcgp.backend.population;
 
 import java.util.ArrayList;
 
+import jcgp.backend.function.Function;
 import jcgp.backend.resources.Resources;
+import jcgp.backend.resources.RunConfiguration;
 
 /**
  * This class encapsulates a CGP chromosome.
@@ -44,6 +46,12 @@ import jcgp.backend.resources.Resources;
  * to compare fitness value, meaning {@code compareTo()} returns a value depending the relative fitness
  * of the compared chromosomes.
  * <br><br>
+ * Each chromosome also keeps a 64-bit Zobrist-style hash of its genotype, which is
+ * updated incrementally whenever a connection, function or output source changes. Two
+ * chromosomes with identical genes always have the same hash, so {@code getGenotypeHash()}
+ * can be used to check for duplicates in constant time; the comparison methods use it to
+ * reject non-identical chromosomes without walking the whole chromosome.
+ * <br><br>
  * In order to set the chromosome's input values for decoding, {@code setInputs()} should be used. A few 
  * utility methods are provided in order to retrieve random elements from the chromosome, which are used
  * internally to initialise with random connections but also externally by mutators when performing 
@@ -55,6 +63,8 @@ import jcgp.backend.resources.Resources;
 public class Chromosome implements Comparable<Chromosome> {
 	
 	private Resources resources;
+	// the configuration the chromosome was built with
+	private RunConfiguration configuration;
 
 	private Input[] inputs;
 	private Node[][] nodes;
@@ -64,6 +74,14 @@ public class Chromosome implements Comparable<Chromosome> {
 
 	private double fitness = 0;
 	private boolean recomputeActiveNodes = true;
+	
+	// XOR of the keys of every gene, kept up to date by the genes themselves
+	private long genotypeHash = 0;
+	// same as above but for active nodes only, recomputed along with the active node list
+	private long activeGenotypeHash = 0;
+	
+	// number of times any node of this chromosome has computed its value
+	private long nodeExecutions = 0;
 
 	/**
 	 * Initialise a chromosome with the specified parameters. Random valid connections
@@ -96,6 +114,24 @@ public class Chromosome implements Comparable<Chromosome> {
 		copyGenes(clone);
 	}
 
+	/**
+	 * Initialise a chromosome from the indexed record of a gene store,
+	 * without drawing any random numbers. The store must have the same
+	 * dimensions as specified in the resources.
+	 * 
+	 * @param store the store to read the genes from.
+	 * @param index the record to read.
+	 * @param resources the experiment's resources.
+	 */
+	public Chromosome(GeneStore store, int index, Resources resources) {
+		// store a reference to the parameters
+		this.resources = resources;
+		// allocate memory for all elements of the chromosome
+		instantiateElements();
+		// initialise all connections from the stored record
+		store.read(index, this);
+	}
+
 	/**
 	 * Allocates the necessary memory for all of the nodes, inputs
 	 * and outputs in the chromosome according to the experiment
@@ -107,19 +143,20 @@ public class Chromosome implements Comparable<Chromosome> {
 	 * be used.
 	 */
 	private void instantiateElements() {
-		inputs = new Input[(resources.inputs())];
+		configuration = resources.configuration();
+		inputs = new Input[(configuration.inputs())];
 		for (int i = 0; i < inputs.length; i++) {
 			inputs[i] = new Input(i);
 		}
 
 		// rows first
-		nodes = new Node[(resources.rows())][(resources.columns())];
+		nodes = new Node[(configuration.rows())][(configuration.columns())];
 		for (int r = 0; r < nodes.length; r++) {
 			for (int c = 0; c < nodes[r].length; c++) {
 				nodes[r][c] = new Node(this, r, c);
 			}
 		}
-		outputs = new Output[resources.outputs()];
+		outputs = new Output[configuration.outputs()];
 		for (int o = 0; o < outputs.length; o++) {
 			outputs[o] = new Output(this, o);
 		}
@@ -132,7 +169,7 @@ public class Chromosome implements Comparable<Chromosome> {
 	 */
 	public void reinitialiseConnections() {
 
-		int arity = resources.arity();
+		int arity = configuration.arity();
 		
 		// initialise nodes - [rows][columns]
 		for (int r = 0; r < nodes.length; r++) {
@@ -168,7 +205,7 @@ public class Chromosome implements Comparable<Chromosome> {
 	 * @param clone the chromosome to clone.
 	 */
 	public void copyGenes(Chromosome clone) {
-		int arity = resources.arity();
+		int arity = configuration.arity();
 		// copy nodes - [rows][columns]
 		for (int r = 0; r < nodes.length; r++) {
 			for (int c = 0; c < nodes[r].length; c++) {
@@ -209,6 +246,169 @@ public class Chromosome implements Comparable<Chromosome> {
 		this.fitness = clone.getFitness();
 	}
 
+	/**
+	 * Returns the hash of this chromosome's genotype. The hash
+	 * covers the function and connections of every node as well
+	 * as the source of every output, and is maintained incrementally
+	 * as genes change, so this is a constant-time operation.
+	 * <br><br>
+	 * Chromosomes with identical genes are guaranteed to have the
+	 * same hash. The converse is true with very high probability, 
+	 * but not guaranteed.
+	 * 
+	 * @return the genotype hash.
+	 */
+	public long getGenotypeHash() {
+		return genotypeHash;
+	}
+	
+	/**
+	 * Returns the number of times nodes of this chromosome have
+	 * computed their values, over the lifetime of the chromosome.
+	 * This is not affected by copying genes.
+	 * 
+	 * @return the number of node executions.
+	 */
+	public long getNodeExecutions() {
+		return nodeExecutions;
+	}
+	
+	/**
+	 * Used by nodes to count their executions.
+	 */
+	void countNodeExecution() {
+		nodeExecutions++;
+	}
+	
+	/**
+	 * Returns the hash of the active portion of the genotype, 
+	 * in other words the combined hash of each active node. This 
+	 * is recomputed whenever the list of active nodes is.
+	 * 
+	 * @return the active genotype hash.
+	 */
+	public long getActiveGenotypeHash() {
+		computeActiveNodes();
+		return activeGenotypeHash;
+	}
+	
+	/**
+	 * For package use, this toggles the specified gene key
+	 * in the genotype hash. Since keys are combined with XOR,
+	 * toggling a key twice removes it again; genes use this to
+	 * swap their old key for the new one when they change.
+	 * 
+	 * @param key the key to toggle.
+	 */
+	void toggleGenotypeHash(long key) {
+		genotypeHash ^= key;
+	}
+	
+	/**
+	 * For package use, returns the key of a node's function gene.
+	 * 
+	 * @param node the node whose gene is being hashed.
+	 * @param function the function value of the gene.
+	 * @return the gene key, or 0 if the function is null.
+	 */
+	long functionKey(Node node, Function function) {
+		if (function == null) {
+			return 0;
+		}
+		return geneKey(node.getColumn() * nodes.length + node.getRow(), 0, resources.getFunctionIndex(function));
+	}
+	
+	/**
+	 * For package use, returns the key of a node's connection gene.
+	 * 
+	 * @param node the node whose gene is being hashed.
+	 * @param index the connection index.
+	 * @param connection the connection value of the gene.
+	 * @return the gene key, or 0 if the connection is null.
+	 */
+	long connectionKey(Node node, int index, Connection connection) {
+		if (connection == null) {
+			return 0;
+		}
+		return geneKey(node.getColumn() * nodes.length + node.getRow(), index + 1, connectionValue(connection));
+	}
+	
+	/**
+	 * For package use, returns the key of an output's source gene.
+	 * 
+	 * @param output the output whose gene is being hashed.
+	 * @param source the source value of the gene.
+	 * @return the gene key, or 0 if the source is null.
+	 */
+	long sourceKey(Output output, Connection source) {
+		if (source == null) {
+			return 0;
+		}
+		// outputs use negative element numbers so they never overlap with nodes
+		return geneKey(-1 - output.getIndex(), 0, connectionValue(source));
+	}
+	
+	/**
+	 * Computes the combined key of all genes of a single node.
+	 * 
+	 * @param node the node to hash.
+	 * @return the combined key of the node's function and connections.
+	 */
+	private long nodeKey(Node node) {
+		long key = functionKey(node, node.getFunction());
+		for (int i = 0; i < configuration.arity(); i++) {
+			key ^= connectionKey(node, i, node.getConnection(i));
+		}
+		return key;
+	}
+	
+	/**
+	 * Converts a connection into the number used to hash it. Inputs 
+	 * come first, followed by nodes in column-major order, as in the
+	 * .chr format. Connections of any other type all hash to -1.
+	 * 
+	 * @param connection the connection to convert.
+	 * @return the connection number.
+	 */
+	private int connectionValue(Connection connection) {
+		if (connection instanceof Input) {
+			return ((Input) connection).getIndex();
+		} else if (connection instanceof Node) {
+			return inputs.length + (((Node) connection).getColumn() * nodes.length) + ((Node) connection).getRow();
+		} else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Generates the Zobrist key for a gene in a given state. Rather than
+	 * storing a table of random keys, which would grow with the square of
+	 * the number of nodes, the key is derived by mixing the gene position
+	 * and value with the SplitMix64 finaliser. This yields well-distributed
+	 * keys which are identical for all chromosomes of the experiment.
+	 * 
+	 * @param element the node or output number.
+	 * @param slot the gene within the element, 0 for functions and output sources.
+	 * @param value the value of the gene.
+	 * @return the gene key.
+	 */
+	private static long geneKey(int element, int slot, int value) {
+		return mix(mix(((long) element << 32) | (slot & 0xFFFFFFFFL)) + value);
+	}
+	
+	/**
+	 * SplitMix64 finaliser, used to scramble gene positions and values.
+	 * 
+	 * @param z the value to scramble.
+	 * @return the scrambled value.
+	 */
+	private static long mix(long z) {
+		z += 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
 	/**
 	 * Returns a reference to the indexed input.
 	 * 
@@ -288,7 +488,7 @@ public class Chromosome implements Comparable<Chromosome> {
 	 */
 	public Mutable getRandomMutable() {
 		// choose output or node
-		int index = resources.getRandomInt(outputs.length + (resources.rows() * resources.columns()));
+		int index = resources.getRandomInt(outputs.length + configuration.nodes());
 
 		if (index < outputs.length) {
 			// outputs
@@ -296,7 +496,7 @@ public class Chromosome implements Comparable<Chromosome> {
 		} else {
 			// node	
 			index -= outputs.length;
-			return nodes[index / resources.columns()][index % resources.columns()];
+			return nodes[index / configuration.columns()][index % configuration.columns()];
 		}
 	}
 
@@ -310,7 +510,7 @@ public class Chromosome implements Comparable<Chromosome> {
 	 */
 	public Connection getRandomConnection(int column) {
 		// work out the allowed range obeying levels back
-		int allowedColumns = column >= resources.levelsBack() ? resources.levelsBack() : column;
+		int allowedColumns = column >= configuration.levelsBack() ? configuration.levelsBack() : column;
 		int offset = ((column - allowedColumns) * nodes.length) - inputs.length;
 
 		// choose input or allowed node
@@ -334,14 +534,14 @@ public class Chromosome implements Comparable<Chromosome> {
 	 */
 	public Connection getRandomConnection() {
 		// choose output or node
-		int index = resources.getRandomInt(inputs.length + (resources.columns() * resources.rows()));
+		int index = resources.getRandomInt(inputs.length + configuration.nodes());
 		if (index < inputs.length) {
 			// outputs
 			return inputs[index];
 		} else {
 			// node	
 			index -= inputs.length;
-			return nodes[index / resources.columns()][index % resources.columns()];
+			return nodes[index / configuration.columns()][index % configuration.columns()];
 		}
 	}
 
@@ -376,6 +576,11 @@ public class Chromosome implements Comparable<Chromosome> {
 			for (Output output : outputs) {
 				output.getActiveNodes(activeNodes);
 			}
+			// hash the active portion while we are at it
+			activeGenotypeHash = 0;
+			for (int i = 0; i < activeNodes.size(); i++) {
+				activeGenotypeHash ^= nodeKey(activeNodes.get(i));
+			}
 		}
 	}
 
@@ -402,15 +607,20 @@ public class Chromosome implements Comparable<Chromosome> {
 	 *
 	 */
 	public boolean compareGenesTo(Chromosome chromosome) {
-		for (int r = 0; r < resources.rows(); r++) {
-			for (int c = 0; c < resources.columns(); c++) {
+		// different hashes mean different genes, no need to look any further
+		if (genotypeHash != chromosome.getGenotypeHash()) {
+			return false;
+		}
+		
+		for (int r = 0; r < configuration.rows(); r++) {
+			for (int c = 0; c < configuration.columns(); c++) {
 				if (!(nodes[r][c].copyOf(chromosome.getNode(r, c)))) {
 					return false;
 				}
 			}
 		}
 		
-		for (int o = 0; o < resources.outputs(); o++) {
+		for (int o = 0; o < configuration.outputs(); o++) {
 			if (!(outputs[o].copyOf(chromosome.getOutput(o)))) {
 				return false;
 			}
@@ -430,6 +640,11 @@ public class Chromosome implements Comparable<Chromosome> {
 		// update list if it is out of date
 		computeActiveNodes();
 		
+		// different hashes mean different active genes
+		if (activeGenotypeHash != chromosome.getActiveGenotypeHash()) {
+			return false;
+		}
+		
 		if (activeNodes.size() == chromosome.getActiveNodes().size()) {
 			for (int i = 0; i < activeNodes.size(); i++) {
 				if (!(activeNodes.get(i).copyOf(chromosome.getActiveNodes().get(i)))){
@@ -468,6 +683,13 @@ public class Chromosome implements Comparable<Chromosome> {
 		System.out.println();
 	}
 	
+	/**
+	 * @return the configuration the chromosome was built with.
+	 */
+	public RunConfiguration getConfiguration() {
+		return configuration;
+	}
+	
 	/**
 	 * @return a reference to the resources based on which the chromosome was built.
 	 */
@@ -0,0 +1,419 @@
+package jcgp.backend.population;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import jcgp.backend.resources.Resources;
+
+/**
+ * This class is a binary snapshot buffer for the genes of a number of
+ * chromosomes, held outside of the Java heap in a flat integer encoding.
+ * <br><br>
+ * Each chromosome is stored as a record containing its fitness followed by
+ * its genes. Nodes are stored columns first, as in the .chr format; each
+ * node is stored as its connections followed by its function index. Output
+ * sources come after the nodes. Connections are numbered with inputs first
+ * and nodes after them, also columns first, so that a connection to node
+ * (r, c) is stored as {@code inputs + (c * rows) + r}.
+ * <br><br>
+ * Stores can be allocated in direct memory using {@code allocate()} or
+ * backed by a file using {@code map()}, in which case the contents survive
+ * the experiment and can be mapped again later. Records are laid out back
+ * to back in a single region, which is only split into chunks of whole
+ * records when it is larger than 2 GB, so a store takes one allocation or
+ * mapping per chunk rather than one per chromosome.
+ * <br><br>
+ * A store is a snapshot, not the population's working memory: live
+ * chromosomes are made of {@code Node} and {@code Output} objects, which
+ * {@code Population} writes to a store and reads back using {@code store()}
+ * and {@code restore()}, or builds directly from one with its constructor.
+ * Checkpoints and population files are written from stores.
+ *
+ * @see Population
+ * @author Eduardo Pedroni
+ *
+ */
+public class GeneStore {
+
+	/**
+	 * Identifies files written by this class.
+	 */
+	public static final int MAGIC = 0x4A434753;
+	/**
+	 * The current version of the record layout.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The size of the header at the start of mapped files, in bytes.
+	 */
+	public static final int HEADER_SIZE = 32;
+
+	// the largest chunk of the region, in bytes
+	private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+	private final int rows, columns, inputs, outputs, arity;
+	private final int genes, size, recordSize;
+	// the region, split into chunks of recordsPerChunk records
+	private final ByteBuffer[] chunks;
+	private final int recordsPerChunk;
+
+	private RandomAccessFile file;
+
+	/**
+	 * For internal use only, initialises the dimensions of the
+	 * store. The chunks must be set by the factory methods.
+	 *
+	 * @param resources the experiment's resources.
+	 * @param size the number of chromosomes in the store.
+	 */
+	private GeneStore(Resources resources, int size) {
+		rows = resources.rows();
+		columns = resources.columns();
+		inputs = resources.inputs();
+		outputs = resources.outputs();
+		arity = resources.arity();
+		genes = getGenesPerChromosome(resources);
+		this.size = size;
+		recordSize = 8 + (genes * 4);
+		recordsPerChunk = (int) Math.max(1, Math.min(size, MAX_CHUNK_SIZE / recordSize));
+		chunks = new ByteBuffer[size == 0 ? 0 : ((size - 1) / recordsPerChunk) + 1];
+	}
+	
+	/**
+	 * For internal use only, computes the size of a chunk.
+	 * 
+	 * @param chunk the index of the chunk.
+	 * @return the size of the chunk in bytes.
+	 */
+	private int getChunkSize(int chunk) {
+		return Math.min(recordsPerChunk, size - (chunk * recordsPerChunk)) * recordSize;
+	}
+
+	/**
+	 * Allocates a new store in direct memory, large enough to hold the
+	 * specified number of chromosomes.
+	 *
+	 * @param resources the experiment's resources.
+	 * @param size the number of chromosomes to store.
+	 * @return the new store.
+	 */
+	public static GeneStore allocate(Resources resources, int size) {
+		GeneStore store = new GeneStore(resources, size);
+		for (int i = 0; i < store.chunks.length; i++) {
+			store.chunks[i] = ByteBuffer.allocateDirect(store.getChunkSize(i));
+		}
+		return store;
+	}
+
+	/**
+	 * Maps a store to the specified file. If the file already contains a
+	 * store with the same dimensions, its contents are kept, otherwise the
+	 * file is overwritten with an empty store.
+	 * <br><br>
+	 * The file remains open until {@code close()} is called.
+	 *
+	 * @param file the file to map.
+	 * @param resources the experiment's resources.
+	 * @param size the number of chromosomes to store.
+	 * @return the new store.
+	 * @throws IOException if the file cannot be opened or mapped.
+	 */
+	public static GeneStore map(File file, Resources resources, int size) throws IOException {
+		GeneStore store = new GeneStore(resources, size);
+		store.file = new RandomAccessFile(file, "rw");
+		FileChannel channel = store.file.getChannel();
+
+		// check whether a compatible store is already in the file
+		long length = HEADER_SIZE + ((long) store.getRecordSize() * size);
+		MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+		if (channel.size() != length || !store.matchesHeader(header, size)) {
+			store.file.setLength(length);
+			header.clear();
+			store.writeHeader(header, size);
+		}
+
+		long offset = HEADER_SIZE;
+		for (int i = 0; i < store.chunks.length; i++) {
+			store.chunks[i] = channel.map(MapMode.READ_WRITE, offset, store.getChunkSize(i));
+			offset += store.getChunkSize(i);
+		}
+		return store;
+	}
+
+	/**
+	 * Computes the number of genes in a chromosome with the
+	 * dimensions specified in the resources.
+	 *
+	 * @param resources the experiment's resources.
+	 * @return the number of genes in each chromosome.
+	 */
+	public static int getGenesPerChromosome(Resources resources) {
+		return (resources.nodes() * (resources.arity() + 1)) + resources.outputs();
+	}
+
+	/**
+	 * Writes a store header into the given buffer, starting at its
+	 * current position. The header takes {@code HEADER_SIZE} bytes.
+	 *
+	 * @param header the buffer to write to.
+	 * @param size the number of chromosomes in the store.
+	 */
+	public void writeHeader(ByteBuffer header, int size) {
+		header.putInt(MAGIC).putInt(VERSION);
+		header.putInt(rows).putInt(columns).putInt(inputs).putInt(outputs).putInt(arity);
+		header.putInt(size);
+	}
+
+	/**
+	 * Checks the header in the given buffer against the dimensions
+	 * of this store, starting at the buffer's current position. The
+	 * position is left unchanged.
+	 *
+	 * @param header the buffer to read from.
+	 * @param size the expected number of chromosomes.
+	 * @return true if the header describes a store identical in shape to this one.
+	 */
+	public boolean matchesHeader(ByteBuffer header, int size) {
+		int p = header.position();
+		return header.getInt(p) == MAGIC && header.getInt(p + 4) == VERSION
+				&& header.getInt(p + 8) == rows && header.getInt(p + 12) == columns
+				&& header.getInt(p + 16) == inputs && header.getInt(p + 20) == outputs
+				&& header.getInt(p + 24) == arity && header.getInt(p + 28) == size;
+	}
+
+	/**
+	 * Checks whether this store has the dimensions described by the
+	 * resources, in which case it can hold their chromosomes.
+	 *
+	 * @param resources the experiment's resources.
+	 * @param size the expected number of chromosomes.
+	 * @return true if chromosomes with these dimensions fit in this store.
+	 */
+	public boolean matches(Resources resources, int size) {
+		return rows == resources.rows() && columns == resources.columns()
+				&& inputs == resources.inputs() && outputs == resources.outputs()
+				&& arity == resources.arity() && this.size == size;
+	}
+
+	/**
+	 * Encodes the specified chromosome into the indexed record,
+	 * overwriting whatever was stored there.
+	 *
+	 * @param index the record to write.
+	 * @param chromosome the chromosome to store.
+	 */
+	public void write(int index, Chromosome chromosome) {
+		ByteBuffer chunk = getChunk(index);
+		int p = getOffset(index);
+		chunk.putDouble(p, chromosome.getFitness());
+		p += 8;
+		Resources resources = chromosome.getResources();
+
+		// for all nodes, columns first
+		for (int c = 0; c < columns; c++) {
+			for (int r = 0; r < rows; r++) {
+				Node node = chromosome.getNode(r, c);
+				for (int i = 0; i < arity; i++) {
+					chunk.putInt(p, encode(node.getConnection(i)));
+					p += 4;
+				}
+				chunk.putInt(p, resources.getFunctionIndex(node.getFunction()));
+				p += 4;
+			}
+		}
+		for (int o = 0; o < outputs; o++) {
+			chunk.putInt(p, encode(chromosome.getOutput(o).getSource()));
+			p += 4;
+		}
+	}
+
+	/**
+	 * Decodes the indexed record into the specified chromosome. The
+	 * chromosome must have the same dimensions as this store, but its
+	 * genes do not need to have been initialised.
+	 *
+	 * @param index the record to read.
+	 * @param chromosome the chromosome to configure.
+	 */
+	public void read(int index, Chromosome chromosome) {
+		ByteBuffer chunk = getChunk(index);
+		int p = getOffset(index);
+		chromosome.setFitness(chunk.getDouble(p));
+		p += 8;
+		Resources resources = chromosome.getResources();
+
+		// for all nodes, columns first
+		for (int c = 0; c < columns; c++) {
+			for (int r = 0; r < rows; r++) {
+				Connection[] connections = new Connection[arity];
+				for (int i = 0; i < arity; i++) {
+					connections[i] = decode(chunk.getInt(p), chromosome);
+					p += 4;
+				}
+				chromosome.getNode(r, c).initialise(resources.getFunction(chunk.getInt(p)), connections);
+				p += 4;
+			}
+		}
+		for (int o = 0; o < outputs; o++) {
+			chromosome.getOutput(o).setSource(decode(chunk.getInt(p), chromosome));
+			p += 4;
+		}
+	}
+
+	/**
+	 * Returns a single gene from the indexed record, without
+	 * decoding the rest of the chromosome.
+	 *
+	 * @param index the record to read from.
+	 * @param gene the gene to return, as laid out in the record.
+	 * @return the encoded gene.
+	 */
+	public int getGene(int index, int gene) {
+		return getChunk(index).getInt(getOffset(index) + 8 + (gene * 4));
+	}
+
+	/**
+	 * @param index the record to read from.
+	 * @return the fitness stored in the indexed record.
+	 */
+	public double getFitness(int index) {
+		return getChunk(index).getDouble(getOffset(index));
+	}
+
+	/**
+	 * @return the number of chromosomes in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of genes in each stored chromosome.
+	 */
+	public int getGenesPerChromosome() {
+		return genes;
+	}
+
+	/**
+	 * @return the size of each record in bytes.
+	 */
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * Returns a read-only view of the indexed record, useful for
+	 * writing records out in bulk.
+	 *
+	 * @param index the record to return.
+	 * @return a read-only view of the record.
+	 */
+	public ByteBuffer getRecord(int index) {
+		ByteBuffer view = getChunk(index).asReadOnlyBuffer();
+		view.limit(getOffset(index) + recordSize).position(getOffset(index));
+		return view.slice();
+	}
+
+	/**
+	 * Replaces the contents of the indexed record with the
+	 * remaining bytes of the given buffer.
+	 *
+	 * @param index the record to overwrite.
+	 * @param source the buffer to copy from.
+	 */
+	public void putRecord(int index, ByteBuffer source) {
+		ByteBuffer record = getChunk(index).duplicate();
+		record.limit(getOffset(index) + recordSize).position(getOffset(index));
+		record.put(source);
+	}
+
+	/**
+	 * @return true if this store is backed by a file.
+	 */
+	public boolean isMapped() {
+		return file != null;
+	}
+
+	/**
+	 * Forces any changes to a file-backed store to be written
+	 * to the storage device. This does nothing if the store is
+	 * not backed by a file.
+	 */
+	public void force() {
+		if (file != null) {
+			for (int i = 0; i < chunks.length; i++) {
+				((MappedByteBuffer) chunks[i]).force();
+			}
+		}
+	}
+
+	/**
+	 * Closes the underlying file, if there is one. The mapped region
+	 * remains valid until they are garbage collected.
+	 *
+	 * @throws IOException if the file cannot be closed.
+	 */
+	public void close() throws IOException {
+		if (file != null) {
+			force();
+			file.close();
+			file = null;
+		}
+	}
+
+	/**
+	 * @param index the index of a record.
+	 * @return the chunk holding the record.
+	 */
+	private ByteBuffer getChunk(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Record " + index + " is not in a store of " + size + " records.");
+		}
+		return chunks[index / recordsPerChunk];
+	}
+
+	/**
+	 * @param index the index of a record.
+	 * @return the offset of the record in its chunk, in bytes.
+	 */
+	private int getOffset(int index) {
+		return (index % recordsPerChunk) * recordSize;
+	}
+
+	/**
+	 * Converts a connection into its stored number.
+	 *
+	 * @param connection the connection to encode.
+	 * @return the connection number.
+	 */
+	private int encode(Connection connection) {
+		if (connection instanceof Input) {
+			return ((Input) connection).getIndex();
+		} else if (connection instanceof Node) {
+			return inputs + (((Node) connection).getColumn() * rows) + ((Node) connection).getRow();
+		} else {
+			throw new IllegalArgumentException("Connection of subtype " + connection.getClass().toString() + " cannot be stored.");
+		}
+	}
+
+	/**
+	 * Converts a stored number into the equivalent connection
+	 * in the specified chromosome.
+	 *
+	 * @param gene the connection number.
+	 * @param chromosome the chromosome containing the connection.
+	 * @return the connection.
+	 */
+	private Connection decode(int gene, Chromosome chromosome) {
+		if (gene < inputs) {
+			return chromosome.getInput(gene);
+		} else {
+			return chromosome.getNode((gene - inputs) % rows, (gene - inputs) / rows);
+		}
+	}
+}
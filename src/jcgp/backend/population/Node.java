@@ -57,8 +57,16 @@ public class Node extends Gene implements Mutable, Connection {
 	 * @param newConnections the node connections to set.
 	 */
 	public void initialise(Function newFunction, Connection... newConnections) {
+		chromosome.toggleGenotypeHash(chromosome.functionKey(this, function) ^ chromosome.functionKey(this, newFunction));
 		function = newFunction;
 		if (newConnections.length == chromosome.getResources().arity()) {
+			// swap the keys of the old connections, if any, for the new ones
+			for (int i = 0; i < newConnections.length; i++) {
+				if (connections != null) {
+					chromosome.toggleGenotypeHash(chromosome.connectionKey(this, i, connections[i]));
+				}
+				chromosome.toggleGenotypeHash(chromosome.connectionKey(this, i, newConnections[i]));
+			}
 			connections = newConnections;
 		} else {
 			throw new IllegalArgumentException("Received " + newConnections.length + " connections but needed exactly " + chromosome.getResources().arity());
@@ -92,7 +100,10 @@ public class Node extends Gene implements Mutable, Connection {
 	 * @param newFunction the new function to set.
 	 */
 	public void setFunction(Function newFunction) {
+		chromosome.toggleGenotypeHash(chromosome.functionKey(this, function) ^ chromosome.functionKey(this, newFunction));
 		function = newFunction;
+		// the arity of the function determines which connections are active
+		chromosome.recomputeActiveNodes();
 	}
 	
 	/**
@@ -114,6 +125,7 @@ public class Node extends Gene implements Mutable, Connection {
 	public void setConnection(int index, Connection newConnection) {
 		// connection must not be null
 		if (newConnection != null) {
+			chromosome.toggleGenotypeHash(chromosome.connectionKey(this, index, connections[index]) ^ chromosome.connectionKey(this, index, newConnection));
 			connections[index] = newConnection;
 			chromosome.recomputeActiveNodes();
 		}
@@ -184,6 +196,7 @@ public class Node extends Gene implements Mutable, Connection {
 	
 	@Override
 	public Object getValue() {
+		chromosome.countNodeExecution();
 		// build list of arguments recursively
 		Object[] args = new Object[function.getArity()];
 		for (int i = 0; i < function.getArity(); i++) {
@@ -198,7 +211,7 @@ public class Node extends Gene implements Mutable, Connection {
 		Resources resources = chromosome.getResources();
 		
 		// choose to mutate the function or a connection
-		int geneType = resources.getRandomInt(1 + resources.arity());
+		int geneType = resources.getRandomInt(1 + chromosome.getConfiguration().arity());
 		
 		// if the int is less than 1, mutate function, else mutate connections 
 		if (geneType < 1) {			
@@ -234,7 +234,7 @@ public class NodeIP extends Gene implements Mutable, Connection {
 			
 		// mutate a (randomly chosen) connection
 		case 1:
-			int connection_idx = resources.getRandomInt(resources.arity());
+			int connection_idx = resources.getRandomInt(chromosome.getConfiguration().arity());
 			setConnection(connection_idx, chromosome.getRandomConnection(column));
 			break;
 			
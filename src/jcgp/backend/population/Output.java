@@ -54,6 +54,7 @@ public class Output extends Gene implements Mutable {
 	 * @param newConnection the {@code Connection} to connect to.
 	 */
 	public void setSource(Connection newConnection) {
+		chromosome.toggleGenotypeHash(chromosome.sourceKey(this, source) ^ chromosome.sourceKey(this, newConnection));
 		source = newConnection;
 		// trigger active path recomputation
 		chromosome.recomputeActiveNodes();
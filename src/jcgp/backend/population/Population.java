@@ -2,9 +2,11 @@ package jcgp.backend.population;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 
 import jcgp.backend.modules.problem.BestFitness;
 import jcgp.backend.resources.Resources;
+import jcgp.backend.statistics.GenerationMetrics;
 
 /**
  * This class primarily holds a collection of chromosomes. In addition, 
@@ -20,6 +22,11 @@ import jcgp.backend.resources.Resources;
  * experiment's specified seed. If an entirely random population
  * is needed, {@code reinitialise()} should be used to randomise
  * all chromosomes without creating a new instance of {@code Population}.
+ * <br><br>
+ * A snapshot of the genes of the whole population can be written to a 
+ * {@link GeneStore}, outside of the Java heap (optionally in a mapped file), 
+ * using {@code store()}. It can be read back with {@code restore()}, or a new
+ * population can be built from it with the right constructor.
  * 
  * 
  * @author Eduardo Pedroni
@@ -30,6 +37,8 @@ public class Population {
 	private final Chromosome[] chromosomes;
 	private final Resources resources;
 	
+	private GenerationMetrics metrics;
+	
 	/**
 	 * Initialise a random population according to the parameters specified
 	 * in the resources.
@@ -60,6 +69,23 @@ public class Population {
 		}
 	}
 
+	/**
+	 * Initialise a population from the chromosomes held in a gene store.
+	 * The store must contain at least populationSize chromosomes with the
+	 * same dimensions as specified in the resources.
+	 * 
+	 * @param store the store to read the chromosomes from.
+	 * @param resources a reference to the experiment's resources.
+	 */
+	public Population(GeneStore store, Resources resources) {
+		this.resources = resources;
+		
+		chromosomes = new Chromosome[resources.populationSize()];
+		for (int c = 0; c < chromosomes.length; c++) {
+			chromosomes[c] = new Chromosome(store, c, resources);
+		}
+	}
+
 	/**
 	 * Returns the indexed chromosome.
 	 * 
@@ -90,8 +116,101 @@ public class Population {
 	 */
 	public void copyChromosome(int source, int target) {
 		if (source != target) {
-			chromosomes[target].copyGenes(chromosomes[source]);
+			copyChromosome(chromosomes[source], target);
+		}
+	}
+	
+	/**
+	 * Copy a chromosome from outside the population into the
+	 * specified position. This is used by evolutionary strategies
+	 * which build the next generation separately.
+	 * 
+	 * @param source the chromosome to copy from.
+	 * @param target the position to copy to.
+	 */
+	public void copyChromosome(Chromosome source, int target) {
+		if (metrics != null) {
+			long start = metrics.start();
+			chromosomes[target].copyGenes(source);
+			metrics.endCopy(start);
+		} else {
+			chromosomes[target].copyGenes(source);
+		}
+	}
+	
+	/**
+	 * @return the number of chromosomes in the population.
+	 */
+	public int size() {
+		return chromosomes.length;
+	}
+	
+	/**
+	 * Sets the metrics which record the time spent copying
+	 * chromosomes, or null to stop recording it.
+	 * 
+	 * @param metrics the experiment's metrics.
+	 */
+	public void setMetrics(GenerationMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Writes every chromosome in the population, including its
+	 * fitness, into the specified store. The store must be able to
+	 * hold at least as many chromosomes as the population.
+	 * 
+	 * @param store the store to write to.
+	 */
+	public void store(GeneStore store) {
+		for (int c = 0; c < chromosomes.length; c++) {
+			store.write(c, chromosomes[c]);
+		}
+	}
+	
+	/**
+	 * Replaces the genes and fitness of every chromosome in the
+	 * population with those held in the specified store.
+	 * 
+	 * @param store the store to read from.
+	 */
+	public void restore(GeneStore store) {
+		for (int c = 0; c < chromosomes.length; c++) {
+			store.read(c, chromosomes[c]);
+		}
+	}
+	
+	/**
+	 * Checks whether the indexed chromosome has the same genes as
+	 * any chromosome before it in the population. This compares
+	 * genotype hashes, so it runs in time proportional to the index
+	 * rather than to the size of the chromosomes.
+	 * 
+	 * @param index the chromosome to check.
+	 * @return true if an earlier chromosome has the same genotype.
+	 */
+	public boolean isDuplicate(int index) {
+		long hash = chromosomes[index].getGenotypeHash();
+		for (int c = 0; c < index; c++) {
+			if (chromosomes[c].getGenotypeHash() == hash) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Counts how many different genotypes exist in the population,
+	 * which is a cheap measure of population diversity.
+	 * 
+	 * @return the number of distinct genotypes.
+	 */
+	public int getDistinctGenotypes() {
+		HashSet<Long> hashes = new HashSet<Long>();
+		for (int c = 0; c < chromosomes.length; c++) {
+			hashes.add(chromosomes[c].getGenotypeHash());
 		}
+		return hashes.size();
 	}
 	
 	/**
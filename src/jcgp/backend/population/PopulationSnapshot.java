@@ -0,0 +1,147 @@
+package jcgp.backend.population;
+
+import jcgp.backend.modules.problem.BestFitness;
+
+/**
+ * An immutable view of the population and the progress of the
+ * experiment at a point in time.
+ * <br><br>
+ * Snapshots are taken by the thread running the experiment and published
+ * through a volatile field (see {@code JCGP.getSnapshot()}), so that other
+ * threads, such as a user interface, can look at the population without
+ * reading chromosomes while they are being mutated. The chromosomes in a
+ * snapshot are copies which the experiment never touches again; they must
+ * not be modified by whoever reads them either. Snapshots can also be
+ * taken without chromosomes, in which case only the summary is available.
+ * 
+ * @author Eduardo Pedroni
+ *
+ */
+public final class PopulationSnapshot {
+	
+	private final int run, generation, activeNodes, fittest;
+	private final double bestFitness;
+	private final double[] fitness;
+	private final Chromosome[] chromosomes;
+	private final long time = System.nanoTime();
+	
+	/**
+	 * Takes a snapshot of the specified population.
+	 * 
+	 * @param population the population to take a snapshot of.
+	 * @param run the run of the last generation performed.
+	 * @param generation the last generation performed, or the current one if none has been yet.
+	 * @param bestFitness the best fitness found in the run so far.
+	 * @param activeNodes the number of active nodes of the chromosome with the best fitness.
+	 * @param orientation whether higher or lower fitness values are better.
+	 * @param copyChromosomes true if the chromosomes should be copied into the snapshot.
+	 */
+	public PopulationSnapshot(Population population, int run, int generation, double bestFitness, int activeNodes,
+			BestFitness orientation, boolean copyChromosomes) {
+		this.run = run;
+		this.generation = generation;
+		this.bestFitness = bestFitness;
+		this.activeNodes = activeNodes;
+		
+		fitness = new double[population.size()];
+		int best = 0;
+		for (int i = 0; i < fitness.length; i++) {
+			fitness[i] = population.get(i).getFitness();
+			if (orientation == BestFitness.HIGH) {
+				if (fitness[i] > fitness[best]) {
+					best = i;
+				}
+			} else {
+				if (fitness[i] < fitness[best]) {
+					best = i;
+				}
+			}
+		}
+		fittest = best;
+		
+		if (copyChromosomes) {
+			chromosomes = new Chromosome[fitness.length];
+			for (int i = 0; i < chromosomes.length; i++) {
+				chromosomes[i] = new Chromosome(population.get(i));
+			}
+		} else {
+			chromosomes = null;
+		}
+	}
+	
+	/**
+	 * @return the run of the last generation performed when the snapshot was taken.
+	 */
+	public int getRun() {
+		return run;
+	}
+	
+	/**
+	 * @return the last generation performed when the snapshot was taken.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @return the best fitness found in the run up to the snapshot.
+	 */
+	public double getBestFitness() {
+		return bestFitness;
+	}
+	
+	/**
+	 * @return the number of active nodes of the chromosome with the best fitness.
+	 */
+	public int getActiveNodes() {
+		return activeNodes;
+	}
+	
+	/**
+	 * @return the number of chromosomes in the population.
+	 */
+	public int size() {
+		return fitness.length;
+	}
+	
+	/**
+	 * @param index the index of a chromosome.
+	 * @return the fitness of the chromosome when the snapshot was taken.
+	 */
+	public double getFitness(int index) {
+		return fitness[index];
+	}
+	
+	/**
+	 * @return the index of the chromosome with the best fitness, according to the experiment's fitness orientation.
+	 */
+	public int getFittest() {
+		return fittest;
+	}
+	
+	/**
+	 * @return true if the snapshot contains copies of the chromosomes.
+	 */
+	public boolean hasChromosomes() {
+		return chromosomes != null;
+	}
+	
+	/**
+	 * @param index the index of a chromosome.
+	 * @return the copy of the chromosome, which must not be modified.
+	 * @throws IllegalStateException if the snapshot was taken without chromosomes.
+	 */
+	public Chromosome getChromosome(int index) {
+		if (chromosomes == null) {
+			throw new IllegalStateException("This snapshot was taken without chromosomes.");
+		}
+		return chromosomes[index];
+	}
+	
+	/**
+	 * @return the value of {@code System.nanoTime()} when the snapshot was taken.
+	 */
+	public long getTime() {
+		return time;
+	}
+}
@@ -0,0 +1,178 @@
+package jcgp.backend.resources;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints the messages of an experiment on a background thread, so that
+ * printing to a slow terminal or console does not hold up evolution.
+ * <br><br>
+ * Messages are queued in order in a bounded queue and printed in batches
+ * by a daemon thread, which passes them on to {@code Resources.write()}.
+ * When the queue is full, messages printed with {@code println()} and
+ * {@code print()} always wait for room, so they are never lost. Reports
+ * follow the queue's {@code Policy}: with {@code BLOCK} they wait as well,
+ * with {@code DROP} they are discarded and counted instead, so that the
+ * experiment never waits for reports to be printed.
+ * <br><br>
+ * Messages are printed some time after they are queued; {@code flush()}
+ * waits until every queued message has been printed.
+ *
+ * @see Resources
+ * @author Eduardo Pedroni
+ *
+ */
+public class AsyncLog {
+
+	/**
+	 * What to do with reports when the queue is full.
+	 */
+	public enum Policy {
+		BLOCK, DROP
+	}
+
+	/**
+	 * The default number of messages the queue can hold.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	// the most messages printed in a single batch
+	private static final int BATCH_SIZE = 256;
+
+	private final Resources resources;
+	private final Policy policy;
+	private final ArrayBlockingQueue<String> queue;
+	private final AtomicLong queued = new AtomicLong(0);
+	private volatile long printed = 0, dropped = 0;
+	private volatile boolean closed = false;
+	private final Thread thread;
+
+	/**
+	 * Creates a new log and starts its background thread.
+	 *
+	 * @param resources the resources whose consoles the messages are printed to.
+	 * @param capacity the number of messages the queue can hold.
+	 * @param policy what to do with reports when the queue is full.
+	 */
+	public AsyncLog(Resources resources, int capacity, Policy policy) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		}
+		this.resources = resources;
+		this.policy = policy;
+		queue = new ArrayBlockingQueue<String>(capacity);
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "JCGP log writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Queues a message, waiting for room if necessary.
+	 *
+	 * @param message the message to print, including any line break.
+	 */
+	public void print(String message) {
+		queued.incrementAndGet();
+		try {
+			queue.put(message);
+		} catch (InterruptedException e) {
+			queued.decrementAndGet();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Queues a report according to the queue's policy.
+	 *
+	 * @param message the report to print, including any line break.
+	 */
+	public void report(String message) {
+		if (policy == Policy.BLOCK) {
+			print(message);
+		} else {
+			queued.incrementAndGet();
+			if (!queue.offer(message)) {
+				queued.decrementAndGet();
+				dropped++;
+			}
+		}
+	}
+
+	/**
+	 * Blocks until every message queued so far has been printed.
+	 */
+	public void flush() {
+		long target = queued.get();
+		while (printed < target && thread.isAlive()) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Prints any queued messages and stops the background thread.
+	 * The log cannot be used after this is called.
+	 */
+	public void close() {
+		flush();
+		closed = true;
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the policy applied to reports when the queue is full.
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @return the number of reports dropped because the queue was full.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * For internal use only, the body of the writer thread. Whatever
+	 * is queued is joined into a single string and printed at once.
+	 */
+	private void drain() {
+		ArrayList<String> batch = new ArrayList<String>(BATCH_SIZE);
+		StringBuilder text = new StringBuilder();
+		while (!closed || !queue.isEmpty()) {
+			try {
+				String first = queue.poll(10, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, BATCH_SIZE - 1);
+			for (String message : batch) {
+				text.append(message);
+			}
+			resources.write(text.toString());
+			printed += batch.size();
+			batch.clear();
+			text.setLength(0);
+		}
+	}
+}
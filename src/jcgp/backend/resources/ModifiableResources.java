@@ -1,10 +1,10 @@
 package jcgp.backend.resources;
 
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import jcgp.backend.function.FunctionSet;
 import jcgp.backend.modules.problem.BestFitness;
 import jcgp.backend.parameters.IntegerParameter;
+import jcgp.backend.parameters.Parameter;
+import jcgp.backend.parameters.ParameterListener;
 import jcgp.backend.parameters.ParameterStatus;
 import jcgp.backend.parameters.monitors.IntegerMonitor;
 
@@ -28,6 +28,18 @@ public class ModifiableResources extends Resources {
 	 */
 	public ModifiableResources() {
 		createBaseParameters();
+		updateConfiguration();
+	}
+	
+	/**
+	 * Takes a new snapshot of the parameters which define the shape of
+	 * the experiment, so that changes made directly to them take effect.
+	 * The setters of this class already do this; it only needs to be
+	 * called after the parameters themselves are modified, which the
+	 * experiment does when it is reset.
+	 */
+	public void updateConfiguration() {
+		configuration = new RunConfiguration(this);
 	}
 	
 	/**
@@ -35,6 +47,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setRows(int rows) {
 		this.rows.set(rows);
+		updateConfiguration();
 	}
 
 	/**
@@ -42,6 +55,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setColumns(int columns) {
 		this.columns.set(columns);
+		updateConfiguration();
 	}
 
 	/**
@@ -49,6 +63,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setInputs(int inputs) {
 		this.inputs.set(inputs);
+		updateConfiguration();
 	}
 
 	/**
@@ -56,6 +71,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setOutputs(int outputs) {
 		this.outputs.set(outputs);
+		updateConfiguration();
 	}
 
 	/**
@@ -63,6 +79,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setPopulationSize(int populationSize) {
 		this.populationSize.set(populationSize);
+		updateConfiguration();
 	}
 
 	/**
@@ -70,6 +87,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setLevelsBack(int levelsBack) {
 		this.levelsBack.set(levelsBack);
+		updateConfiguration();
 	}
 
 	/**
@@ -121,6 +139,7 @@ public class ModifiableResources extends Resources {
 	 */
 	public void setArity(int arity) {
 		this.arity.set(arity);
+		updateConfiguration();
 	}
 
 	/**
@@ -245,6 +264,28 @@ public class ModifiableResources extends Resources {
 		setArity(functionSet.getMaxArity());
 	}
 	
+	/**
+	 * Returns the current state of the experiment's random number
+	 * generator. This can be stored and later restored with 
+	 * {@code setRandomState()} to continue the same sequence of
+	 * random numbers, for instance when resuming from a checkpoint.
+	 * 
+	 * @return the random number generator state.
+	 */
+	public long getRandomState() {
+		return numberGenerator.getState();
+	}
+	
+	/**
+	 * Restores a random number generator state obtained using
+	 * {@code getRandomState()}.
+	 * 
+	 * @param state the state to restore.
+	 */
+	public void setRandomState(long state) {
+		numberGenerator.setState(state);
+	}
+	
 	/**
 	 * This can be set to null if no extra console is desired.
 	 * 
@@ -253,6 +294,28 @@ public class ModifiableResources extends Resources {
 	public void setConsole(Console console) {
 		this.console = console;
 	}
+	
+	/**
+	 * Enables or disables asynchronous logging. When enabled, messages are
+	 * queued and printed on a background thread; see {@code AsyncLog} for
+	 * how the policy applies when the queue is full. Any messages queued
+	 * before this is called are printed first.
+	 * 
+	 * @param capacity the number of messages the queue can hold, or 0 to print synchronously.
+	 * @param policy what to do with reports when the queue is full.
+	 */
+	public void setAsyncLogging(int capacity, AsyncLog.Policy policy) {
+		if (log != null) {
+			log.close();
+			if (log.getDropped() > 0) {
+				write("[CGP] " + log.getDropped() + " reports were dropped because the console fell behind\n");
+			}
+			log = null;
+		}
+		if (capacity > 0) {
+			log = new AsyncLog(this, capacity, policy);
+		}
+	}
 		
 	
 	/**
@@ -264,7 +327,7 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Chromosome must have at least 1 row.");
+					details = "Chromosome must have at least 1 row.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -276,7 +339,7 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Chromosome must have at least 1 column.");
+					details = "Chromosome must have at least 1 column.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -292,7 +355,7 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Population size must be at least 1.");
+					details = "Population size must be at least 1.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -304,10 +367,10 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Levels back must be at least 1.");
+					details = "Levels back must be at least 1.";
 				} else if (newValue.intValue() > columns()) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Levels back must be less than or equal to the number of columns.");
+					details = "Levels back must be less than or equal to the number of columns.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -319,10 +382,10 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Number of generations must be greater than 0.");
+					details = "Number of generations must be greater than 0.";
 				} else if (newValue.intValue() < currentGeneration.get()) {
 					status = ParameterStatus.WARNING_RESET;
-					status.setDetails("Setting generations to less than the current generation will cause the experiment to restart.");
+					details = "Setting generations to less than the current generation will cause the experiment to restart.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -336,10 +399,10 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() <= 0) {
 					status = ParameterStatus.INVALID;
-					status.setDetails("Number of runs must be greater than 0.");
+					details = "Number of runs must be greater than 0.";
 				} else if (newValue.intValue() < currentRun.get()) {
 					status = ParameterStatus.WARNING_RESET;
-					status.setDetails("Setting runs to less than the current run will cause the experiment to restart.");
+					details = "Setting runs to less than the current run will cause the experiment to restart.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -356,10 +419,9 @@ public class ModifiableResources extends Resources {
 				status = ParameterStatus.VALID;
 			}
 		};
-		seed.valueProperty().addListener(new ChangeListener<Number>() {
+		seed.addListener(new ParameterListener<Number>() {
 			@Override
-			public void changed(
-					ObservableValue<? extends Number> observable,
+			public void changed(Parameter<? extends Number> parameter,
 					Number oldValue, Number newValue) {
 				numberGenerator.setSeed(newValue.longValue());
 			}
@@ -371,7 +433,7 @@ public class ModifiableResources extends Resources {
 			public void validate(Number newValue) {
 				if (newValue.intValue() > generations.get()) {
 					status = ParameterStatus.WARNING;
-					status.setDetails("No reports will be printed.");
+					details = "No reports will be printed.";
 				} else {
 					status = ParameterStatus.VALID;
 				}
@@ -1,6 +1,6 @@
 package jcgp.backend.resources;
 
-import java.util.Random;
+import java.util.function.Supplier;
 
 import jcgp.backend.function.Function;
 import jcgp.backend.function.FunctionSet;
@@ -24,7 +24,10 @@ import jcgp.backend.parameters.IntegerParameter;
  * use a particular {@code Random} object guaranteed to generate random numbers based on the seed 
  * parameter. Functions from the selected function set can be obtained through this class as well.
  * Finally, printing to the console should be done via the resources using the report and print
- * methods, so that these prints also get sent to the GUI console (if one is present).
+ * methods, so that these prints also get sent to the GUI console (if one is present). Reports
+ * which are expensive to build should be passed as a {@code Supplier}, or guarded with
+ * {@code isReporting()}, so that they are only built when they will be printed. If asynchronous
+ * logging is enabled, messages are printed on a background thread (see {@code AsyncLog}).
  * 
  * @see jcgp.backend.parameters.Parameter
  * @author Eduardo Pedroni
@@ -35,11 +38,17 @@ public class Resources {
 			levelsBack, currentGeneration, generations, currentRun, runs,
 			arity, seed, reportInterval;
 
-	protected Random numberGenerator = new Random();
+	protected StatefulRandom numberGenerator = new StatefulRandom();
 	protected FunctionSet functionSet;
 	
 	protected Console console;
 	
+	// the shape of the experiment, read by the innermost loops
+	protected RunConfiguration configuration;
+	
+	// messages are printed in the background if this is set
+	protected AsyncLog log;
+	
 	protected BestFitness fitnessOrientation;
 	
 	// used for thresholding in IP problems
@@ -94,6 +103,18 @@ public class Resources {
 		return columns.get() * rows.get();
 	}
 
+	/**
+	 * Returns the most recent snapshot of the parameters which define
+	 * the shape of the experiment. This is much faster to read from than
+	 * the parameters themselves, and should be used in performance-critical
+	 * loops; see {@code RunConfiguration} for when the snapshot is updated.
+	 * 
+	 * @return the experiment's configuration.
+	 */
+	public RunConfiguration configuration() {
+		return configuration;
+	}
+	
 	/**
 	 * @return the current generation.
 	 */
@@ -286,6 +307,13 @@ public class Resources {
 	 * Console functionality
 	 * These are affected by parameter report interval
 	 */
+	/**
+	 * @return true if reports are printed in the current generation.
+	 */
+	public boolean isReporting() {
+		return reportInterval.get() > 0 && currentGeneration.get() % reportInterval.get() == 0;
+	}
+	
 	/**
 	 * Prints a message to the consoles taking into account the
 	 * report interval parameter. If no reports are allowed in
@@ -297,8 +325,10 @@ public class Resources {
 	 * @param message the message to print.
 	 */
 	public void reportln(String message) {
-		if (reportInterval.get() > 0) {
-			if (currentGeneration.get() % reportInterval.get() == 0) {
+		if (isReporting()) {
+			if (log != null) {
+				log.report(message + "\n");
+			} else {
 				System.out.println(message);
 				if (console != null) {
 					console.println(message);
@@ -307,6 +337,23 @@ public class Resources {
 		}
 	}
 	
+	/**
+	 * Prints a message to the consoles taking into account the
+	 * report interval parameter. If no reports are allowed in
+	 * the current generation, this does nothing and the message
+	 * is never built.
+	 * <br>
+	 * This method automatically appends a line break to the message
+	 * being printed.
+	 * 
+	 * @param message supplies the message to print.
+	 */
+	public void reportln(Supplier<String> message) {
+		if (isReporting()) {
+			reportln(message.get());
+		}
+	}
+	
 	/**
 	 * Prints a message to the consoles taking into account the
 	 * report interval parameter. If no reports are allowed in
@@ -318,8 +365,10 @@ public class Resources {
 	 * @param message the message to print.
 	 */
 	public void report(String message) {
-		if (reportInterval.get() > 0) {
-			if (currentGeneration.get() % reportInterval.get() == 0) {
+		if (isReporting()) {
+			if (log != null) {
+				log.report(message);
+			} else {
 				System.out.print(message);
 				if (console != null) {
 					console.print(message);
@@ -328,6 +377,23 @@ public class Resources {
 		}
 	}
 	
+	/**
+	 * Prints a message to the consoles taking into account the
+	 * report interval parameter. If no reports are allowed in
+	 * the current generation, this does nothing and the message
+	 * is never built.
+	 * <br>
+	 * This method does not append a line break to the message
+	 * being printed.
+	 * 
+	 * @param message supplies the message to print.
+	 */
+	public void report(Supplier<String> message) {
+		if (isReporting()) {
+			report(message.get());
+		}
+	}
+	
 	/*
 	 * Console functionality
 	 * These are not affected by parameter report interval
@@ -344,9 +410,13 @@ public class Resources {
 	 * @param message the message to print.
 	 */
 	public void println(String message) {
-		System.out.println(message);
-		if (console != null) {
-			console.println(message);
+		if (log != null) {
+			log.print(message + "\n");
+		} else {
+			System.out.println(message);
+			if (console != null) {
+				console.println(message);
+			}
 		}
 	}
 	
@@ -362,9 +432,33 @@ public class Resources {
 	 * @param message the message to print.
 	 */
 	public void print(String message) {
-		System.out.print(message);
+		if (log != null) {
+			log.print(message);
+		} else {
+			write(message);
+		}
+	}
+	
+	/**
+	 * Waits until every message printed so far has reached the
+	 * consoles. This returns immediately unless asynchronous
+	 * logging is enabled.
+	 */
+	public void flushLog() {
+		if (log != null) {
+			log.flush();
+		}
+	}
+	
+	/**
+	 * For internal use only, prints text to the consoles immediately.
+	 * 
+	 * @param text the text to print.
+	 */
+	void write(String text) {
+		System.out.print(text);
 		if (console != null) {
-			console.print(message);
+			console.print(text);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package jcgp.backend.resources;
+
+/**
+ * An immutable snapshot of the parameters which define the shape of
+ * the experiment: the size of the chromosomes and of the population.
+ * <br><br>
+ * Reading a parameter from {@code Resources} goes through its JavaFX
+ * property, which is comparatively slow in the innermost loops of
+ * evaluation and mutation. Those loops read the snapshot instead, whose
+ * values are plain final fields. The snapshot is replaced whenever one
+ * of these parameters is set through {@code ModifiableResources}, and
+ * when the experiment is reset; changes made directly to the parameters,
+ * such as those made in the GUI, take effect on the next reset.
+ * <br><br>
+ * Like {@code Resources}, the getters of this class do not start with "get".
+ * 
+ * @see Resources#configuration()
+ * @author Eduardo Pedroni
+ *
+ */
+public final class RunConfiguration {
+	
+	private final int rows, columns, inputs, outputs, populationSize, levelsBack, arity, nodes;
+	
+	/**
+	 * For internal use only, takes a snapshot of the current parameter values.
+	 * 
+	 * @param resources the resources to take the snapshot of.
+	 */
+	RunConfiguration(Resources resources) {
+		rows = resources.rows();
+		columns = resources.columns();
+		inputs = resources.inputs();
+		outputs = resources.outputs();
+		populationSize = resources.populationSize();
+		levelsBack = resources.levelsBack();
+		arity = resources.arity();
+		nodes = rows * columns;
+	}
+	
+	/**
+	 * @return the number of rows.
+	 */
+	public int rows() {
+		return rows;
+	}
+	
+	/**
+	 * @return the number of columns.
+	 */
+	public int columns() {
+		return columns;
+	}
+	
+	/**
+	 * @return the number of inputs.
+	 */
+	public int inputs() {
+		return inputs;
+	}
+	
+	/**
+	 * @return the number of outputs.
+	 */
+	public int outputs() {
+		return outputs;
+	}
+	
+	/**
+	 * @return the population size.
+	 */
+	public int populationSize() {
+		return populationSize;
+	}
+	
+	/**
+	 * @return the levels back value.
+	 */
+	public int levelsBack() {
+		return levelsBack;
+	}
+	
+	/**
+	 * @return the maximum arity out of the function set.
+	 */
+	public int arity() {
+		return arity;
+	}
+	
+	/**
+	 * @return the total number of nodes.
+	 */
+	public int nodes() {
+		return nodes;
+	}
+}
@@ -0,0 +1,65 @@
+package jcgp.backend.resources;
+
+import java.util.Random;
+
+/**
+ * A {@code Random} whose internal state can be read and restored.
+ * <br><br>
+ * This generates exactly the same sequence of numbers as {@code java.util.Random}
+ * for any given seed, but keeps its own copy of the generator state so that it
+ * can be saved in a checkpoint and restored later, continuing the sequence where
+ * it left off. Instances are not thread-safe; the experiment's random number
+ * generator is only used by the thread running the experiment.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+class StatefulRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	/*
+	 * Note that this field must not have an initialiser: Random's constructor
+	 * calls setSeed() before the fields of this class are initialised.
+	 */
+	private long state;
+
+	/**
+	 * Creates a new generator with a seed based on the current time.
+	 */
+	StatefulRandom() {
+		super();
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		state = (seed ^ MULTIPLIER) & MASK;
+		super.setSeed(seed);
+	}
+
+	@Override
+	protected int next(int bits) {
+		state = (state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (state >>> (48 - bits));
+	}
+
+	/**
+	 * @return the current state of the generator.
+	 */
+	long getState() {
+		return state;
+	}
+
+	/**
+	 * Restores a state previously obtained using {@code getState()}.
+	 *
+	 * @param newState the state to restore.
+	 */
+	void setState(long newState) {
+		state = newState & MASK;
+	}
+}
@@ -0,0 +1,280 @@
+package jcgp.backend.statistics;
+
+/**
+ * Keeps a downsampled history of the best fitness and number of active
+ * nodes of the current run, one entry per generation, in a fixed amount
+ * of memory however long the run is.
+ * <br><br>
+ * The history is a list of at most {@code capacity} buckets, each of which
+ * covers the same number of consecutive generations and holds the smallest,
+ * largest and last value of each series over those generations. Buckets
+ * start out covering a single generation; whenever the list is full,
+ * neighbouring buckets are merged in pairs and the number of generations
+ * per bucket doubles. Recording a generation therefore takes constant
+ * amortised time, a run of 10<sup>7</sup> generations is held in the same
+ * space as a run of a thousand, and no spike in the active nodes is ever
+ * lost to the downsampling, since minimums and maximums merge exactly.
+ * <br><br>
+ * The history follows a single run: recording a generation of a different
+ * run clears it. Generations are recorded by the experiment's thread and
+ * the history may be read from any other thread with {@code getSeries()},
+ * which returns a copy; {@code getVersion()} tells readers whether anything
+ * has changed since their last copy.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class ConvergenceHistory {
+
+	/**
+	 * The default number of buckets kept, about as many as there are
+	 * pixels across a chart.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final int capacity;
+	private final int[] generations;
+	private final double[] minFitness, maxFitness, fitness;
+	private final int[] minActiveNodes, maxActiveNodes, activeNodes;
+
+	// the number of buckets in use and the generations per bucket
+	private int size = 0, width = 1;
+	// the number of generations in the last bucket
+	private int filled = 0;
+	private int run = 0, lastGeneration = 0;
+	private long version = 0;
+
+	/**
+	 * Creates a new history with {@code DEFAULT_CAPACITY} buckets.
+	 */
+	public ConvergenceHistory() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new history.
+	 *
+	 * @param capacity the most buckets kept, rounded up to an even number.
+	 */
+	public ConvergenceHistory(int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("Capacity must be at least 2.");
+		}
+		this.capacity = capacity + (capacity & 1);
+		generations = new int[this.capacity];
+		minFitness = new double[this.capacity];
+		maxFitness = new double[this.capacity];
+		fitness = new double[this.capacity];
+		minActiveNodes = new int[this.capacity];
+		maxActiveNodes = new int[this.capacity];
+		activeNodes = new int[this.capacity];
+	}
+
+	/**
+	 * Records a generation. Generations must be recorded in order.
+	 *
+	 * @param run the current run.
+	 * @param generation the current generation.
+	 * @param bestFitness the best fitness found in the run so far.
+	 * @param active the number of active nodes of the chromosome with the best fitness.
+	 */
+	public synchronized void record(int run, int generation, double bestFitness, int active) {
+		if (run != this.run) {
+			clear();
+			this.run = run;
+		}
+		if (size > 0 && filled < width) {
+			// the generation goes into the last bucket
+			int last = size - 1;
+			minFitness[last] = Math.min(minFitness[last], bestFitness);
+			maxFitness[last] = Math.max(maxFitness[last], bestFitness);
+			fitness[last] = bestFitness;
+			minActiveNodes[last] = Math.min(minActiveNodes[last], active);
+			maxActiveNodes[last] = Math.max(maxActiveNodes[last], active);
+			activeNodes[last] = active;
+			filled++;
+		} else {
+			if (size == capacity) {
+				compact();
+			}
+			generations[size] = generation;
+			minFitness[size] = maxFitness[size] = fitness[size] = bestFitness;
+			minActiveNodes[size] = maxActiveNodes[size] = activeNodes[size] = active;
+			size++;
+			filled = 1;
+		}
+		lastGeneration = generation;
+		version++;
+	}
+
+	/**
+	 * Empties the history.
+	 */
+	public synchronized void clear() {
+		size = 0;
+		width = 1;
+		filled = 0;
+		run = 0;
+		lastGeneration = 0;
+		version++;
+	}
+
+	/**
+	 * @return a number which changes whenever the history changes.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return a copy of the history as it is now.
+	 */
+	public synchronized Series getSeries() {
+		return new Series(this);
+	}
+
+	/**
+	 * For internal use only, merges the buckets in pairs. This is only
+	 * called when every bucket is full, so the merged buckets are too.
+	 */
+	private void compact() {
+		int half = size / 2;
+		for (int i = 0; i < half; i++) {
+			int a = 2 * i, b = a + 1;
+			generations[i] = generations[a];
+			minFitness[i] = Math.min(minFitness[a], minFitness[b]);
+			maxFitness[i] = Math.max(maxFitness[a], maxFitness[b]);
+			fitness[i] = fitness[b];
+			minActiveNodes[i] = Math.min(minActiveNodes[a], minActiveNodes[b]);
+			maxActiveNodes[i] = Math.max(maxActiveNodes[a], maxActiveNodes[b]);
+			activeNodes[i] = activeNodes[b];
+		}
+		size = half;
+		width *= 2;
+		filled = width;
+	}
+
+	/**
+	 * A copy of a {@code ConvergenceHistory}, which does not change
+	 * once it has been made. Bucket {@code i} covers the generations
+	 * from {@code getGeneration(i)} up to, but not including, the
+	 * first generation of the next bucket.
+	 */
+	public static final class Series {
+
+		private final int run, lastGeneration, width;
+		private final int[] generations;
+		private final double[] minFitness, maxFitness, fitness;
+		private final int[] minActiveNodes, maxActiveNodes, activeNodes;
+
+		private Series(ConvergenceHistory history) {
+			int size = history.size;
+			run = history.run;
+			lastGeneration = history.lastGeneration;
+			width = history.width;
+			generations = copy(history.generations, size);
+			minFitness = copy(history.minFitness, size);
+			maxFitness = copy(history.maxFitness, size);
+			fitness = copy(history.fitness, size);
+			minActiveNodes = copy(history.minActiveNodes, size);
+			maxActiveNodes = copy(history.maxActiveNodes, size);
+			activeNodes = copy(history.activeNodes, size);
+		}
+
+		private static int[] copy(int[] source, int size) {
+			int[] copy = new int[size];
+			System.arraycopy(source, 0, copy, 0, size);
+			return copy;
+		}
+
+		private static double[] copy(double[] source, int size) {
+			double[] copy = new double[size];
+			System.arraycopy(source, 0, copy, 0, size);
+			return copy;
+		}
+
+		/**
+		 * @return the number of buckets.
+		 */
+		public int size() {
+			return generations.length;
+		}
+
+		/**
+		 * @return the run the history belongs to, or 0 if it is empty.
+		 */
+		public int getRun() {
+			return run;
+		}
+
+		/**
+		 * @return the last generation recorded, or 0 if the history is empty.
+		 */
+		public int getLastGeneration() {
+			return lastGeneration;
+		}
+
+		/**
+		 * @return the number of generations covered by each bucket.
+		 */
+		public int getBucketWidth() {
+			return width;
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the first generation in the bucket.
+		 */
+		public int getGeneration(int index) {
+			return generations[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the lowest best fitness in the bucket.
+		 */
+		public double getMinFitness(int index) {
+			return minFitness[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the highest best fitness in the bucket.
+		 */
+		public double getMaxFitness(int index) {
+			return maxFitness[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the best fitness at the last generation in the bucket.
+		 */
+		public double getFitness(int index) {
+			return fitness[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the fewest active nodes in the bucket.
+		 */
+		public int getMinActiveNodes(int index) {
+			return minActiveNodes[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the most active nodes in the bucket.
+		 */
+		public int getMaxActiveNodes(int index) {
+			return maxActiveNodes[index];
+		}
+
+		/**
+		 * @param index the index of a bucket.
+		 * @return the active nodes at the last generation in the bucket.
+		 */
+		public int getActiveNodes(int index) {
+			return activeNodes[index];
+		}
+	}
+}
@@ -0,0 +1,324 @@
+package jcgp.backend.statistics;
+
+import jcgp.backend.modules.mutator.Mutator;
+import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.Population;
+import jcgp.backend.resources.Resources;
+
+/**
+ * Measures where the time of each generation goes, and how much work
+ * is done.
+ * <br><br>
+ * The time spent in each phase of a generation is accumulated separately:
+ * evaluating the population, checking for perfect solutions and improvements,
+ * selecting parents, copying chromosomes and mutating them. Selection is the
+ * time spent by the evolutionary strategy which is not spent copying or
+ * mutating. The number of generations, fitness evaluations (one per chromosome
+ * per generation) and node executions are counted as well.
+ * <br><br>
+ * The experiment updates the metrics from its own thread, without any
+ * synchronisation. A consistent {@code Snapshot} is published at most once
+ * every {@code WINDOW} nanoseconds, and whenever {@code publish()} is called,
+ * so that other threads can poll {@code getSnapshot()} at any time. Each
+ * snapshot also carries the rate of evaluations over the last window.
+ * <br><br>
+ * The measurements only cost a few calls to {@code System.nanoTime()} per
+ * generation plus two per copy and mutation, which is well under 1% of the
+ * time of a generation. They can be disabled altogether with
+ * {@code setEnabled()}.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class GenerationMetrics {
+
+	/**
+	 * The phases of a generation.
+	 */
+	public enum Phase {
+		EVALUATION, CHECKS, SELECTION, COPYING, MUTATION
+	}
+
+	/**
+	 * The minimum time between snapshots, in nanoseconds.
+	 */
+	public static final long WINDOW = 100000000L;
+
+	/**
+	 * An immutable view of the metrics at a point in time.
+	 *
+	 * @author Eduardo Pedroni
+	 *
+	 */
+	public static class Snapshot {
+		private final long generations, evaluations, nodeExecutions;
+		private final long[] phaseNanos;
+		private final double evaluationsPerSecond;
+
+		private Snapshot(long generations, long evaluations, long nodeExecutions, long[] phaseNanos, double evaluationsPerSecond) {
+			this.generations = generations;
+			this.evaluations = evaluations;
+			this.nodeExecutions = nodeExecutions;
+			this.phaseNanos = phaseNanos;
+			this.evaluationsPerSecond = evaluationsPerSecond;
+		}
+
+		/**
+		 * @return the number of generations performed.
+		 */
+		public long getGenerations() {
+			return generations;
+		}
+
+		/**
+		 * @return the number of chromosome evaluations performed.
+		 */
+		public long getEvaluations() {
+			return evaluations;
+		}
+
+		/**
+		 * @return the number of times a node computed its value.
+		 */
+		public long getNodeExecutions() {
+			return nodeExecutions;
+		}
+
+		/**
+		 * @param phase the phase of interest.
+		 * @return the total time spent in the phase, in nanoseconds.
+		 */
+		public long getPhaseNanos(Phase phase) {
+			return phaseNanos[phase.ordinal()];
+		}
+
+		/**
+		 * @return the total time spent in all phases, in nanoseconds.
+		 */
+		public long getTotalNanos() {
+			long total = 0;
+			for (long nanos : phaseNanos) {
+				total += nanos;
+			}
+			return total;
+		}
+
+		/**
+		 * @return the rate of evaluations over the most recent window.
+		 */
+		public double getEvaluationsPerSecond() {
+			return evaluationsPerSecond;
+		}
+
+		/**
+		 * Formats the snapshot as a single line of space-separated
+		 * name=value pairs, with times in milliseconds.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder line = new StringBuilder();
+			line.append("generations=").append(generations);
+			line.append(" evaluations=").append(evaluations);
+			line.append(" node_executions=").append(nodeExecutions);
+			line.append(" evaluations_per_s=").append(Math.round(evaluationsPerSecond));
+			for (Phase phase : Phase.values()) {
+				line.append(' ').append(phase.name().toLowerCase()).append("_ms=").append(phaseNanos[phase.ordinal()] / 1000000);
+			}
+			return line.toString();
+		}
+	}
+
+	private volatile boolean enabled = true;
+	private volatile Snapshot snapshot;
+
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private long generations, evaluations, nodeExecutions;
+	// copying and mutation time accumulated during the current evolution step
+	private long evolutionCopyNanos, evolutionMutationNanos;
+	private long windowStart, windowEvaluations;
+	private double evaluationsPerSecond;
+
+	/**
+	 * Creates a new set of metrics, with every count at zero.
+	 */
+	public GenerationMetrics() {
+		reset();
+	}
+
+	/**
+	 * Clears every count and publishes an empty snapshot.
+	 */
+	public void reset() {
+		for (int p = 0; p < phaseNanos.length; p++) {
+			phaseNanos[p] = 0;
+		}
+		generations = evaluations = nodeExecutions = 0;
+		evolutionCopyNanos = evolutionMutationNanos = 0;
+		windowStart = System.nanoTime();
+		windowEvaluations = 0;
+		evaluationsPerSecond = 0;
+		publish();
+	}
+
+	/**
+	 * @return true if the metrics are being collected.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled true to collect metrics, false to stop collecting them.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return the most recently published snapshot.
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Marks the start of a timed phase.
+	 *
+	 * @return the start time to pass to the matching end method.
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the evaluation of a population.
+	 *
+	 * @param start the time returned by {@code start()} before evaluating.
+	 * @param population the evaluated population.
+	 * @param executionsBefore the result of {@code countNodeExecutions()} before evaluating.
+	 */
+	public void endEvaluation(long start, Population population, long executionsBefore) {
+		if (isTiming(start)) {
+			phaseNanos[Phase.EVALUATION.ordinal()] += System.nanoTime() - start;
+			evaluations += population.size();
+			windowEvaluations += population.size();
+			nodeExecutions += countNodeExecutions(population) - executionsBefore;
+		}
+	}
+
+	/**
+	 * Records the checks for perfect solutions and improvements.
+	 *
+	 * @param start the time returned by {@code start()} before checking.
+	 */
+	public void endChecks(long start) {
+		if (isTiming(start)) {
+			phaseNanos[Phase.CHECKS.ordinal()] += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Records an evolution step. The time not spent copying or mutating
+	 * during the step counts as selection.
+	 *
+	 * @param start the time returned by {@code start()} before evolving.
+	 */
+	public void endEvolution(long start) {
+		if (isTiming(start)) {
+			long elapsed = System.nanoTime() - start;
+			phaseNanos[Phase.SELECTION.ordinal()] += Math.max(0, elapsed - evolutionCopyNanos - evolutionMutationNanos);
+			phaseNanos[Phase.COPYING.ordinal()] += evolutionCopyNanos;
+			phaseNanos[Phase.MUTATION.ordinal()] += evolutionMutationNanos;
+		}
+		evolutionCopyNanos = evolutionMutationNanos = 0;
+	}
+
+	/**
+	 * Records the time taken to copy a chromosome.
+	 *
+	 * @param start the time returned by {@code start()} before copying.
+	 */
+	public void endCopy(long start) {
+		if (isTiming(start)) {
+			evolutionCopyNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Records the end of a generation, and publishes a new snapshot if
+	 * the current window has elapsed.
+	 */
+	public void endGeneration() {
+		if (enabled) {
+			generations++;
+			if (System.nanoTime() - windowStart >= WINDOW) {
+				publish();
+			}
+		}
+	}
+
+	/**
+	 * Publishes a snapshot of the current metrics immediately, and starts
+	 * a new window for the evaluation rate. This must be called from the
+	 * thread running the experiment.
+	 */
+	public void publish() {
+		long now = System.nanoTime();
+		if (now > windowStart && windowEvaluations > 0) {
+			evaluationsPerSecond = windowEvaluations / ((now - windowStart) / 1e9);
+		}
+		windowStart = now;
+		windowEvaluations = 0;
+		snapshot = new Snapshot(generations, evaluations, nodeExecutions, phaseNanos.clone(), evaluationsPerSecond);
+	}
+
+	/**
+	 * Wraps a mutator so that the time it spends mutating is recorded. The
+	 * wrapper should only be used for mutating, since it has no parameters.
+	 *
+	 * @param mutator the mutator to wrap.
+	 * @param resources the experiment's resources.
+	 * @return the wrapped mutator.
+	 */
+	public Mutator time(final Mutator mutator, Resources resources) {
+		return new Mutator(resources) {
+			@Override
+			public void mutate(Chromosome chromosome) {
+				if (enabled) {
+					long start = System.nanoTime();
+					mutator.mutate(chromosome);
+					evolutionMutationNanos += System.nanoTime() - start;
+				} else {
+					mutator.mutate(chromosome);
+				}
+			}
+
+			@Override
+			public String toString() {
+				return mutator.toString();
+			}
+		};
+	}
+
+	/**
+	 * Sums the node executions of every chromosome in a population.
+	 *
+	 * @param population the population.
+	 * @return the total node executions.
+	 */
+	public long countNodeExecutions(Population population) {
+		long total = 0;
+		for (int i = 0; i < population.size(); i++) {
+			total += population.get(i).getNodeExecutions();
+		}
+		return total;
+	}
+	
+	/**
+	 * @param start the time returned by {@code start()}.
+	 * @return true if the metrics were enabled when the phase started and still are.
+	 */
+	private boolean isTiming(long start) {
+		return enabled && start != 0;
+	}
+}
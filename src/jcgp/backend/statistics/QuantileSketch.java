@@ -0,0 +1,235 @@
+package jcgp.backend.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Estimates quantiles (such as the median) of a stream of values
+ * in memory that grows only logarithmically with the number of values.
+ * <br><br>
+ * Values are kept in a stack of buffers of equal capacity, where each value
+ * in level {@code h} stands for 2<sup>h</sup> of the original values. When a
+ * buffer fills up it is sorted and every other value is promoted to the level
+ * above, alternating between the odd and even positions so that the estimate
+ * is not biased in either direction. Until the first buffer fills up the
+ * quantiles are exact, and interpolated between neighbouring values; after
+ * that, the rank error is roughly {@code log2(n / capacity) / capacity}.
+ * <br><br>
+ * The smallest and largest values are kept exactly. The compaction is
+ * deterministic, so the same values always give the same estimates.
+ * 
+ * @see StatisticsLogger
+ * @author Eduardo Pedroni
+ *
+ */
+public class QuantileSketch {
+
+	/**
+	 * The default number of values per level.
+	 */
+	public static final int DEFAULT_CAPACITY = 128;
+	
+	private final int capacity;
+	private double[][] levels;
+	private int[] sizes;
+	private long count;
+	private int compactions;
+	// the extremes are kept exactly, since compaction can discard them
+	private double min, max;
+	
+	/**
+	 * Creates a new sketch with {@code DEFAULT_CAPACITY} values per level.
+	 */
+	public QuantileSketch() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new sketch with the specified number of values per level.
+	 * Larger capacities give more accurate estimates.
+	 * 
+	 * @param capacity the number of values per level, a positive even number.
+	 */
+	public QuantileSketch(int capacity) {
+		if (capacity <= 0 || capacity % 2 != 0) {
+			throw new IllegalArgumentException("Capacity must be a positive even number.");
+		}
+		this.capacity = capacity;
+		levels = new double[1][capacity];
+		sizes = new int[1];
+	}
+	
+	/**
+	 * Adds a value to the sketch.
+	 * 
+	 * @param value the value to add.
+	 */
+	public void add(double value) {
+		if (count == 0) {
+			min = max = value;
+		} else {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		append(0, value);
+		count++;
+	}
+	
+	/**
+	 * @return the number of values added.
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Estimates a quantile of the values added so far. For instance,
+	 * {@code getQuantile(0.5)} is the median.
+	 * 
+	 * @param q the quantile, between 0 and 1.
+	 * @return the estimated quantile, or 0 if no values were added.
+	 */
+	public double getQuantile(double q) {
+		if (q < 0 || q > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+		} else if (count == 0) {
+			return 0;
+		} else if (q == 0) {
+			return min;
+		} else if (q == 1) {
+			return max;
+		}
+		
+		if (levels.length == 1) {
+			// nothing has been compacted, so interpolate between the exact values
+			double[] values = Arrays.copyOf(levels[0], sizes[0]);
+			Arrays.sort(values);
+			double position = q * (values.length - 1);
+			int below = (int) Math.floor(position);
+			int above = (int) Math.ceil(position);
+			return values[below] + (position - below) * (values[above] - values[below]);
+		}
+		
+		// merge the sorted levels into one list of values with their weights
+		double[] values = new double[0];
+		long[] weights = new long[0];
+		long total = 0;
+		for (int h = 0; h < levels.length; h++) {
+			double[] level = Arrays.copyOf(levels[h], sizes[h]);
+			Arrays.sort(level);
+			double[] mergedValues = new double[values.length + level.length];
+			long[] mergedWeights = new long[mergedValues.length];
+			int a = 0, b = 0;
+			for (int m = 0; m < mergedValues.length; m++) {
+				if (b == level.length || (a < values.length && values[a] <= level[b])) {
+					mergedValues[m] = values[a];
+					mergedWeights[m] = weights[a++];
+				} else {
+					mergedValues[m] = level[b++];
+					mergedWeights[m] = 1L << h;
+				}
+			}
+			values = mergedValues;
+			weights = mergedWeights;
+			total += (long) sizes[h] << h;
+		}
+		
+		// return the first value whose cumulative weight exceeds the rank
+		double rank = q * total;
+		long cumulative = 0;
+		for (int i = 0; i < values.length; i++) {
+			cumulative += weights[i];
+			if (cumulative > rank) {
+				return values[i];
+			}
+		}
+		return values[values.length - 1];
+	}
+	
+	/**
+	 * Writes the sketch to the specified output, so that
+	 * it can be read back with {@code read()}.
+	 * 
+	 * @param out the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(capacity);
+		out.writeLong(count);
+		out.writeInt(compactions);
+		out.writeDouble(min);
+		out.writeDouble(max);
+		out.writeInt(levels.length);
+		for (int h = 0; h < levels.length; h++) {
+			out.writeInt(sizes[h]);
+			for (int i = 0; i < sizes[h]; i++) {
+				out.writeDouble(levels[h][i]);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a sketch previously written with {@code write()}.
+	 * 
+	 * @param in the input to read from.
+	 * @return the restored sketch.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public static QuantileSketch read(DataInput in) throws IOException {
+		QuantileSketch sketch = new QuantileSketch(in.readInt());
+		sketch.count = in.readLong();
+		sketch.compactions = in.readInt();
+		sketch.min = in.readDouble();
+		sketch.max = in.readDouble();
+		int height = in.readInt();
+		sketch.levels = new double[height][sketch.capacity];
+		sketch.sizes = new int[height];
+		for (int h = 0; h < height; h++) {
+			sketch.sizes[h] = in.readInt();
+			if (sketch.sizes[h] > sketch.capacity) {
+				throw new IOException("Quantile sketch level is larger than its capacity.");
+			}
+			for (int i = 0; i < sketch.sizes[h]; i++) {
+				sketch.levels[h][i] = in.readDouble();
+			}
+		}
+		return sketch;
+	}
+	
+	/**
+	 * For internal use only, adds a value to a level, compacting
+	 * the level first if it is full.
+	 * 
+	 * @param level the level to add to.
+	 * @param value the value to add.
+	 */
+	private void append(int level, double value) {
+		if (sizes[level] == capacity) {
+			compact(level);
+		}
+		levels[level][sizes[level]++] = value;
+	}
+	
+	/**
+	 * For internal use only, promotes every other value of a full
+	 * level to the level above and empties it.
+	 * 
+	 * @param level the level to compact.
+	 */
+	private void compact(int level) {
+		if (level + 1 == levels.length) {
+			levels = Arrays.copyOf(levels, levels.length + 1);
+			levels[level + 1] = new double[capacity];
+			sizes = Arrays.copyOf(sizes, sizes.length + 1);
+		}
+		double[] buffer = levels[level];
+		Arrays.sort(buffer, 0, sizes[level]);
+		int offset = compactions++ & 1;
+		for (int i = offset; i < sizes[level]; i += 2) {
+			append(level + 1, buffer[i]);
+		}
+		sizes[level] = 0;
+	}
+}
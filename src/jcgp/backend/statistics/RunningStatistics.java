@@ -0,0 +1,116 @@
+package jcgp.backend.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Accumulates the mean, variance and range of a stream of values in
+ * constant memory.
+ * <br><br>
+ * The mean and variance are updated with Welford's method, which avoids
+ * the loss of precision of summing squares when the values are large
+ * compared to their spread. Each value costs O(1) to add, and every
+ * statistic is available at any time.
+ * 
+ * @see StatisticsLogger
+ * @author Eduardo Pedroni
+ *
+ */
+public class RunningStatistics {
+
+	private long count;
+	private double mean, squares, min, max;
+	
+	/**
+	 * Adds a value to the statistics.
+	 * 
+	 * @param value the value to add.
+	 */
+	public void add(double value) {
+		if (count == 0) {
+			min = max = value;
+		} else {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		squares += delta * (value - mean);
+	}
+	
+	/**
+	 * @return the number of values added.
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * @return the mean of the values, or 0 if there are none.
+	 */
+	public double getMean() {
+		return mean;
+	}
+	
+	/**
+	 * @return the sample variance of the values, or 0 if there are fewer than two.
+	 */
+	public double getVariance() {
+		return count > 1 ? squares / (count - 1) : 0;
+	}
+	
+	/**
+	 * @return the sample standard deviation of the values, or 0 if there are fewer than two.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+	
+	/**
+	 * @return the smallest value, or 0 if there are none.
+	 */
+	public double getMin() {
+		return min;
+	}
+	
+	/**
+	 * @return the largest value, or 0 if there are none.
+	 */
+	public double getMax() {
+		return max;
+	}
+	
+	/**
+	 * Writes the statistics to the specified output, so that
+	 * they can be read back with {@code read()}.
+	 * 
+	 * @param out the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(count);
+		out.writeDouble(mean);
+		out.writeDouble(squares);
+		out.writeDouble(min);
+		out.writeDouble(max);
+	}
+	
+	/**
+	 * Reads statistics previously written with {@code write()}.
+	 * 
+	 * @param in the input to read from.
+	 * @return the restored statistics.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public static RunningStatistics read(DataInput in) throws IOException {
+		RunningStatistics statistics = new RunningStatistics();
+		statistics.count = in.readLong();
+		statistics.mean = in.readDouble();
+		statistics.squares = in.readDouble();
+		statistics.min = in.readDouble();
+		statistics.max = in.readDouble();
+		return statistics;
+	}
+}
@@ -1,6 +1,8 @@
 package jcgp.backend.statistics;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * This is a utility class for logging experiment statistics when doing multiple runs.
@@ -9,6 +11,12 @@ import java.util.ArrayList;
  * can be used to obtain statistics about the logged runs, such as success rate and average
  * fitness.
  * <br><br>
+ * Runs are not stored: each statistic is accumulated as runs are logged, using
+ * {@code RunningStatistics} for averages, standard deviations and ranges, and
+ * {@code QuantileSketch} for medians and other quantiles. Logging a run and
+ * reading any statistic therefore take constant time, and the memory used
+ * stays (nearly) constant however many runs are logged.
+ * <br><br>
  * {@code JCGP} uses this class to perform its logging and print out experiment data at the end.
  * 
  * 
@@ -17,14 +25,22 @@ import java.util.ArrayList;
  */
 public class StatisticsLogger {
 
-	// this list holds the logged entries
-	private ArrayList<RunEntry> runEntries;
+	// these accumulate the logged runs
+	private RunningStatistics fitness, activeNodes, generations, successfulGenerations;
+	private QuantileSketch fitnessSketch, activeNodesSketch, generationsSketch, successfulGenerationsSketch;
 	
 	/**
 	 * Create a new statistics logger, use this when resetting is necessary.
 	 */
 	public StatisticsLogger() {
-		runEntries = new ArrayList<RunEntry>();
+		fitness = new RunningStatistics();
+		activeNodes = new RunningStatistics();
+		generations = new RunningStatistics();
+		successfulGenerations = new RunningStatistics();
+		fitnessSketch = new QuantileSketch();
+		activeNodesSketch = new QuantileSketch();
+		generationsSketch = new QuantileSketch();
+		successfulGenerationsSketch = new QuantileSketch();
 	}
 	
 	/**
@@ -38,7 +54,62 @@ public class StatisticsLogger {
 	 * @param successful true if a perfect solution was found, false if otherwise.
 	 */
 	public void logRun(int generation, double fitness, int active, boolean successful) {
-		runEntries.add(new RunEntry(generation, fitness, active, successful));
+		this.fitness.add(fitness);
+		fitnessSketch.add(fitness);
+		activeNodes.add(active);
+		activeNodesSketch.add(active);
+		generations.add(generation);
+		generationsSketch.add(generation);
+		if (successful) {
+			successfulGenerations.add(generation);
+			successfulGenerationsSketch.add(generation);
+		}
+	}
+	
+	/**
+	 * Writes the accumulated statistics to the specified output, in a
+	 * compact binary form which can be read back with {@code read()}.
+	 * 
+	 * @param out the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public void write(DataOutput out) throws IOException {
+		fitness.write(out);
+		activeNodes.write(out);
+		generations.write(out);
+		successfulGenerations.write(out);
+		fitnessSketch.write(out);
+		activeNodesSketch.write(out);
+		generationsSketch.write(out);
+		successfulGenerationsSketch.write(out);
+	}
+	
+	/**
+	 * Creates a new statistics logger containing the statistics
+	 * previously written using {@code write()}.
+	 * 
+	 * @param in the input to read from.
+	 * @return the restored logger.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public static StatisticsLogger read(DataInput in) throws IOException {
+		StatisticsLogger logger = new StatisticsLogger();
+		logger.fitness = RunningStatistics.read(in);
+		logger.activeNodes = RunningStatistics.read(in);
+		logger.generations = RunningStatistics.read(in);
+		logger.successfulGenerations = RunningStatistics.read(in);
+		logger.fitnessSketch = QuantileSketch.read(in);
+		logger.activeNodesSketch = QuantileSketch.read(in);
+		logger.generationsSketch = QuantileSketch.read(in);
+		logger.successfulGenerationsSketch = QuantileSketch.read(in);
+		return logger;
+	}
+	
+	/**
+	 * @return the number of logged runs.
+	 */
+	public int getRuns() {
+		return (int) fitness.getCount();
 	}
 	
 	/**
@@ -47,11 +118,7 @@ public class StatisticsLogger {
 	 * @return the average fitness.
 	 */
 	public double getAverageFitness() {
-		double average = 0;
-		for (RunEntry runEntry : runEntries) {
-			average += runEntry.getFitness() / runEntries.size();
-		}
-		return average;
+		return fitness.getMean();
 	}
 	
 	/**
@@ -61,14 +128,18 @@ public class StatisticsLogger {
 	 * @return the standard deviation of average fitnesses.
 	 */
 	public double getAverageFitnessStdDev() {
-		double average = getAverageFitness();
-		double temp, stdDev = 0;
-		for (RunEntry runEntry : runEntries) {
-			temp = runEntry.getFitness() - average;
-			temp = temp * temp;
-			stdDev += temp;
-		}
-		return stdDev;
+		return fitness.getStandardDeviation();
+	}
+	
+	/**
+	 * Estimates a quantile of the best fitness obtained
+	 * in each run, such as the median (0.5).
+	 * 
+	 * @param q the quantile, between 0 and 1.
+	 * @return the estimated quantile.
+	 */
+	public double getFitnessQuantile(double q) {
+		return fitnessSketch.getQuantile(q);
 	}
 	
 	/**
@@ -78,11 +149,7 @@ public class StatisticsLogger {
 	 * @return the average number of active nodes.
 	 */
 	public double getAverageActiveNodes() {
-		double average = 0;
-		for (RunEntry runEntry : runEntries) {
-			average += runEntry.getActiveNodes() / runEntries.size();
-		}
-		return average;
+		return activeNodes.getMean();
 	}
 	
 	/**
@@ -93,14 +160,18 @@ public class StatisticsLogger {
 	 * @return the standard deviation of active node counts.
 	 */
 	public double getAverageActiveNodesStdDev() {
-		double average = getAverageActiveNodes();
-		double temp, stdDev = 0;
-		for (RunEntry runEntry : runEntries) {
-			temp = runEntry.getActiveNodes() - average;
-			temp = temp * temp;
-			stdDev += temp;
-		}
-		return stdDev;
+		return activeNodes.getStandardDeviation();
+	}
+	
+	/**
+	 * Estimates a quantile of the number of active nodes
+	 * in the best solution in each run.
+	 * 
+	 * @param q the quantile, between 0 and 1.
+	 * @return the estimated quantile.
+	 */
+	public double getActiveNodesQuantile(double q) {
+		return activeNodesSketch.getQuantile(q);
 	}
 	
 	/**
@@ -115,11 +186,7 @@ public class StatisticsLogger {
 	 * @return the average number of generations.
 	 */
 	public double getAverageGenerations() {
-		double average = 0;
-		for (RunEntry runEntry : runEntries) {
-			average += runEntry.getGeneration() / runEntries.size();
-		}
-		return average;
+		return generations.getMean();
 	}
 	
 	/**
@@ -130,40 +197,33 @@ public class StatisticsLogger {
 	 * @return the standard deviation of the number of generations.
 	 */
 	public double getAverageGenerationsStdDev() {
-		double average = getAverageGenerations();
-		double temp, stdDev = 0;
-		for (RunEntry runEntry : runEntries) {
-			temp = runEntry.getGeneration() - average;
-			temp = temp * temp;
-			stdDev += temp;
-		}
-		return stdDev;
+		return generations.getStandardDeviation();
 	}
 	
 	/**
-	 * @return the highest fitness across all runs.
+	 * Estimates a quantile of the number of generations
+	 * in each run, including runs where no perfect solution
+	 * was found.
+	 * 
+	 * @param q the quantile, between 0 and 1.
+	 * @return the estimated quantile.
+	 */
+	public double getGenerationsQuantile(double q) {
+		return generationsSketch.getQuantile(q);
+	}
+	
+	/**
+	 * @return the highest fitness across all runs, or 0 if no runs were logged.
 	 */
 	public double getHighestFitness() {
-		double highest = 0;
-		for (RunEntry runEntry : runEntries) {
-			if (runEntry.getFitness() > highest) {
-				highest = runEntry.getFitness();
-			}
-		}
-		return highest;
+		return fitness.getMax();
 	}
 	
 	/**
-	 * @return the lowest fitness across all runs.
+	 * @return the lowest fitness across all runs, or 0 if no runs were logged.
 	 */
 	public double getLowestFitness() {
-		double lowest = Double.MAX_VALUE;
-		for (RunEntry runEntry : runEntries) {
-			if (runEntry.getFitness() < lowest) {
-				lowest = runEntry.getFitness();
-			}
-		}
-		return lowest;
+		return fitness.getMin();
 	}
 	
 	/**
@@ -171,14 +231,7 @@ public class StatisticsLogger {
 	 * @return the number of runs in which a perfect solution was found.
 	 */
 	public int getSuccessfulRuns() {
-		int count = 0;
-		for (RunEntry runEntry : runEntries) {
-			// only increment if solution was perfect
-			if (runEntry.isSuccessful()) {
-				count++;
-			}
-		}
-		return count;
+		return (int) successfulGenerations.getCount();
 	}
 	
 	/**
@@ -190,7 +243,7 @@ public class StatisticsLogger {
 	 * @return the success rate across all runs.
 	 */
 	public double getSuccessRate() {
-		return getSuccessfulRuns() / (double) runEntries.size();
+		return getSuccessfulRuns() / (double) getRuns();
 	}
 	
 	/**
@@ -201,15 +254,7 @@ public class StatisticsLogger {
 	 * @return the average number of generations for perfect solutions.
 	 */
 	public double getAverageSuccessfulGenerations() {
-		double average = 0;
-		int successfulRuns = getSuccessfulRuns();
-		for (RunEntry runEntry : runEntries) {
-			// only if solution was perfect
-			if (runEntry.isSuccessful()) {
-				average += runEntry.getGeneration() / successfulRuns;
-			}
-		}
-		return average;
+		return successfulGenerations.getMean();
 	}
 	
 	/**
@@ -220,17 +265,18 @@ public class StatisticsLogger {
 	 * @return the standard deviation of the number of generations in successful runs.
 	 */
 	public double getAverageSuccessfulGenerationsStdDev() {
-		double average = getAverageSuccessfulGenerations();
-		double temp, stdDev = 0;
-		for (RunEntry runEntry : runEntries) {
-			// only if solution was perfect
-			if (runEntry.isSuccessful()) {
-				temp = runEntry.getGeneration() - average;
-				temp = temp * temp;
-				stdDev += temp;
-			}
-		}
-		return stdDev;
+		return successfulGenerations.getStandardDeviation();
+	}
+	
+	/**
+	 * Estimates a quantile of the number of generations
+	 * in each run where a perfect solution was found.
+	 * 
+	 * @param q the quantile, between 0 and 1.
+	 * @return the estimated quantile.
+	 */
+	public double getSuccessfulGenerationsQuantile(double q) {
+		return successfulGenerationsSketch.getQuantile(q);
 	}
 	
 }
@@ -0,0 +1,333 @@
+package jcgp.backend.statistics;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jcgp.backend.resources.Resources;
+
+/**
+ * Records a time series of the experiment, one entry per generation, and
+ * writes it to a file on a background thread.
+ * <br><br>
+ * Each entry holds the run and generation, the best fitness and number of
+ * active nodes found in the run so far, the number of fitness evaluations
+ * performed since the writer was created and the time elapsed since then.
+ * Entries are handed over through a bounded ring buffer with a single
+ * producer (the experiment) and a single consumer (the writer thread); no
+ * locks are taken and nothing is allocated per entry. If the writer falls
+ * so far behind that the buffer is full, new entries are dropped rather than
+ * stalling evolution, and the number of dropped entries is reported when
+ * the writer is closed.
+ * <br><br>
+ * The series can be written as CSV, with a header line, or as a compact
+ * big-endian binary file: a header of {@code MAGIC} and {@code VERSION} as
+ * ints, followed by {@code RECORD_SIZE}-byte records of run (int), generation
+ * (int), best fitness (double), active nodes (int), evaluations (long) and
+ * elapsed nanoseconds (long).
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class TimeSeriesWriter {
+
+	/**
+	 * The file formats a time series can be written in.
+	 */
+	public enum Format {
+		CSV, BINARY;
+
+		/**
+		 * @param file a time series file.
+		 * @return CSV if the file name ends in .csv, BINARY otherwise.
+		 */
+		public static Format forFile(File file) {
+			return file.getName().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : BINARY;
+		}
+	}
+
+	/**
+	 * Identifies binary time series files.
+	 */
+	public static final int MAGIC = 0x4A434754;
+	/**
+	 * The current version of the binary layout.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The size of each record in a binary file, in bytes.
+	 */
+	public static final int RECORD_SIZE = 36;
+	/**
+	 * The default number of entries the buffer can hold.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	// how long the writer thread sleeps when there is nothing to write
+	private static final long IDLE_NANOS = 1000000L;
+
+	private final File file;
+	private final Format format;
+	private final Resources resources;
+
+	// the ring buffer, one array per field
+	private final int mask;
+	private final int[] runs, generations, activeNodes;
+	private final double[] fitness;
+	private final long[] evaluations, times;
+	// head is only written by the producer, tail and flushed only by the consumer
+	private final AtomicLong head = new AtomicLong(0), tail = new AtomicLong(0);
+	private volatile long flushed = 0;
+
+	// only used by the producer
+	private final long origin = System.nanoTime();
+	private long evaluationCount = 0;
+	private volatile long dropped = 0;
+
+	private final DataOutputStream binary;
+	private final PrintWriter csv;
+	private final Thread thread;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new writer with a buffer of {@code DEFAULT_CAPACITY} entries.
+	 *
+	 * @param file the file to write.
+	 * @param format the format to write the file in.
+	 * @param resources the experiment's resources, used for printing errors.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public TimeSeriesWriter(File file, Format format, Resources resources) throws IOException {
+		this(file, format, DEFAULT_CAPACITY, resources);
+	}
+
+	/**
+	 * Creates a new writer and starts its background thread.
+	 *
+	 * @param file the file to write.
+	 * @param format the format to write the file in.
+	 * @param capacity the number of entries the buffer can hold, rounded up to a power of 2.
+	 * @param resources the experiment's resources, used for printing errors.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public TimeSeriesWriter(File file, Format format, int capacity, Resources resources) throws IOException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		}
+		this.file = file;
+		this.format = format;
+		this.resources = resources;
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		mask = size - 1;
+		runs = new int[size];
+		generations = new int[size];
+		activeNodes = new int[size];
+		fitness = new double[size];
+		evaluations = new long[size];
+		times = new long[size];
+
+		BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+		if (format == Format.CSV) {
+			binary = null;
+			csv = new PrintWriter(new OutputStreamWriter(stream, "UTF-8"));
+			csv.println("run,generation,best_fitness,active_nodes,evaluations,elapsed_ns");
+		} else {
+			csv = null;
+			binary = new DataOutputStream(stream);
+			binary.writeInt(MAGIC);
+			binary.writeInt(VERSION);
+		}
+
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "JCGP time series writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Records a generation. This never blocks: if the buffer is full,
+	 * the entry is dropped. This must always be called from the same thread.
+	 *
+	 * @param run the current run.
+	 * @param generation the current generation.
+	 * @param bestFitness the best fitness found in the run so far.
+	 * @param active the number of active nodes of the chromosome with the best fitness.
+	 * @param evaluated the number of chromosomes evaluated in this generation.
+	 * @return true if the entry was recorded, false if it was dropped.
+	 */
+	public boolean record(int run, int generation, double bestFitness, int active, int evaluated) {
+		evaluationCount += evaluated;
+		long h = head.get();
+		if (closed || h - tail.get() > mask) {
+			dropped++;
+			return false;
+		}
+		int index = (int) h & mask;
+		runs[index] = run;
+		generations[index] = generation;
+		fitness[index] = bestFitness;
+		activeNodes[index] = active;
+		evaluations[index] = evaluationCount;
+		times[index] = System.nanoTime() - origin;
+		// publish the entry to the writer thread
+		head.lazySet(h + 1);
+		return true;
+	}
+
+	/**
+	 * Blocks until every entry recorded so far has been written
+	 * and flushed to the file.
+	 */
+	public void sync() {
+		long target = head.get();
+		while (flushed < target && thread.isAlive()) {
+			LockSupport.parkNanos(IDLE_NANOS);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Writes any pending entries, closes the file and stops the background
+	 * thread. The writer cannot be used after this is called.
+	 */
+	public void close() {
+		closed = true;
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (dropped > 0) {
+			resources.println("[TimeSeries] " + dropped + " generations were not written to " + file.getName()
+					+ " because the writer fell behind");
+		}
+	}
+
+	/**
+	 * @return the number of entries dropped because the buffer was full.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the file this writer writes to.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the format this writer writes in.
+	 */
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * For internal use only, the body of the writer thread. Entries are
+	 * written in batches of whatever is available, and the file is flushed
+	 * whenever the buffer has been emptied.
+	 */
+	private void drain() {
+		try {
+			boolean dirty = false;
+			while (true) {
+				long t = tail.get();
+				long h = head.get();
+				if (t == h) {
+					if (dirty) {
+						flush();
+						flushed = t;
+						dirty = false;
+					} else if (closed) {
+						break;
+					} else {
+						LockSupport.parkNanos(IDLE_NANOS);
+					}
+					continue;
+				}
+				for (; t < h; t++) {
+					write((int) t & mask);
+				}
+				tail.lazySet(h);
+				dirty = true;
+			}
+		} catch (IOException e) {
+			resources.println("[TimeSeries] Error: could not write " + file.getName() + ": " + e.getMessage());
+		} finally {
+			if (csv != null) {
+				csv.close();
+			} else {
+				try {
+					binary.close();
+				} catch (IOException e) {
+					resources.println("[TimeSeries] Error: could not close " + file.getName() + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * For internal use only, writes a single entry of the buffer.
+	 *
+	 * @param index the position of the entry in the buffer.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void write(int index) throws IOException {
+		if (csv != null) {
+			csv.print(runs[index]);
+			csv.print(',');
+			csv.print(generations[index]);
+			csv.print(',');
+			csv.print(fitness[index]);
+			csv.print(',');
+			csv.print(activeNodes[index]);
+			csv.print(',');
+			csv.print(evaluations[index]);
+			csv.print(',');
+			csv.println(times[index]);
+		} else {
+			binary.writeInt(runs[index]);
+			binary.writeInt(generations[index]);
+			binary.writeDouble(fitness[index]);
+			binary.writeInt(activeNodes[index]);
+			binary.writeLong(evaluations[index]);
+			binary.writeLong(times[index]);
+		}
+	}
+
+	/**
+	 * For internal use only, flushes the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void flush() throws IOException {
+		if (csv != null) {
+			csv.flush();
+			if (csv.checkError()) {
+				throw new IOException("the file could not be written");
+			}
+		} else {
+			binary.flush();
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package jcgp.backend.sweep;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Describes a parameter sweep: a base experiment, a set of parameters
+ * with the values each should take, and how to combine those values
+ * into individual experiments (jobs).
+ * <br><br>
+ * In grid mode, every combination of values is a configuration. In list
+ * mode, the n-th configuration takes the n-th value of every parameter, so
+ * all parameters must have the same number of values; parameters with a
+ * single value are used in every configuration. Each configuration is
+ * repeated a number of times, and every job gets its own seed, drawn from
+ * the sweep's seed in job order so that a sweep always runs the same jobs
+ * regardless of how they are scheduled.
+ * <br><br>
+ * Sweeps are usually read from a file with {@code SweepParser}.
+ *
+ * @see jcgp.backend.parsers.SweepParser
+ * @author Eduardo Pedroni
+ *
+ */
+public class Sweep {
+
+	/**
+	 * A single experiment in a sweep.
+	 *
+	 * @author Eduardo Pedroni
+	 *
+	 */
+	public static class Job {
+		private final int index, configuration, repeat, seed;
+		private final Map<String, String> values;
+
+		private Job(int index, int configuration, int repeat, int seed, Map<String, String> values) {
+			this.index = index;
+			this.configuration = configuration;
+			this.repeat = repeat;
+			this.seed = seed;
+			this.values = Collections.unmodifiableMap(values);
+		}
+
+		/**
+		 * @return the position of the job in the sweep.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the configuration the job belongs to.
+		 */
+		public int getConfiguration() {
+			return configuration;
+		}
+
+		/**
+		 * @return which repetition of its configuration the job is.
+		 */
+		public int getRepeat() {
+			return repeat;
+		}
+
+		/**
+		 * @return the seed of the job.
+		 */
+		public int getSeed() {
+			return seed;
+		}
+
+		/**
+		 * @return the value of each swept parameter, in the order they were specified.
+		 */
+		public Map<String, String> getValues() {
+			return values;
+		}
+	}
+
+	private File parameterFile, problemData;
+	private int problem = 0, mutator = 0, strategy = 0;
+	private boolean grid = true;
+	private int repeats = 1;
+	private long seed = 1234;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private final LinkedHashMap<String, String[]> parameters = new LinkedHashMap<String, String[]>();
+
+	/**
+	 * Adds a swept parameter. If the parameter has already been
+	 * added, its values are replaced.
+	 *
+	 * @param name the name of the parameter, as used in .par files.
+	 * @param values the values the parameter should take.
+	 */
+	public void addParameter(String name, String... values) {
+		if (values.length == 0) {
+			throw new IllegalArgumentException("Parameter " + name + " has no values.");
+		}
+		parameters.put(name, values);
+	}
+
+	/**
+	 * @return the swept parameters and their values.
+	 */
+	public Map<String, String[]> getParameters() {
+		return Collections.unmodifiableMap(parameters);
+	}
+
+	/**
+	 * Expands the sweep into its jobs. Jobs are ordered by configuration,
+	 * and then by repetition.
+	 *
+	 * @return the list of jobs.
+	 */
+	public List<Job> getJobs() {
+		List<Map<String, String>> configurations = grid ? expandGrid() : expandList();
+		ArrayList<Job> jobs = new ArrayList<Job>(configurations.size() * repeats);
+		Random seeds = new Random(seed);
+		for (int c = 0; c < configurations.size(); c++) {
+			for (int r = 0; r < repeats; r++) {
+				jobs.add(new Job(jobs.size(), c, r, seeds.nextInt(Integer.MAX_VALUE), configurations.get(c)));
+			}
+		}
+		return jobs;
+	}
+
+	/**
+	 * @return every combination of parameter values.
+	 */
+	private List<Map<String, String>> expandGrid() {
+		List<Map<String, String>> configurations = new ArrayList<Map<String, String>>();
+		configurations.add(new LinkedHashMap<String, String>());
+		for (Entry<String, String[]> parameter : parameters.entrySet()) {
+			List<Map<String, String>> expanded = new ArrayList<Map<String, String>>(configurations.size() * parameter.getValue().length);
+			for (Map<String, String> configuration : configurations) {
+				for (String value : parameter.getValue()) {
+					LinkedHashMap<String, String> next = new LinkedHashMap<String, String>(configuration);
+					next.put(parameter.getKey(), value);
+					expanded.add(next);
+				}
+			}
+			configurations = expanded;
+		}
+		return configurations;
+	}
+
+	/**
+	 * @return the configurations formed by the n-th value of each parameter.
+	 */
+	private List<Map<String, String>> expandList() {
+		int length = 1;
+		for (Entry<String, String[]> parameter : parameters.entrySet()) {
+			int values = parameter.getValue().length;
+			if (values > 1 && length > 1 && values != length) {
+				throw new IllegalArgumentException("In list mode all parameters must have the same number of values, but "
+						+ parameter.getKey() + " has " + values + " rather than " + length + ".");
+			}
+			length = Math.max(length, values);
+		}
+		List<Map<String, String>> configurations = new ArrayList<Map<String, String>>(length);
+		for (int c = 0; c < length; c++) {
+			LinkedHashMap<String, String> configuration = new LinkedHashMap<String, String>();
+			for (Entry<String, String[]> parameter : parameters.entrySet()) {
+				String[] values = parameter.getValue();
+				configuration.put(parameter.getKey(), values[values.length == 1 ? 0 : c]);
+			}
+			configurations.add(configuration);
+		}
+		return configurations;
+	}
+
+	/**
+	 * @return the .par file every job starts from, or null if there is none.
+	 */
+	public File getParameterFile() {
+		return parameterFile;
+	}
+
+	/**
+	 * @param parameterFile the .par file every job starts from, or null.
+	 */
+	public void setParameterFile(File parameterFile) {
+		this.parameterFile = parameterFile;
+	}
+
+	/**
+	 * @return the problem data file, or null if the problem needs none.
+	 */
+	public File getProblemData() {
+		return problemData;
+	}
+
+	/**
+	 * @param problemData the problem data file, or null.
+	 */
+	public void setProblemData(File problemData) {
+		this.problemData = problemData;
+	}
+
+	/**
+	 * @return the index of the problem type.
+	 */
+	public int getProblem() {
+		return problem;
+	}
+
+	/**
+	 * @param problem the index of the problem type.
+	 */
+	public void setProblem(int problem) {
+		this.problem = problem;
+	}
+
+	/**
+	 * @return the index of the mutator.
+	 */
+	public int getMutator() {
+		return mutator;
+	}
+
+	/**
+	 * @param mutator the index of the mutator.
+	 */
+	public void setMutator(int mutator) {
+		this.mutator = mutator;
+	}
+
+	/**
+	 * @return the index of the evolutionary strategy.
+	 */
+	public int getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @param strategy the index of the evolutionary strategy.
+	 */
+	public void setStrategy(int strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * @return true if configurations are every combination of values, false if they are taken as a list.
+	 */
+	public boolean isGrid() {
+		return grid;
+	}
+
+	/**
+	 * @param grid true to combine values as a grid, false to take them as a list.
+	 */
+	public void setGrid(boolean grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * @return the number of jobs run for each configuration.
+	 */
+	public int getRepeats() {
+		return repeats;
+	}
+
+	/**
+	 * @param repeats the number of jobs to run for each configuration.
+	 */
+	public void setRepeats(int repeats) {
+		if (repeats <= 0) {
+			throw new IllegalArgumentException("Repeats must be greater than 0.");
+		}
+		this.repeats = repeats;
+	}
+
+	/**
+	 * @return the seed from which the job seeds are drawn.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed the seed from which the job seeds are drawn.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the number of jobs to run at once.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads the number of jobs to run at once.
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Threads must be greater than 0.");
+		}
+		this.threads = threads;
+	}
+}
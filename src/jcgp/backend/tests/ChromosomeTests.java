@@ -30,6 +30,8 @@ import org.junit.Test;
  *  - It should contain a method to evaluate whether a given chromosome is identical
  *    to it.
  *  - Same as above, but only looking at the active portion of a chromosome.
+ *  - It should keep a genotype hash which is equal for identical chromosomes and
+ *    follows mutations as they happen.
  *  
  *  
  *  WARNING: changing parameters may cause the tests to incorrectly fail!
@@ -309,6 +311,39 @@ public class ChromosomeTests {
 		c = new Chromosome(resources);
 		assertTrue("Chromosomes did match.", !chromosome.compareGenesTo(c));
 	}
+	/**
+	 * 
+	 */
+	@Test
+	public void genotypeHashTest() {
+		// a clone must have the same hash
+		Chromosome c = new Chromosome(chromosome);
+		assertTrue("Clone has a different hash.", chromosome.getGenotypeHash() == c.getGenotypeHash());
+		assertTrue("Clone has a different active hash.", chromosome.getActiveGenotypeHash() == c.getActiveGenotypeHash());
+		
+		// change an output, the hash should change and then return once the change is undone
+		Connection oldSource = c.getOutput(0).getSource();
+		Connection newSource = oldSource == c.getInput(0) ? c.getInput(1) : c.getInput(0);
+		c.getOutput(0).setSource(newSource);
+		assertTrue("Hash did not change with output source.", chromosome.getGenotypeHash() != c.getGenotypeHash());
+		assertTrue("Chromosomes with different hashes matched.", !chromosome.compareGenesTo(c));
+		c.getOutput(0).setSource(oldSource);
+		assertTrue("Hash did not return after undoing change.", chromosome.getGenotypeHash() == c.getGenotypeHash());
+		
+		// same for a node function
+		Node n = c.getNode(0, 0);
+		int functionIndex = resources.getFunctionIndex(n.getFunction());
+		n.setFunction(resources.getFunction((functionIndex + 1) % resources.getFunctionSet().getTotalFunctionCount()));
+		assertTrue("Hash did not change with function.", chromosome.getGenotypeHash() != c.getGenotypeHash());
+		n.setFunction(resources.getFunction(functionIndex));
+		assertTrue("Hash did not return after undoing change.", chromosome.getGenotypeHash() == c.getGenotypeHash());
+		
+		// copying genes over a random chromosome should produce the same hash
+		c = new Chromosome(resources);
+		c.copyGenes(chromosome);
+		assertTrue("Copied genes have a different hash.", chromosome.getGenotypeHash() == c.getGenotypeHash());
+	}
+	
 	/**
 	 * Utility for creating a chromosome of known configuration.
 	 * Topology is 3x3, with 3 inputs and 2 outputs.
@@ -1,8 +1,13 @@
 package jcgp.backend.tests;
 
 import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
 import jcgp.backend.function.SymbolicRegressionFunctions;
+import jcgp.backend.parsers.PopulationParser;
 import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.GeneStore;
 import jcgp.backend.population.Population;
 import jcgp.backend.resources.ModifiableResources;
 
@@ -19,6 +24,8 @@ import org.junit.Test;
  *    random chromosomes, distributed according to the EA parameters.
  *  - If one or more chromosomes are passed into the constructor, it should use them
  *    as parents to create the rest of the population.
+ *  - It should be possible to store the population off-heap and restore it.
+ *  - It should be possible to save the population to a file and load it back.
  *  
  * 
  * @author Eduardo Pedroni
@@ -66,4 +73,59 @@ public class PopulationTests {
 		// check that the first parent chromosome is identical to, but not the same instance as, the one given
 		assertTrue("Incorrect chromosome in population.", population.get(0).compareGenesTo(oc) && population.get(0) != oc);
 	}
+	
+	@Test
+	public void geneStoreTest() throws Exception {
+		// store the population, check that a restored copy has the same genes and fitness
+		population.get(0).setFitness(7);
+		GeneStore store = GeneStore.allocate(resources, resources.populationSize());
+		population.store(store);
+		
+		resources.setSeed(1);
+		Population restored = new Population(store, resources);
+		int draw = resources.getRandomInt(Integer.MAX_VALUE);
+		for (int c = 0; c < resources.populationSize(); c++) {
+			assertTrue("Restored chromosome " + c + " does not match.", restored.get(c).compareGenesTo(population.get(c)));
+			assertTrue("Restored fitness does not match.", restored.get(c).getFitness() == population.get(c).getFitness());
+			assertTrue("Restored hash does not match.", restored.get(c).getGenotypeHash() == population.get(c).getGenotypeHash());
+		}
+		// building a population from a store should not use any random numbers
+		resources.setSeed(2);
+		resources.setSeed(1);
+		assertTrue("Restoring a population used random numbers.", draw == resources.getRandomInt(Integer.MAX_VALUE));
+		
+		// a mapped file holding a store of another shape but the same length should be overwritten
+		File file = File.createTempFile("genes", ".store");
+		file.deleteOnExit();
+		ModifiableResources shaped = new ModifiableResources();
+		shaped.setFunctionSet(new SymbolicRegressionFunctions());
+		shaped.setRows(2);
+		shaped.setColumns(5);
+		shaped.setLevelsBack(2);
+		GeneStore.map(file, shaped, 1).close();
+		
+		shaped.setRows(5);
+		shaped.setColumns(2);
+		GeneStore mapped = GeneStore.map(file, shaped, 1);
+		Chromosome original = new Chromosome(shaped);
+		Chromosome copy = new Chromosome(shaped);
+		mapped.write(0, original);
+		mapped.read(0, copy);
+		mapped.close();
+		assertTrue("Chromosome stored in a remapped file does not match.", copy.compareGenesTo(original));
+	}
+	
+	@Test
+	public void populationFileTest() throws Exception {
+		// save the population to a file, check that a loaded copy has the same genes
+		File file = File.createTempFile("population", ".pop");
+		file.deleteOnExit();
+		PopulationParser.save(file, population, resources);
+		
+		Population loaded = new Population(resources);
+		PopulationParser.parse(file, loaded, resources);
+		for (int c = 0; c < resources.populationSize(); c++) {
+			assertTrue("Loaded chromosome " + c + " does not match.", loaded.get(c).compareGenesTo(population.get(c)));
+		}
+	}
 }
@@ -13,7 +13,10 @@ import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import jcgp.JCGP;
 import jcgp.backend.modules.problem.TestCaseProblem.TestCase;
+import jcgp.backend.statistics.ConvergenceHistory;
+import jcgp.gui.chart.ConvergenceChart;
 import jcgp.gui.console.ConsolePane;
+import jcgp.gui.constants.Constants;
 import jcgp.gui.dragresize.HorizontalDragResize;
 import jcgp.gui.dragresize.VerticalDragResize;
 import jcgp.gui.population.FunctionSelector;
@@ -38,9 +41,8 @@ import jcgp.gui.settings.SettingsPane;
  * a JavaFX {@code Service} which calls {@code nextGeneration()} in a loop
  * until it is interrupted by the main JavaFX thread.
  * <br>
- * This service also handles flushing the console in a thread safe way. This
- * is done by synchronizing the {@code nextGeneration()} and {@code flush()}
- * method calls on a lock object.
+ * The service does not wait for the console: the console queues messages
+ * from any thread and copies them to the screen on its own timer.
  * 
  * @author Eduardo Pedroni
  *
@@ -60,9 +62,7 @@ public class GUI extends Application {
 	 * Flow control objects
 	 */
 	private boolean running = false;
-	private final Object printLock = new Object();
 	private Service<Void> jcgpService;
-	private Runnable consoleFlush;
 	
 	/*
 	 * The experiment itself
@@ -82,57 +82,22 @@ public class GUI extends Application {
 	
 	/**
 	 * Makes a new instance of GUI. This initialises the JCGP experiment and 
-	 * instantiates the function selector. It also creates the console flush task
-	 * and the service responsible for running the JCGP experiment.
+	 * instantiates the function selector. It also creates the service responsible
+	 * for running the JCGP experiment.
 	 */
 	public GUI() {
 		jcgp = new JCGP();
+		// the population pane follows the running experiment through snapshots
+		jcgp.setSnapshotInterval(1000 / Constants.POPULATION_FRAME_RATE);
+		// the convergence chart plots a downsampled history of each run
+		jcgp.setConvergenceHistory(new ConvergenceHistory());
 		functionSelector = new FunctionSelector(jcgp.getResources().getFunctionSet());
 		
-		/*
-		 * This task flushes the console in a thread-safe way.
-		 * The problem is that this task is executed using Platform.runLater()
-		 * to ensure that the flush itself happens on the JavaFX thread. However,
-		 * runLater() is not guaranteed to run anytime soon. If the time taken for
-		 * jcgp to perform a single generation is shorter than the time taken for
-		 * this task to be executed by the platform, consoleFlush tasks will be 
-		 * scheduled faster than they can be executed and the console will eventually 
-		 * freeze. 
-		 * 
-		 * This is addressed by synchronizing the flushes with each nextGeneration() call.
-		 */
-		consoleFlush = new Runnable() {
-			@Override
-			public void run() {
-				/* 
-				 * Try to acquire printlock - wait here until jcgpService relinquishes it
-				 * by calling wait(). This means that it is finished with the current generation
-				 * and will wait for the console to be flushed to move on.
-				 * It might be the case that the service has already released the lock by waiting
-				 * on it; it makes no difference. In that case this will acquire the lock
-				 * immediately and proceed to flush the console.
-				 */
-				synchronized(printLock) {
-					/*
-					 * The lock is acquired, at this point we are certain that jcgpService
-					 * cannot execute; it is currently waiting to be notified about the lock.
-					 * No additional consoleFlush tasks can be scheduled with runLater() because
-					 * the service is waiting. We can now take our time to flush the console.
-					 */
-					console.flush();
-					/*
-					 * Once the console finishes flushing, we notify jcgpService to perform the
-					 * next generation.
-					 */
-					printLock.notifyAll();
-				}
-			}
-		};
-		
 		/* 
 		 * This service runs on a separate thread and performs
-		 * the experiment, including console prints, in a thread-safe
-		 * way. It is synchronized with consoleFlush.
+		 * the experiment. Console prints are queued by the console
+		 * without blocking and shown by its own timer, so the
+		 * experiment never waits for the JavaFX thread.
 		 */
 		jcgpService = new Service<Void> () {
 			@Override
@@ -145,51 +110,7 @@ public class GUI extends Application {
 						 * and the service hasn't been cancelled.
 						 */
 						while (!isCancelled() && !jcgp.isFinished()) {
-							/*
-							 * Attempt to acquire the printlock.
-							 * Successfully doing so means no printing
-							 * is currently taking place and we are free
-							 * to schedule a print task.
-							 * This lock acquisition should never block. It should
-							 * not be possible to execute this statement without
-							 * having been notified by consoleFlush.
-							 */
-							synchronized (printLock) {
-								/*
-								 * Lock has been acquired, schedule a print
-								 * task ahead of time. The actual print messages
-								 * haven't been send to the console yet, that happens
-								 * during nextGeneration(), but since we have the lock
-								 * consoleFlush() will sit and wait for us to release it
-								 * whenever we are finished queueing prints.
-								 */
-								Platform.runLater(consoleFlush);
-								/*
-								 * Perform the actual generation. Here zero or more
-								 * strings might be sent to the console buffer.
-								 */
-								jcgp.nextGeneration();
-								/*
-								 * The generation is complete, relinquish the lock.
-								 * By this point chances are the platform is already trying
-								 * to execute the consoleFlush task that we scheduled. If it
-								 * hasn't already started though, it doesn't matter; we will
-								 * wait for a notification on the lock, which will only come
-								 * when printing is complete.
-								 */
-								printLock.wait();
-								/*
-								 * We have been notified. This means all buffered messages have
-								 * been successfully flushed to the actual console control and
-								 * we are now ready to perform another generation (or break out
-								 * of the loop if the loop conditions are no longer met).
-								 */
-							}
-							/*
-							 * We no longer own the lock, but neither does consoleFlush. 
-							 * The synchrony cycle has returned to its initial state, and we
-							 * are free to acquire the lock again.
-							 */
+							jcgp.nextGeneration();
 						}
 						/*
 						 * Something happened to break the while loop -
@@ -244,6 +165,13 @@ public class GUI extends Application {
 		 */
 		populationPane = new PopulationPane(this);
 		
+		/*
+		 * The convergence chart sits under the population pane.
+		 */
+		BorderPane viewFrame = new BorderPane();
+		viewFrame.setCenter(populationPane);
+		viewFrame.setBottom(new ConvergenceChart(jcgp.getConvergenceHistory()));
+		
 		/*
 		 * The settings pane is a big class containing the entire control pane
 		 */
@@ -256,8 +184,8 @@ public class GUI extends Application {
 		settingsPane.maxWidthProperty().bind(experimentLayer.widthProperty());
 		console.maxHeightProperty().bind(experimentLayer.heightProperty());
 
-		// put console and population pane in the main frame
-		leftFrame.setCenter(populationPane);
+		// put console, population pane and chart in the main frame
+		leftFrame.setCenter(viewFrame);
 		leftFrame.setBottom(console);
 		
 		// set the main frame and the control pane in the experiment layer
@@ -468,10 +396,22 @@ public class GUI extends Application {
 		console.flush();
 	}
 
+	/**
+	 * Switches turbo mode on or off. In turbo mode, the population
+	 * pane shows a summary of the experiment instead of the chromosomes,
+	 * and the experiment stops copying them into its snapshots.
+	 * 
+	 * @param value true to switch turbo mode on.
+	 */
+	public void setTurbo(boolean value) {
+		jcgp.setSnapshotChromosomes(!value);
+		populationPane.setTurbo(value);
+	}
+
 	/**
 	 * @return the index of the chromosome currently being looked at.
 	 */
 	public int getChromosomeIndex() {
-		return populationPane.getSelectionModel().getSelectedIndex();
+		return populationPane.getChromosomeIndex();
 	}
 }
@@ -0,0 +1,205 @@
+package jcgp.gui.chart;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import jcgp.backend.statistics.ConvergenceHistory;
+import jcgp.backend.statistics.ConvergenceHistory.Series;
+import jcgp.gui.constants.Constants;
+
+/**
+ * Plots the best fitness and number of active nodes of the current run
+ * against the generation, on a {@code Canvas}.
+ * <br><br>
+ * The chart never sees individual generations: it draws from the buckets
+ * of a {@link ConvergenceHistory}, which the experiment keeps up to date
+ * in a fixed amount of memory, so it costs the same to draw after ten
+ * generations as after ten million. For each bucket, the range between
+ * the smallest and largest value is shaded and a line is drawn through
+ * the last value. A timer checks the history for changes at most
+ * {@code CHART_FRAME_RATE} times per second and redraws only if there
+ * were any.
+ *
+ * @author Eduardo Pedroni
+ *
+ */
+public class ConvergenceChart extends Region {
+
+	// the space left around the plot for labels
+	private static final double MARGIN = 40, TOP_MARGIN = 20, BOTTOM_MARGIN = 20;
+
+	private static final Color FITNESS = Color.web(Constants.HARD_HIGHLIGHT_COLOUR);
+	private static final Color FITNESS_RANGE = Color.web(Constants.SOFT_HIGHLIGHT_COLOUR);
+	private static final Color NODES = Color.web(Constants.GOOD_SELECTION_COLOUR);
+	private static final Color NODES_RANGE = NODES.deriveColor(0, 1, 1, 0.3);
+
+	private final Canvas canvas = new Canvas();
+	private final Font font = Font.font("Arial", 11);
+	private final ConvergenceHistory history;
+	private long drawnVersion = -1;
+	private Series series;
+
+	/**
+	 * Creates a new chart of the specified history.
+	 *
+	 * @param history the history to plot.
+	 */
+	public ConvergenceChart(ConvergenceHistory history) {
+		super();
+		this.history = history;
+		getChildren().add(canvas);
+		setMinHeight(Constants.CHART_HEIGHT);
+		setPrefHeight(Constants.CHART_HEIGHT);
+
+		final long frameInterval = 1000000000L / Constants.CHART_FRAME_RATE;
+		new AnimationTimer() {
+			private long lastFrame = 0;
+
+			@Override
+			public void handle(long now) {
+				if (now - lastFrame >= frameInterval) {
+					lastFrame = now;
+					refresh();
+				}
+			}
+		}.start();
+	}
+
+	/**
+	 * Redraws the chart if the history has changed since it was last drawn.
+	 */
+	public void refresh() {
+		long version = history.getVersion();
+		if (version != drawnVersion) {
+			drawnVersion = version;
+			series = history.getSeries();
+			draw();
+		}
+	}
+
+	@Override
+	protected void layoutChildren() {
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+		draw();
+	}
+
+	/**
+	 * Draws the latest copy of the history onto the canvas.
+	 */
+	private void draw() {
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		double width = canvas.getWidth(), height = canvas.getHeight();
+		gc.setFill(Color.WHITE);
+		gc.fillRect(0, 0, width, height);
+
+		double plotWidth = width - 2 * MARGIN, plotHeight = height - TOP_MARGIN - BOTTOM_MARGIN;
+		if (plotWidth <= 0 || plotHeight <= 0) {
+			return;
+		}
+		gc.setStroke(Color.LIGHTGREY);
+		gc.setLineWidth(1);
+		gc.strokeRect(MARGIN, TOP_MARGIN, plotWidth, plotHeight);
+
+		gc.setFont(font);
+		gc.setTextBaseline(VPos.CENTER);
+		if (series == null || series.size() == 0) {
+			gc.setFill(Color.GREY);
+			gc.setTextAlign(TextAlignment.CENTER);
+			gc.fillText("No generations yet", width / 2, height / 2);
+			return;
+		}
+
+		// work out the ranges of the axes
+		int size = series.size();
+		double firstGeneration = series.getGeneration(0);
+		double generations = series.getLastGeneration() - firstGeneration + 1;
+		double minFitness = Double.POSITIVE_INFINITY, maxFitness = Double.NEGATIVE_INFINITY;
+		int maxNodes = 1;
+		for (int i = 0; i < size; i++) {
+			minFitness = Math.min(minFitness, series.getMinFitness(i));
+			maxFitness = Math.max(maxFitness, series.getMaxFitness(i));
+			maxNodes = Math.max(maxNodes, series.getMaxActiveNodes(i));
+		}
+		if (!(maxFitness > minFitness)) {
+			minFitness -= 1;
+			maxFitness += 1;
+		}
+
+		// x coordinates of the start of each bucket, plus the end of the last
+		double[] x = new double[size + 1];
+		for (int i = 0; i < size; i++) {
+			x[i] = MARGIN + (series.getGeneration(i) - firstGeneration) / generations * plotWidth;
+		}
+		x[size] = MARGIN + plotWidth;
+
+		double fitnessScale = plotHeight / (maxFitness - minFitness);
+		double nodesScale = plotHeight / maxNodes;
+		double bottom = TOP_MARGIN + plotHeight;
+
+		// shade the range of each bucket, at least a pixel wide
+		for (int i = 0; i < size; i++) {
+			double w = Math.max(1, x[i + 1] - x[i]);
+			double top = bottom - (series.getMaxActiveNodes(i) * nodesScale);
+			gc.setFill(NODES_RANGE);
+			gc.fillRect(x[i], top, w, Math.max(1, (series.getMaxActiveNodes(i) - series.getMinActiveNodes(i)) * nodesScale));
+			top = bottom - (series.getMaxFitness(i) - minFitness) * fitnessScale;
+			gc.setFill(FITNESS_RANGE);
+			gc.fillRect(x[i], top, w, Math.max(1, (series.getMaxFitness(i) - series.getMinFitness(i)) * fitnessScale));
+		}
+
+		// draw a line through the last value of each bucket
+		gc.setLineWidth(1.5);
+		gc.setStroke(NODES);
+		gc.beginPath();
+		for (int i = 0; i < size; i++) {
+			double y = bottom - series.getActiveNodes(i) * nodesScale;
+			if (i == 0) {
+				gc.moveTo(x[i], y);
+			}
+			gc.lineTo(x[i + 1], y);
+		}
+		gc.stroke();
+		gc.setStroke(FITNESS);
+		gc.beginPath();
+		for (int i = 0; i < size; i++) {
+			double y = bottom - (series.getFitness(i) - minFitness) * fitnessScale;
+			if (i == 0) {
+				gc.moveTo(x[i], y);
+			}
+			gc.lineTo(x[i + 1], y);
+		}
+		gc.stroke();
+
+		// label the axes
+		gc.setTextAlign(TextAlignment.RIGHT);
+		gc.setFill(FITNESS);
+		gc.fillText(format(maxFitness), MARGIN - 3, TOP_MARGIN);
+		gc.fillText(format(minFitness), MARGIN - 3, bottom);
+		gc.setTextAlign(TextAlignment.LEFT);
+		gc.setFill(NODES);
+		gc.fillText(String.valueOf(maxNodes), MARGIN + plotWidth + 3, TOP_MARGIN);
+		gc.fillText("0", MARGIN + plotWidth + 3, bottom);
+
+		gc.setFill(Color.BLACK);
+		gc.fillText(String.valueOf(series.getGeneration(0)), MARGIN, bottom + BOTTOM_MARGIN / 2);
+		gc.setTextAlign(TextAlignment.RIGHT);
+		gc.fillText(String.valueOf(series.getLastGeneration()), MARGIN + plotWidth, bottom + BOTTOM_MARGIN / 2);
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.fillText("Run " + series.getRun() + ": best fitness (blue) and active nodes (green) by generation, "
+				+ series.getBucketWidth() + " per point", width / 2, TOP_MARGIN / 2);
+	}
+
+	/**
+	 * @param value a fitness value.
+	 * @return the value, rounded to at most 3 decimal places.
+	 */
+	private static String format(double value) {
+		return String.valueOf(Math.round(value * 1000) / 1000.0);
+	}
+}
@@ -0,0 +1,250 @@
+package jcgp.gui.console;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * The lines shown in the console, held in a ring buffer of fixed capacity.
+ * <br><br>
+ * Text is added with {@code append()}, which splits it into lines; a line
+ * stays open until a line break arrives, so text printed in pieces ends
+ * up on the same line. Once the buffer is full, every new line evicts the
+ * oldest one, so the memory used and the cost of appending stay the same
+ * however long the experiment runs. Evicted lines are lost unless a spill
+ * file is set, in which case they are written to the end of that file.
+ * If writing fails, spilling stops and the error is kept until it is
+ * collected with {@code takeSpillError()}.
+ * <br><br>
+ * This is an observable list so that it can back a {@code ListView},
+ * which only renders the rows currently visible. Like any JavaFX
+ * collection it must only be used from the JavaFX thread.
+ * 
+ * @see ConsolePane
+ * @author Eduardo Pedroni
+ *
+ */
+public class ConsoleBuffer extends ObservableListBase<String> {
+	
+	private final String[] lines;
+	private int start = 0, size = 0;
+	// true if the last line has not been terminated yet
+	private boolean open = false;
+	
+	private File spillFile;
+	private BufferedWriter spill;
+	private IOException spillError;
+	
+	/**
+	 * Creates a new empty buffer.
+	 * 
+	 * @param capacity the largest number of lines held.
+	 */
+	public ConsoleBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0.");
+		}
+		lines = new String[capacity];
+	}
+	
+	@Override
+	public String get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		return lines[(start + index) % lines.length];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return the largest number of lines held.
+	 */
+	public int getCapacity() {
+		return lines.length;
+	}
+	
+	/**
+	 * Appends text to the buffer, continuing the last line if it is still open.
+	 * 
+	 * @param text the text to append.
+	 */
+	public void append(String text) {
+		if (text.isEmpty()) {
+			return;
+		}
+		ArrayList<String> added = new ArrayList<String>();
+		int from = 0;
+		int lineBreak = text.indexOf('\n');
+		// continue the open line first
+		if (open) {
+			int to = lineBreak < 0 ? text.length() : lineBreak;
+			String previous = get(size - 1);
+			lines[(start + size - 1) % lines.length] = previous + text.substring(0, to);
+			open = lineBreak < 0;
+			beginChange();
+			nextSet(size - 1, previous);
+			endChange();
+			if (lineBreak < 0) {
+				return;
+			}
+			from = lineBreak + 1;
+			lineBreak = text.indexOf('\n', from);
+		}
+		while (lineBreak >= 0) {
+			added.add(text.substring(from, lineBreak));
+			from = lineBreak + 1;
+			lineBreak = text.indexOf('\n', from);
+		}
+		if (from < text.length()) {
+			added.add(text.substring(from));
+			open = true;
+		}
+		if (added.isEmpty()) {
+			return;
+		}
+		
+		// lines which would be evicted straight away are only spilled
+		int skipped = Math.max(0, added.size() - lines.length);
+		List<String> kept = added.subList(skipped, added.size());
+		
+		int evicted = Math.max(0, size + kept.size() - lines.length);
+		List<String> removed = new ArrayList<String>(evicted);
+		for (int i = 0; i < evicted; i++) {
+			removed.add(get(i));
+		}
+		spill(removed);
+		spill(added.subList(0, skipped));
+		start = (start + evicted) % lines.length;
+		size -= evicted;
+		for (String line : kept) {
+			lines[(start + size) % lines.length] = line;
+			size++;
+		}
+		
+		beginChange();
+		if (evicted > 0) {
+			nextRemove(0, removed);
+		}
+		nextAdd(size - kept.size(), size);
+		endChange();
+	}
+	
+	@Override
+	public void clear() {
+		if (size > 0) {
+			List<String> removed = new ArrayList<String>(this);
+			Arrays.fill(lines, null);
+			start = 0;
+			size = 0;
+			open = false;
+			beginChange();
+			nextRemove(0, removed);
+			endChange();
+		}
+	}
+	
+	/**
+	 * Sets the file evicted lines are written to, or stops writing
+	 * them if the file is null. Any previous spill file is closed.
+	 * 
+	 * @param file the file to spill lines to, or null.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public void setSpillFile(File file) throws IOException {
+		closeSpill();
+		if (file != null) {
+			spill = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+		}
+		spillFile = file;
+	}
+	
+	/**
+	 * @return the file evicted lines are written to, or null.
+	 */
+	public File getSpillFile() {
+		return spillFile;
+	}
+	
+	/**
+	 * Flushes the spill file, if there is one. If this fails,
+	 * spilling stops as it would if a line could not be written.
+	 */
+	public void flushSpill() {
+		if (spill != null) {
+			try {
+				spill.flush();
+			} catch (IOException e) {
+				stopSpilling(e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the error which stopped spilling, if any, and forgets it.
+	 * 
+	 * @return the error, or null if there was none.
+	 */
+	public IOException takeSpillError() {
+		IOException error = spillError;
+		spillError = null;
+		return error;
+	}
+	
+	/**
+	 * Closes the spill file, if there is one.
+	 * 
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void closeSpill() throws IOException {
+		if (spill != null) {
+			BufferedWriter writer = spill;
+			spill = null;
+			spillFile = null;
+			writer.close();
+		}
+	}
+	
+	/**
+	 * For internal use only, writes evicted lines to the spill file.
+	 * If the file cannot be written, spilling stops.
+	 * 
+	 * @param evicted the lines to write.
+	 */
+	private void spill(List<String> evicted) {
+		if (spill != null) {
+			try {
+				for (String line : evicted) {
+					spill.write(line);
+					spill.newLine();
+				}
+			} catch (IOException e) {
+				stopSpilling(e);
+			}
+		}
+	}
+	
+	/**
+	 * For internal use only, gives up on the spill file after an error.
+	 * 
+	 * @param error the error which occurred.
+	 */
+	private void stopSpilling(IOException error) {
+		spillError = error;
+		try {
+			closeSpill();
+		} catch (IOException e) {
+			// the first error is the one worth reporting
+		}
+	}
+}
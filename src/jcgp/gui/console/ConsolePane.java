@@ -1,122 +1,190 @@
 package jcgp.gui.console;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
-import javafx.event.Event;
-import javafx.event.EventDispatchChain;
-import javafx.event.EventDispatcher;
 import javafx.event.EventHandler;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListView;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.SeparatorMenuItem;
-import javafx.scene.control.TextArea;
-import javafx.scene.input.MouseButton;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
 import javafx.scene.layout.AnchorPane;
+import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 import jcgp.backend.resources.Console;
 import jcgp.gui.constants.Constants;
 
 /**
  * Console pane used by the GUI to display CGP output messages.
  * This class realises {@code Console}. It consists of a JavaFX
- * {@code TextArea} and a {@code StringBuffer}. The buffer is filled
- * as print messages are queued. Calling {@code flush()} writes the
- * contents of the buffer to the {@code TextArea} and empties the buffer.
- * 
+ * {@code ListView} and a lock-free queue. Messages may be printed from
+ * any thread and are simply added to the queue, so printing never waits
+ * for the JavaFX thread. A timer on the JavaFX thread drains the queue
+ * into a {@link ConsoleBuffer} every {@code CONSOLE_REFRESH_INTERVAL}
+ * milliseconds, in a single append; {@code flush()} does the same
+ * immediately, and must be called from the JavaFX thread.
+ * <br><br>
+ * The buffer keeps only the last {@code CONSOLE_MAX_LINES} lines, and the
+ * list view only renders the lines that are visible, so the console stays
+ * responsive however much is printed. Older lines can be kept by spilling
+ * them to a file, either with {@code setSpillFile()} or from the context menu.
+ *
  * @see Console
  * @author Eduardo Pedroni
  *
  */
 public class ConsolePane extends AnchorPane implements Console {
-	
-	private TextArea textArea = new TextArea("Welcome to JCGP!\n");
-	private StringBuffer printBuffer = new StringBuffer();
-		
+
+	private ConsoleBuffer buffer = new ConsoleBuffer(Constants.CONSOLE_MAX_LINES);
+	private ListView<String> listView = new ListView<String>(buffer);
+	private final ConcurrentLinkedQueue<String> printQueue = new ConcurrentLinkedQueue<String>();
+	private final StringBuilder flushBuffer = new StringBuilder();
+
 	/**
 	 * Creates a new instance of this class.
 	 */
 	public ConsolePane() {
 		super();
-		textArea.setEditable(false);
-		/*
-		 * This nasty hack is needed because the default TextArea ContextMenu is not
-		 * in the public API, making it impossible to override it with a custom one.
-		 * This has not been fixed as of 8/4/2014.
-		 * 
-		 * The following code modifies the EventDispatcher to consume the right mouse
-		 * button click, preventing the default menu from appearing. It propagates the mouse
-		 * click further so other elements will respond appropriately.
-		 * 
-		 * TODO this should be refactored once the API is updated.
-		 */
-		final EventDispatcher initial = textArea.getEventDispatcher();
-		textArea.setEventDispatcher(new EventDispatcher() {
+		buffer.append("Welcome to JCGP!\n");
+		listView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+
+		// make the context menu including the clear and spill options
+		MenuItem copySelected = new MenuItem("Copy");
+		copySelected.setOnAction(new EventHandler<ActionEvent>() {
 			@Override
-			public Event dispatchEvent(Event event, EventDispatchChain tail) {
-				if (event instanceof MouseEvent) {
-					MouseEvent mouseEvent = (MouseEvent)event;
-					if (mouseEvent.getButton() == MouseButton.SECONDARY || 
-							(mouseEvent.getButton() == MouseButton.PRIMARY && mouseEvent.isControlDown())) {
-						event.consume();
-					}
+			public void handle(ActionEvent event) {
+				StringBuilder text = new StringBuilder();
+				for (String line : listView.getSelectionModel().getSelectedItems()) {
+					text.append(line).append("\n");
 				}
-				return initial.dispatchEvent(event, tail);
+				ClipboardContent content = new ClipboardContent();
+				content.putString(text.toString());
+				Clipboard.getSystemClipboard().setContent(content);
 			}
 		});
-		
-		// make the new context menu including the clear option		
-		MenuItem copySelected = new MenuItem("Copy");
-		copySelected.setOnAction(new EventHandler<ActionEvent>() {	
+		MenuItem selectAll = new MenuItem("Select all");
+		selectAll.setOnAction(new EventHandler<ActionEvent>() {
 			@Override
 			public void handle(ActionEvent event) {
-				textArea.copy();
+				listView.getSelectionModel().selectAll();
 			}
 		});
-		MenuItem selectAll = new MenuItem("Select all");
-		selectAll.setOnAction(new EventHandler<ActionEvent>() {	
+		MenuItem clearConsole = new MenuItem("Clear");
+		clearConsole.setOnAction(new EventHandler<ActionEvent>() {
 			@Override
 			public void handle(ActionEvent event) {
-				textArea.selectAll();
+				buffer.clear();
 			}
 		});
-		MenuItem clearConsole = new MenuItem("Clear");
-		clearConsole.setOnAction(new EventHandler<ActionEvent>() {	
+		final MenuItem spillToFile = new MenuItem("Save old lines to file...");
+		spillToFile.setOnAction(new EventHandler<ActionEvent>() {
 			@Override
 			public void handle(ActionEvent event) {
-				textArea.setText("");
+				if (buffer.getSpillFile() == null) {
+					FileChooser fc = new FileChooser();
+					fc.setTitle("Save old lines to...");
+					fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text files", "*.txt"));
+					fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("All files", "*.*"));
+					File file = fc.showSaveDialog(getScene().getWindow());
+					if (file != null) {
+						setSpillFile(file);
+					}
+				} else {
+					setSpillFile(null);
+				}
 			}
 		});
-				
-		textArea.setContextMenu(new ContextMenu(copySelected,
-												selectAll, 
-												new SeparatorMenuItem(),
-												clearConsole));
-		
-		// anchor the text area so it resizes automatically
-		AnchorPane.setTopAnchor(textArea, Constants.RESIZE_MARGIN);
-		AnchorPane.setBottomAnchor(textArea, 0.0);
-		AnchorPane.setRightAnchor(textArea, 0.0);
-		AnchorPane.setLeftAnchor(textArea, 0.0);
-		
+
+		ContextMenu contextMenu = new ContextMenu(copySelected,
+												  selectAll,
+												  new SeparatorMenuItem(),
+												  clearConsole,
+												  spillToFile);
+		// spilling may have stopped since the menu was last shown
+		contextMenu.setOnShowing(new EventHandler<WindowEvent>() {
+			@Override
+			public void handle(WindowEvent event) {
+				spillToFile.setText(buffer.getSpillFile() == null ? "Save old lines to file..." : "Stop saving old lines");
+			}
+		});
+		listView.setContextMenu(contextMenu);
+
+		// anchor the list view so it resizes automatically
+		AnchorPane.setTopAnchor(listView, Constants.RESIZE_MARGIN);
+		AnchorPane.setBottomAnchor(listView, 0.0);
+		AnchorPane.setRightAnchor(listView, 0.0);
+		AnchorPane.setLeftAnchor(listView, 0.0);
+
 		setMinHeight(Constants.CONSOLE_MIN_HEIGHT);
 		setPrefHeight(Constants.CONSOLE_MIN_HEIGHT);
-		
-		getChildren().add(textArea);
+
+		getChildren().add(listView);
+
+		// drain the print queue periodically
+		Timeline refresh = new Timeline(new KeyFrame(Duration.millis(Constants.CONSOLE_REFRESH_INTERVAL), new EventHandler<ActionEvent>() {
+			@Override
+			public void handle(ActionEvent event) {
+				flush();
+			}
+		}));
+		refresh.setCycleCount(Animation.INDEFINITE);
+		refresh.play();
+	}
+
+	/**
+	 * Sets the file that lines are written to once they no longer fit
+	 * in the console, or stops writing them if the file is null. Lines
+	 * are appended to the end of the file. This must be called from the
+	 * JavaFX thread.
+	 *
+	 * @param file the file to write old lines to, or null.
+	 */
+	public void setSpillFile(File file) {
+		try {
+			buffer.setSpillFile(file);
+			if (file != null) {
+				buffer.append("[Console] Saving old lines to " + file.getName() + "\n");
+			}
+		} catch (IOException e) {
+			buffer.append("[Console] Error: could not change the file old lines are saved to: " + e.getMessage() + "\n");
+		}
 	}
 
 	@Override
 	public void println(String s) {
-		printBuffer.append(s + "\n");
+		printQueue.offer(s + "\n");
 	}
 
 	@Override
 	public void print(String s) {
-		printBuffer.append(s);
+		printQueue.offer(s);
 	}
 
 	@Override
 	public void flush() {
-		textArea.appendText(printBuffer.toString());
-		printBuffer = new StringBuffer();
+		String message;
+		while ((message = printQueue.poll()) != null) {
+			flushBuffer.append(message);
+		}
+		if (flushBuffer.length() > 0) {
+			buffer.append(flushBuffer.toString());
+			flushBuffer.setLength(0);
+			buffer.flushSpill();
+			IOException error = buffer.takeSpillError();
+			if (error != null) {
+				buffer.append("[Console] Error: could not save old lines: " + error.getMessage() + "\n");
+			}
+			listView.scrollTo(buffer.size() - 1);
+		}
 	}
-	
+
 }
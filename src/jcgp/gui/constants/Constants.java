@@ -65,6 +65,34 @@ public abstract class Constants {
 	 * from being resized beyond visibility.
 	 */
     public static final double CONSOLE_MIN_HEIGHT = 100;
+    /**
+	 * How often the console pane copies queued messages to
+	 * the screen, in milliseconds.
+	 */
+    public static final double CONSOLE_REFRESH_INTERVAL = 100;
+    /**
+	 * The number of lines the console pane keeps; older
+	 * lines are discarded, or saved to a file if requested.
+	 */
+    public static final int CONSOLE_MAX_LINES = 10000;
+    /**
+	 * The most times per second the chromosome being looked
+	 * at is redrawn while the experiment is running.
+	 */
+    public static final int POPULATION_FRAME_RATE = 10;
+    /**
+	 * Grids with more nodes than this are drawn on a canvas
+	 * rather than built out of individual scene graph nodes.
+	 */
+    public static final int CANVAS_RENDERER_THRESHOLD = 2000;
+    /**
+	 * The height of the convergence chart.
+	 */
+    public static final double CHART_HEIGHT = 150;
+    /**
+	 * The most times per second the convergence chart is redrawn.
+	 */
+    public static final int CHART_FRAME_RATE = 5;
     /**
      * Radius used for the representation of nodes in the grid.
      */
@@ -0,0 +1,564 @@
+package jcgp.gui.population;
+
+import java.util.ArrayList;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.EventHandler;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import jcgp.backend.population.Chromosome;
+import jcgp.backend.population.Connection;
+import jcgp.backend.population.Gene;
+import jcgp.backend.population.Input;
+import jcgp.backend.population.Node;
+import jcgp.backend.population.Output;
+import jcgp.backend.resources.Resources;
+import jcgp.gui.GUI;
+import jcgp.gui.constants.Constants;
+
+/**
+ * Draws a chromosome onto a {@code Canvas}, for grids too large to be
+ * shown with a {@link ChromosomePane}.
+ * <br><br>
+ * The genes are laid out exactly as in {@code ChromosomePane}, but none
+ * of them are scene graph nodes: each redraw paints the genes which fall
+ * inside the viewport, and the connections of active nodes whose lines
+ * cross it, so the cost of drawing depends on the size of the view rather
+ * than the size of the grid. The view can be scrolled with the scroll bars
+ * or the mouse wheel, and zoomed by holding control while scrolling. As the
+ * view is zoomed out, the text and then the outlines of the genes are left
+ * out, until only the active nodes are drawn, as small squares.
+ * <br><br>
+ * Hovering over a gene highlights it and the genes it is connected to, and
+ * clicking on it keeps it highlighted; the gene under the cursor is found
+ * from the layout arithmetically. Genes cannot be edited in this view.
+ *
+ * @see ChromosomeView
+ * @author Eduardo Pedroni
+ *
+ */
+public class ChromosomeCanvas extends Region implements ChromosomeView {
+
+	// the distance between the centres of neighbouring genes, at a scale of 1
+	private static final double PITCH = 2 * Constants.NODE_RADIUS + Constants.SPACING;
+	// below these scales, text and then gene outlines are left out
+	private static final double TEXT_SCALE = 0.5, OUTLINE_SCALE = 0.2;
+	private static final double MIN_SCALE = 0.02, MAX_SCALE = 2, ZOOM_STEP = 1.1;
+
+	private static final Color NEUTRAL = Color.web(Constants.NEUTRAL_COLOUR);
+	private static final Color HOVER = Color.web(Constants.MEDIUM_HIGHLIGHT_COLOUR);
+	private static final Color SELECTION = Color.web(Constants.HARD_HIGHLIGHT_COLOUR);
+	private static final Color CONNECTED = Color.web(Constants.SOFT_HIGHLIGHT_COLOUR);
+	private static final Color ACTIVE = Color.BLACK;
+	private static final Color INACTIVE = Color.LIGHTGREY;
+
+	private final Canvas canvas = new Canvas();
+	private final ScrollBar hBar = new ScrollBar(), vBar = new ScrollBar();
+	private final Font font = Font.font("Arial", 12);
+
+	private final PopulationPane parent;
+	private final int rows, columns, inputs, outputs;
+	private Chromosome chromosome;
+
+	// the active nodes, found when the view was last updated
+	private final boolean[][] active;
+	private final ArrayList<Node> activeNodes = new ArrayList<Node>();
+
+	private double scale = 1;
+	private boolean stale = false;
+	private Gene hovered, selected;
+
+	public ChromosomeCanvas(Chromosome chromosome, GUI gui, PopulationPane parent) {
+		super();
+
+		final Resources resources = gui.getExperiment().getResources();
+		this.parent = parent;
+		this.chromosome = chromosome;
+
+		rows = resources.rows();
+		columns = resources.columns();
+		inputs = resources.inputs();
+		outputs = resources.outputs();
+		active = new boolean[rows][columns];
+
+		hBar.setOrientation(Orientation.HORIZONTAL);
+		vBar.setOrientation(Orientation.VERTICAL);
+		ChangeListener<Number> redraw = new ChangeListener<Number>() {
+			@Override
+			public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+				draw();
+			}
+		};
+		hBar.valueProperty().addListener(redraw);
+		vBar.valueProperty().addListener(redraw);
+
+		canvas.addEventHandler(MouseEvent.MOUSE_MOVED, new EventHandler<MouseEvent>() {
+			@Override
+			public void handle(MouseEvent event) {
+				Gene gene = geneAt(event.getX(), event.getY());
+				if (gene != hovered) {
+					hovered = gene;
+					draw();
+				}
+			}
+		});
+		canvas.addEventHandler(MouseEvent.MOUSE_EXITED, new EventHandler<MouseEvent>() {
+			@Override
+			public void handle(MouseEvent event) {
+				if (hovered != null) {
+					hovered = null;
+					draw();
+				}
+			}
+		});
+		canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, new EventHandler<MouseEvent>() {
+			@Override
+			public void handle(MouseEvent event) {
+				if (event.getButton() == MouseButton.PRIMARY) {
+					Gene gene = geneAt(event.getX(), event.getY());
+					selected = gene == selected ? null : gene;
+					draw();
+				}
+			}
+		});
+		canvas.addEventHandler(ScrollEvent.SCROLL, new EventHandler<ScrollEvent>() {
+			@Override
+			public void handle(ScrollEvent event) {
+				if (event.isControlDown()) {
+					zoom(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, event.getX(), event.getY());
+				} else if (event.isShiftDown() && event.getDeltaX() == 0) {
+					scroll(hBar, -event.getDeltaY());
+				} else {
+					scroll(hBar, -event.getDeltaX());
+					scroll(vBar, -event.getDeltaY());
+				}
+				event.consume();
+			}
+		});
+
+		findActiveNodes();
+		getChildren().addAll(canvas, hBar, vBar);
+		setPrefWidth(620);
+	}
+
+	@Override
+	protected void layoutChildren() {
+		double barWidth = vBar.prefWidth(-1), barHeight = hBar.prefHeight(-1);
+		double width = Math.max(0, getWidth() - barWidth), height = Math.max(0, getHeight() - barHeight);
+		canvas.setWidth(width);
+		canvas.setHeight(height);
+		hBar.resizeRelocate(0, height, width, barHeight);
+		vBar.resizeRelocate(width, 0, barWidth, height);
+		updateBars();
+		draw();
+	}
+
+	@Override
+	public int updateGenes(Chromosome chr) {
+		// the highlighted genes may belong to a previous copy of the chromosome
+		hovered = samePosition(hovered, chr);
+		selected = samePosition(selected, chr);
+		chromosome = chr;
+		findActiveNodes();
+		stale = false;
+		return draw();
+	}
+
+	@Override
+	public void markStale() {
+		stale = true;
+	}
+
+	@Override
+	public boolean isStale() {
+		return stale;
+	}
+
+	@Override
+	public void unlockOutputs() {
+		// outputs cannot be locked in this view
+	}
+
+	@Override
+	public void relockOutputs() {
+		// outputs cannot be locked in this view
+	}
+
+	@Override
+	public void setInputs(Object[] values) {
+		chromosome.setInputs(values);
+		draw();
+	}
+
+	@Override
+	public void updateValues() {
+		draw();
+	}
+
+	/**
+	 * @param gene a gene, or null.
+	 * @param chr a chromosome.
+	 * @return the gene of the chromosome in the same position, or null.
+	 */
+	private Gene samePosition(Gene gene, Chromosome chr) {
+		if (gene instanceof Node) {
+			return chr.getNode(((Node) gene).getRow(), ((Node) gene).getColumn());
+		} else if (gene instanceof Output) {
+			return chr.getOutput(((Output) gene).getIndex());
+		} else if (gene instanceof Input) {
+			return chr.getInput(((Input) gene).getIndex());
+		}
+		return null;
+	}
+
+	/**
+	 * Changes the zoom level, keeping the point under the cursor in place.
+	 *
+	 * @param factor the factor to multiply the scale by.
+	 * @param x the x coordinate of the cursor on the canvas.
+	 * @param y the y coordinate of the cursor on the canvas.
+	 */
+	private void zoom(double factor, double x, double y) {
+		double newScale = Math.min(MAX_SCALE, Math.max(MIN_SCALE, scale * factor));
+		double contentX = (x + hBar.getValue()) / scale, contentY = (y + vBar.getValue()) / scale;
+		scale = newScale;
+		updateBars();
+		hBar.setValue(Math.min(hBar.getMax(), Math.max(0, contentX * scale - x)));
+		vBar.setValue(Math.min(vBar.getMax(), Math.max(0, contentY * scale - y)));
+		draw();
+	}
+
+	/**
+	 * Moves a scroll bar by the specified amount, within its range.
+	 *
+	 * @param bar the bar to move.
+	 * @param delta the distance to move it, in pixels.
+	 */
+	private void scroll(ScrollBar bar, double delta) {
+		bar.setValue(Math.min(bar.getMax(), Math.max(0, bar.getValue() + delta)));
+	}
+
+	/**
+	 * Sets the range of the scroll bars to match the size of the
+	 * grid at the current scale and the size of the canvas.
+	 */
+	private void updateBars() {
+		double contentWidth = (columns + 2) * PITCH * scale;
+		double contentHeight = Math.max(rows, Math.max(inputs, outputs)) * PITCH * scale;
+		hBar.setMax(Math.max(0, contentWidth - canvas.getWidth()));
+		vBar.setMax(Math.max(0, contentHeight - canvas.getHeight()));
+		hBar.setVisibleAmount(hBar.getMax() * canvas.getWidth() / Math.max(1, contentWidth));
+		vBar.setVisibleAmount(vBar.getMax() * canvas.getHeight() / Math.max(1, contentHeight));
+		hBar.setUnitIncrement(PITCH * scale);
+		vBar.setUnitIncrement(PITCH * scale);
+		hBar.setValue(Math.min(hBar.getValue(), hBar.getMax()));
+		vBar.setValue(Math.min(vBar.getValue(), vBar.getMax()));
+	}
+
+	/**
+	 * Marks the nodes which are connected to an output, directly or
+	 * through other nodes. Only the connections used by each node's
+	 * function are followed.
+	 */
+	private void findActiveNodes() {
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				active[r][c] = false;
+			}
+		}
+		activeNodes.clear();
+		ArrayList<Node> pending = new ArrayList<Node>();
+		for (int o = 0; o < outputs; o++) {
+			markActive(chromosome.getOutput(o).getSource(), pending);
+		}
+		while (!pending.isEmpty()) {
+			Node node = pending.remove(pending.size() - 1);
+			int arity = node.getFunction().getArity();
+			for (int i = 0; i < arity; i++) {
+				markActive(node.getConnection(i), pending);
+			}
+		}
+	}
+
+	/**
+	 * For internal use only, marks a connection as active if
+	 * it is a node which has not been marked yet.
+	 *
+	 * @param connection the connection to mark.
+	 * @param pending the nodes whose connections are yet to be followed.
+	 */
+	private void markActive(Connection connection, ArrayList<Node> pending) {
+		if (connection instanceof Node) {
+			Node node = (Node) connection;
+			if (!active[node.getRow()][node.getColumn()]) {
+				active[node.getRow()][node.getColumn()] = true;
+				activeNodes.add(node);
+				pending.add(node);
+			}
+		}
+	}
+
+	/**
+	 * Finds the gene at a point on the canvas.
+	 *
+	 * @param x the x coordinate on the canvas.
+	 * @param y the y coordinate on the canvas.
+	 * @return the gene at that point, or null if there is none.
+	 */
+	private Gene geneAt(double x, double y) {
+		double contentX = (x + hBar.getValue()) / scale, contentY = (y + vBar.getValue()) / scale;
+		int cell = (int) Math.floor(contentX / PITCH), row = (int) Math.floor(contentY / PITCH);
+		if (row < 0 || cell < 0 || cell > columns + 1) {
+			return null;
+		}
+		// when zoomed out, anywhere in the cell will do
+		if (scale >= OUTLINE_SCALE) {
+			double dx = contentX - (cell * PITCH + Constants.NODE_RADIUS), dy = contentY - (row * PITCH + Constants.NODE_RADIUS);
+			if (dx * dx + dy * dy > Constants.NODE_RADIUS * Constants.NODE_RADIUS) {
+				return null;
+			}
+		}
+		if (cell == 0) {
+			return row < inputs ? chromosome.getInput(row) : null;
+		} else if (cell == columns + 1) {
+			return row < outputs ? chromosome.getOutput(row) : null;
+		} else {
+			return row < rows ? chromosome.getNode(row, cell - 1) : null;
+		}
+	}
+
+	/**
+	 * Redraws the visible part of the chromosome.
+	 *
+	 * @return the number of genes drawn.
+	 */
+	private int draw() {
+		GraphicsContext g = canvas.getGraphicsContext2D();
+		double width = canvas.getWidth(), height = canvas.getHeight();
+		g.setFill(NEUTRAL);
+		g.fillRect(0, 0, width, height);
+		if (chromosome == null || width == 0 || height == 0) {
+			return 0;
+		}
+
+		double left = hBar.getValue() / scale, top = vBar.getValue() / scale;
+		double right = left + width / scale, bottom = top + height / scale;
+		int firstCell = Math.max(0, (int) Math.floor(left / PITCH)), lastCell = Math.min(columns + 1, (int) Math.floor(right / PITCH));
+		int firstRow = Math.max(0, (int) Math.floor(top / PITCH)), lastRow = (int) Math.floor(bottom / PITCH);
+
+		g.save();
+		g.translate(-hBar.getValue(), -vBar.getValue());
+		g.scale(scale, scale);
+		g.setLineWidth(1 / Math.max(scale, 0.5));
+
+		// connections of active nodes and outputs, underneath the genes
+		g.setStroke(INACTIVE);
+		for (Node node : activeNodes) {
+			int arity = node.getFunction().getArity();
+			for (int i = 0; i < arity; i++) {
+				drawConnection(g, node, node.getConnection(i), left, right, top, bottom);
+			}
+		}
+		for (int o = 0; o < outputs; o++) {
+			drawConnection(g, chromosome.getOutput(o), chromosome.getOutput(o).getSource(), left, right, top, bottom);
+		}
+		// connections of the highlighted genes, on top of the others
+		g.setStroke(ACTIVE);
+		drawHighlightedConnections(g, selected, left, right, top, bottom);
+		drawHighlightedConnections(g, hovered, left, right, top, bottom);
+
+		// the genes themselves
+		int drawn = 0;
+		boolean evaluating = parent.isEvaluating();
+		g.setFont(font);
+		g.setTextAlign(TextAlignment.CENTER);
+		g.setTextBaseline(VPos.CENTER);
+		for (int cell = firstCell; cell <= lastCell; cell++) {
+			if (cell == 0) {
+				for (int i = firstRow; i <= Math.min(lastRow, inputs - 1); i++) {
+					Input input = chromosome.getInput(i);
+					drawGene(g, input, cell, i, true, evaluating ? "I: " + i + "\n" + input.getValue() : "I: " + i);
+					drawn++;
+				}
+			} else if (cell == columns + 1) {
+				for (int o = firstRow; o <= Math.min(lastRow, outputs - 1); o++) {
+					Output output = chromosome.getOutput(o);
+					drawGene(g, output, cell, o, true, evaluating ? "O: " + o + "\n" + output.getSource().getValue() : "O: " + o);
+					drawn++;
+				}
+			} else {
+				for (int r = firstRow; r <= Math.min(lastRow, rows - 1); r++) {
+					Node node = chromosome.getNode(r, cell - 1);
+					boolean isActive = active[r][cell - 1];
+					// only the active nodes are drawn when zoomed right out
+					if (scale >= OUTLINE_SCALE || isActive || node == hovered || node == selected) {
+						String label = scale < TEXT_SCALE ? null
+								: evaluating ? node.getFunction() + "\n" + node.getValue() : node.getFunction().toString();
+						drawGene(g, node, cell, r, isActive, label);
+						drawn++;
+					}
+				}
+			}
+		}
+		g.restore();
+
+		// when the text is left out, describe the gene under the cursor in a corner
+		if (hovered != null && scale < TEXT_SCALE) {
+			g.setTextAlign(TextAlignment.LEFT);
+			g.setTextBaseline(VPos.TOP);
+			String description = describe(hovered);
+			g.setFill(NEUTRAL);
+			g.fillRect(0, 0, description.length() * 7 + 10, 20);
+			g.setFill(ACTIVE);
+			g.fillText(description, 5, 3);
+		}
+		return drawn;
+	}
+
+	/**
+	 * For internal use only, draws a single gene at the current level of detail.
+	 *
+	 * @param g the graphics context, in content coordinates.
+	 * @param gene the gene to draw.
+	 * @param cell the column of the gene in the layout, counting inputs as 0.
+	 * @param row the row of the gene in the layout.
+	 * @param isActive true if the gene is active.
+	 * @param label the text to show, or null for none.
+	 */
+	private void drawGene(GraphicsContext g, Gene gene, int cell, int row, boolean isActive, String label) {
+		double x = cell * PITCH, y = row * PITCH, size = 2 * Constants.NODE_RADIUS;
+		Color fill = fillOf(gene);
+		if (scale < OUTLINE_SCALE) {
+			g.setFill(fill == NEUTRAL ? ACTIVE : fill);
+			g.fillRect(x, y, size, size);
+			return;
+		}
+		g.setFill(fill);
+		g.fillOval(x, y, size, size);
+		g.setStroke(isActive ? ACTIVE : INACTIVE);
+		g.strokeOval(x, y, size, size);
+		if (label != null) {
+			g.setFill(isActive ? ACTIVE : Color.GREY);
+			g.fillText(label, x + Constants.NODE_RADIUS, y + Constants.NODE_RADIUS, size);
+		}
+	}
+
+	/**
+	 * For internal use only, draws the line from a gene to one of its
+	 * sources, unless the line lies entirely outside the visible area.
+	 *
+	 * @param g the graphics context, in content coordinates.
+	 * @param gene the node or output the line starts from.
+	 * @param source the connection the line ends at.
+	 * @param left the left edge of the visible area.
+	 * @param right the right edge of the visible area.
+	 * @param top the top edge of the visible area.
+	 * @param bottom the bottom edge of the visible area.
+	 */
+	private void drawConnection(GraphicsContext g, Gene gene, Connection source, double left, double right, double top, double bottom) {
+		double x1, y1;
+		if (gene instanceof Node) {
+			x1 = (((Node) gene).getColumn() + 1) * PITCH;
+			y1 = ((Node) gene).getRow() * PITCH + Constants.NODE_RADIUS;
+		} else {
+			x1 = (columns + 1) * PITCH;
+			y1 = ((Output) gene).getIndex() * PITCH + Constants.NODE_RADIUS;
+		}
+		double x2, y2;
+		if (source instanceof Node) {
+			x2 = (((Node) source).getColumn() + 1) * PITCH + 2 * Constants.NODE_RADIUS;
+			y2 = ((Node) source).getRow() * PITCH + Constants.NODE_RADIUS;
+		} else if (source instanceof Input) {
+			x2 = 2 * Constants.NODE_RADIUS;
+			y2 = ((Input) source).getIndex() * PITCH + Constants.NODE_RADIUS;
+		} else {
+			return;
+		}
+		if (Math.max(x1, x2) < left || Math.min(x1, x2) > right || Math.max(y1, y2) < top || Math.min(y1, y2) > bottom) {
+			return;
+		}
+		g.strokeLine(x1, y1, x2, y2);
+	}
+
+	/**
+	 * For internal use only, draws every connection of a highlighted gene.
+	 *
+	 * @param g the graphics context, in content coordinates.
+	 * @param gene the highlighted gene, or null.
+	 * @param left the left edge of the visible area.
+	 * @param right the right edge of the visible area.
+	 * @param top the top edge of the visible area.
+	 * @param bottom the bottom edge of the visible area.
+	 */
+	private void drawHighlightedConnections(GraphicsContext g, Gene gene, double left, double right, double top, double bottom) {
+		if (gene instanceof Node) {
+			Node node = (Node) gene;
+			for (int i = 0; i < node.getFunction().getArity(); i++) {
+				drawConnection(g, node, node.getConnection(i), left, right, top, bottom);
+			}
+		} else if (gene instanceof Output) {
+			drawConnection(g, gene, ((Output) gene).getSource(), left, right, top, bottom);
+		}
+	}
+
+	/**
+	 * @param gene a gene.
+	 * @return the colour the gene should be filled with.
+	 */
+	private Color fillOf(Gene gene) {
+		if (gene == selected) {
+			return SELECTION;
+		} else if (gene == hovered) {
+			return HOVER;
+		} else if (isConnectedTo(selected, gene) || isConnectedTo(hovered, gene)) {
+			return CONNECTED;
+		}
+		return NEUTRAL;
+	}
+
+	/**
+	 * @param gene a gene, or null.
+	 * @param source another gene.
+	 * @return true if the first gene takes input from the second.
+	 */
+	private boolean isConnectedTo(Gene gene, Gene source) {
+		if (gene instanceof Node) {
+			Node node = (Node) gene;
+			for (int i = 0; i < node.getFunction().getArity(); i++) {
+				if (node.getConnection(i) == source) {
+					return true;
+				}
+			}
+		} else if (gene instanceof Output) {
+			return ((Output) gene).getSource() == source;
+		}
+		return false;
+	}
+
+	/**
+	 * @param gene a gene.
+	 * @return a short description of the gene.
+	 */
+	private String describe(Gene gene) {
+		if (gene instanceof Node) {
+			Node node = (Node) gene;
+			return "Node (" + node.getRow() + ", " + node.getColumn() + "): " + node.getFunction()
+					+ (active[node.getRow()][node.getColumn()] ? "" : " (inactive)");
+		} else if (gene instanceof Output) {
+			return "Output " + ((Output) gene).getIndex();
+		} else {
+			return "Input " + ((Input) gene).getIndex();
+		}
+	}
+}
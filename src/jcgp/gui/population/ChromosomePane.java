@@ -22,7 +22,7 @@ import jcgp.gui.constants.Constants;
  * @author Eduardo Pedroni
  *
  */
-public class ChromosomePane extends ScrollPane {
+public class ChromosomePane extends ScrollPane implements ChromosomeView {
 
 	private GUINode[][] guiNodes;
 	private GUIInput[] guiInputs;
@@ -38,6 +38,8 @@ public class ChromosomePane extends ScrollPane {
 	private Object[] testInputs;
 	
 	private boolean target = false;
+	// true if the genes have changed since this pane was last updated
+	private boolean stale = false;
 	private PopulationPane parent;
 	
 	public ChromosomePane(Chromosome chromosome, GUI gui, PopulationPane parent) {
@@ -123,23 +125,44 @@ public class ChromosomePane extends ScrollPane {
 		target = newValue;
 	}
 	
-	public void updateGenes(Chromosome chr) {
+	/**
+	 * Only the genes which changed since the last update are redrawn.
+	 */
+	@Override
+	public int updateGenes(Chromosome chr) {
+		int redrawn = 0;
 		for (int r = 0; r < rows; r++) {
 			for (int c = 0; c < columns; c++) {
 				guiNodes[r][c].setNode(chr.getNode(r, c));
-				guiNodes[r][c].updateLines();
-				guiNodes[r][c].updateText();
+				if (guiNodes[r][c].refresh()) {
+					redrawn++;
+				}
 			}
 		}
 		for (int i = 0; i < guiOutputs.length; i++) {
 			guiOutputs[i].setOutput(chr.getOutput(i));
-			guiOutputs[i].updateLines();
+			if (guiOutputs[i].refresh()) {
+				redrawn++;
+			}
 		}
 		if (isEvaluating()) {
 			setInputs(testInputs);
 		}
+		stale = false;
+		return redrawn;
+	}
+	
+	@Override
+	public void markStale() {
+		stale = true;
+	}
+	
+	@Override
+	public boolean isStale() {
+		return stale;
 	}
 	
+	@Override
 	public void unlockOutputs() {
 		relock.clear();
 		for (int i = 0; i < guiOutputs.length; i++) {
@@ -150,12 +173,14 @@ public class ChromosomePane extends ScrollPane {
 		}
 	}
 	
+	@Override
 	public void relockOutputs() {
 		for (int i = 0; i < relock.size(); i++) {
 			relock.get(i).lock();
 		}
 	}
 	
+	@Override
 	public void setInputs(Object[] values) {
 		testInputs = values;
 		for (int i = 0; i < guiInputs.length; i++) {
@@ -164,6 +189,7 @@ public class ChromosomePane extends ScrollPane {
 		updateValues();
 	}
 
+	@Override
 	public void updateValues() {
 		for (int i = 0; i < guiInputs.length; i++) {
 			guiInputs[i].updateText();
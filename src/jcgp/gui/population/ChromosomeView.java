@@ -0,0 +1,61 @@
+package jcgp.gui.population;
+
+import jcgp.backend.population.Chromosome;
+
+/**
+ * A view of a single chromosome, shown in a tab of the {@link PopulationPane}.
+ * <br><br>
+ * {@link ChromosomePane} builds a scene graph node for every gene and
+ * supports editing; {@link ChromosomeCanvas} draws the genes onto a canvas
+ * and scales to much larger grids. The population pane picks one or the
+ * other depending on the size of the grid.
+ * 
+ * @author Eduardo Pedroni
+ *
+ */
+public interface ChromosomeView {
+	
+	/**
+	 * Brings the view up to date with the specified chromosome.
+	 * 
+	 * @param chr the chromosome to show.
+	 * @return the number of genes redrawn.
+	 */
+	public int updateGenes(Chromosome chr);
+	
+	/**
+	 * Marks the view as out of date, so that it is updated
+	 * the next time it is shown.
+	 */
+	public void markStale();
+	
+	/**
+	 * @return true if the genes may have changed since the last update.
+	 */
+	public boolean isStale();
+	
+	/**
+	 * Temporarily releases any outputs locked by the user, so
+	 * that the experiment can change them.
+	 */
+	public void unlockOutputs();
+	
+	/**
+	 * Locks the outputs released by {@code unlockOutputs()} again.
+	 */
+	public void relockOutputs();
+	
+	/**
+	 * Sets the inputs of the chromosome and shows the values
+	 * they produce.
+	 * 
+	 * @param values the input values.
+	 */
+	public void setInputs(Object[] values);
+	
+	/**
+	 * Redraws the values of the genes, or hides them if test
+	 * cases are no longer being evaluated.
+	 */
+	public void updateValues();
+}
@@ -8,6 +8,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import jcgp.backend.population.Connection;
+import jcgp.backend.population.Input;
+import jcgp.backend.population.Node;
 import jcgp.gui.constants.Constants;
 
 public abstract class GUIGene extends Group {
@@ -79,4 +81,21 @@ public abstract class GUIGene extends Group {
 	public abstract void setConnectionLine(GUIGene gene);
 	
 	public abstract void updateText();
+	
+	/**
+	 * Compares two connections by their position in the grid, so
+	 * that the genes of a chromosome and of a copy of it compare equal.
+	 * 
+	 * @param a a connection, or null.
+	 * @param b another connection, or null.
+	 * @return true if both connections are in the same position.
+	 */
+	protected static boolean samePosition(Connection a, Connection b) {
+		if (a instanceof Node && b instanceof Node) {
+			return ((Node) a).getRow() == ((Node) b).getRow() && ((Node) a).getColumn() == ((Node) b).getColumn();
+		} else if (a instanceof Input && b instanceof Input) {
+			return ((Input) a).getIndex() == ((Input) b).getIndex();
+		}
+		return a == b;
+	}
 }
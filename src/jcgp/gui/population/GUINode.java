@@ -18,6 +18,9 @@ import jcgp.gui.constants.Constants;
 public class GUINode extends GUIGene {
 
 	private Line[] lines;
+	// what the lines and text currently show, so unchanged genes can be skipped
+	private Connection[] renderedConnections;
+	private Function renderedFunction;
 	private Node node;
 	private Resources resources;
 	private int connectionIndex = 0;
@@ -30,6 +33,7 @@ public class GUINode extends GUIGene {
 		this.parent = parentRef;
 		this.node = node;
 		this.lines = connectionLines;
+		this.renderedConnections = new Connection[connectionLines.length];
 		this.resources = gui.getExperiment().getResources();
 		
 		// move the GUIGene to the right position
@@ -353,16 +357,18 @@ public class GUINode extends GUIGene {
 	 * @param index the line to be updated.
 	 */
 	public void updateLine(int index) {
-		if (node.getConnection(index) instanceof Node) {
-			int row = ((Node) node.getConnection(index)).getRow(), 
-					column = ((Node) node.getConnection(index)).getColumn();
+		Connection connection = node.getConnection(index);
+		if (connection instanceof Node) {
+			int row = ((Node) connection).getRow(), 
+					column = ((Node) connection).getColumn();
 			lines[index].setEndX(((column + 1) * (2 * Constants.NODE_RADIUS + Constants.SPACING)) + 2 * Constants.NODE_RADIUS);
 			lines[index].setEndY((row * (2 * Constants.NODE_RADIUS + Constants.SPACING)) + Constants.NODE_RADIUS);
-		} else if (node.getConnection(index) instanceof Input) {
-			int inputIndex = ((Input) node.getConnection(index)).getIndex();
+		} else if (connection instanceof Input) {
+			int inputIndex = ((Input) connection).getIndex();
 			lines[index].setEndX(2 * Constants.NODE_RADIUS);
 			lines[index].setEndY(inputIndex * (2 * Constants.NODE_RADIUS + Constants.SPACING) + Constants.NODE_RADIUS);
 		}
+		renderedConnections[index] = connection;
 	}
 
 	/**
@@ -450,11 +456,37 @@ public class GUINode extends GUIGene {
 	}
 
 	public void updateText() {
+		Function function = node.getFunction();
 		if (parent.isEvaluating()) {
-			text.setText(node.getFunction() + "\n" + node.getValue().toString());
+			text.setText(function + "\n" + node.getValue().toString());
 		} else {
-			text.setText(node.getFunction().toString());
+			text.setText(function.toString());
 		}
+		renderedFunction = function;
+	}
+	
+	/**
+	 * Brings the lines and text up to date with the node, redrawing
+	 * only the parts whose genes changed since they were last drawn.
+	 * Connections are compared by position, so switching to a copy
+	 * of the chromosome only redraws what differs.
+	 * Values are always redrawn while evaluating.
+	 * 
+	 * @return true if anything was redrawn.
+	 */
+	public boolean refresh() {
+		boolean changed = false;
+		for (int i = 0; i < lines.length; i++) {
+			if (!samePosition(node.getConnection(i), renderedConnections[i])) {
+				updateLine(i);
+				changed = true;
+			}
+		}
+		if (node.getFunction() != renderedFunction || parent.isEvaluating()) {
+			updateText();
+			changed = true;
+		}
+		return changed;
 	}
 	
 	public void setFunction(Function function) {
@@ -17,6 +17,8 @@ import jcgp.gui.constants.Constants;
 public class GUIOutput extends GUIGene {
 
 	private Line sourceLine;
+	// the source the line currently points at, so an unchanged output can be skipped
+	private Connection renderedSource;
 	private Output output;
 
 	public GUIOutput(ChromosomePane parentRef, final Output output, Line line, GUI gui) {
@@ -228,16 +230,38 @@ public class GUIOutput extends GUIGene {
 	
 	@Override
 	public void updateLines() {
-		if (output.getSource() instanceof Node) {
-			int row = ((Node) output.getSource()).getRow(), 
-					column = ((Node) output.getSource()).getColumn();
+		Connection source = output.getSource();
+		if (source instanceof Node) {
+			int row = ((Node) source).getRow(), 
+					column = ((Node) source).getColumn();
 			sourceLine.setEndX(((column + 1) * (2 * Constants.NODE_RADIUS + Constants.SPACING)) + 2 * Constants.NODE_RADIUS);
 			sourceLine.setEndY((row * (2 * Constants.NODE_RADIUS + Constants.SPACING)) + Constants.NODE_RADIUS);
-		} else if (output.getSource() instanceof Input) {
-			int inputIndex = ((Input) output.getSource()).getIndex();
+		} else if (source instanceof Input) {
+			int inputIndex = ((Input) source).getIndex();
 			sourceLine.setEndX(2 * Constants.NODE_RADIUS);
 			sourceLine.setEndY(inputIndex * (2 * Constants.NODE_RADIUS + Constants.SPACING) + Constants.NODE_RADIUS);
 		}
+		renderedSource = source;
+	}
+	
+	/**
+	 * Brings the line and text up to date with the output, redrawing
+	 * the line only if the source changed since it was last drawn.
+	 * Values are always redrawn while evaluating.
+	 * 
+	 * @return true if anything was redrawn.
+	 */
+	public boolean refresh() {
+		boolean changed = false;
+		if (!samePosition(output.getSource(), renderedSource)) {
+			updateLines();
+			changed = true;
+		}
+		if (parent.isEvaluating()) {
+			updateText();
+			changed = true;
+		}
+		return changed;
 	}
 
 	@Override
@@ -1,57 +1,254 @@
 package jcgp.gui.population;
 
+import java.util.ArrayList;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.text.Font;
 import jcgp.JCGP;
 import jcgp.backend.modules.problem.TestCaseProblem;
 import jcgp.backend.modules.problem.TestCaseProblem.TestCase;
+import jcgp.backend.population.PopulationSnapshot;
+import jcgp.backend.statistics.GenerationMetrics;
 import jcgp.gui.GUI;
+import jcgp.gui.constants.Constants;
 
+/**
+ * Holds a view of each chromosome, one per tab. Grids of up to
+ * {@code CANVAS_RENDERER_THRESHOLD} nodes are shown with a {@link ChromosomePane},
+ * which can be edited; larger ones with a {@link ChromosomeCanvas}.
+ * <br><br>
+ * Only the selected tab is kept up to date; the others are marked as
+ * stale and brought up to date when they are selected. While the
+ * experiment is running, the views never look at the live population:
+ * a timer checks for a new {@link PopulationSnapshot} at most
+ * {@code POPULATION_FRAME_RATE} times per second and shows the copies
+ * of the chromosomes it holds, redrawing only the genes which changed
+ * since the previous frame. Once the experiment is paused, the views go
+ * back to the live population so it can be edited. No frames are drawn
+ * while a test case is being evaluated.
+ * <br><br>
+ * In turbo mode the chromosome views are taken out altogether and a
+ * single tab shows a summary of the experiment's progress instead,
+ * sampled from the snapshots, which then leave the chromosomes out.
+ * 
+ * @author Eduardo Pedroni
+ *
+ */
 public class PopulationPane extends TabPane {
 	
 	private GUI gui;
 	private TestCase<Object> currentTestCase;
 	private boolean evaluating = false;
+	private long lastFrame = 0;
+	private PopulationSnapshot lastSnapshot;
+	
+	// the chromosome tabs, which are not shown in turbo mode
+	private ArrayList<Tab> chromosomeTabs = new ArrayList<Tab>();
+	private boolean turbo = false;
+	private int turboIndex = 0;
+	private final Tab summaryTab = new Tab("Summary");
+	private final Label summary = new Label();
 	
 	public PopulationPane(GUI gui) {
 		super();
 		this.gui = gui;
 		setTabClosingPolicy(TabClosingPolicy.UNAVAILABLE);
+		summary.setFont(Font.font("Arial", 14));
+		summary.setPadding(new Insets(10));
+		summaryTab.setContent(summary);
 		remakeTabs();
+		
+		// bring stale tabs up to date when they are selected
+		getSelectionModel().selectedIndexProperty().addListener(new ChangeListener<Number>() {
+			@Override
+			public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+				int index = newValue.intValue();
+				if (!turbo && index >= 0 && view(index).isStale()) {
+					updateTab(index);
+				}
+			}
+		});
+		
+		// follow the running experiment through its snapshots, at a bounded frame rate
+		final long frameInterval = 1000000000L / Constants.POPULATION_FRAME_RATE;
+		new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				if (PopulationPane.this.gui.isWorking() && now - lastFrame >= frameInterval) {
+					lastFrame = now;
+					PopulationSnapshot snapshot = PopulationPane.this.gui.getExperiment().getSnapshot();
+					if (snapshot != null && snapshot != lastSnapshot) {
+						if (turbo) {
+							showSummary(snapshot);
+						} else if (!evaluating) {
+							markStale();
+							int index = getSelectionModel().getSelectedIndex();
+							if (index >= 0) {
+								updateTab(index);
+							}
+						}
+						lastSnapshot = snapshot;
+					}
+				}
+			}
+		}.start();
+	}
+	
+	/**
+	 * Switches turbo mode on or off. In turbo mode, the chromosome views
+	 * are replaced by a summary of the experiment.
+	 * 
+	 * @param value true to switch turbo mode on.
+	 */
+	public void setTurbo(boolean value) {
+		if (value == turbo) {
+			return;
+		}
+		if (value) {
+			turboIndex = Math.max(0, getSelectionModel().getSelectedIndex());
+			turbo = true;
+			getTabs().setAll(summaryTab);
+			PopulationSnapshot snapshot = gui.getExperiment().getSnapshot();
+			if (snapshot != null) {
+				showSummary(snapshot);
+			}
+		} else {
+			turbo = false;
+			markStale();
+			getTabs().setAll(chromosomeTabs);
+			getSelectionModel().select(Math.min(turboIndex, chromosomeTabs.size() - 1));
+			int index = getSelectionModel().getSelectedIndex();
+			if (index >= 0) {
+				updateTab(index);
+			}
+		}
+	}
+	
+	/**
+	 * @return true if the pane is in turbo mode.
+	 */
+	public boolean isTurbo() {
+		return turbo;
+	}
+	
+	/**
+	 * @return the index of the chromosome being looked at, or
+	 * which was being looked at when turbo mode was switched on.
+	 */
+	public int getChromosomeIndex() {
+		return turbo ? turboIndex : getSelectionModel().getSelectedIndex();
+	}
+	
+	/**
+	 * Writes a summary of the experiment's progress in the summary tab.
+	 * 
+	 * @param snapshot the snapshot to summarise.
+	 */
+	private void showSummary(PopulationSnapshot snapshot) {
+		JCGP jcgp = gui.getExperiment();
+		StringBuilder text = new StringBuilder();
+		text.append("Run ").append(snapshot.getRun()).append(" of ").append(jcgp.getResources().runs());
+		text.append(", generation ").append(snapshot.getGeneration()).append(" of ").append(jcgp.getResources().generations()).append("\n");
+		text.append("Best fitness in this run: ").append(snapshot.getBestFitness()).append("\n");
+		text.append("Active nodes: ").append(snapshot.getActiveNodes()).append("\n");
+		text.append("Fittest chromosome: ").append(snapshot.getFittest())
+				.append(" (").append(snapshot.getFitness(snapshot.getFittest())).append(")\n");
+		GenerationMetrics.Snapshot metrics = jcgp.getMetrics().getSnapshot();
+		if (metrics != null) {
+			text.append("Evaluations per second: ").append(Math.round(metrics.getEvaluationsPerSecond())).append("\n");
+		}
+		summary.setText(text.toString());
+	}
+	
+	/**
+	 * @param index the index of a chromosome.
+	 * @return the view of the chromosome.
+	 */
+	private ChromosomeView view(int index) {
+		return (ChromosomeView) chromosomeTabs.get(index).getContent();
 	}
 	
 	public void remakeTabs() {
-		getTabs().clear();
+		chromosomeTabs.clear();
+		lastSnapshot = null;
 		JCGP jcgp = gui.getExperiment();
 		
+		// large grids are drawn on a canvas, the scene graph cannot cope with them
+		boolean large = jcgp.getResources().rows() * jcgp.getResources().columns() > Constants.CANVAS_RENDERER_THRESHOLD;
 		Tab tab;
-		ChromosomePane cp;
 		for (int i = 0; i < jcgp.getResources().populationSize(); i++) {
-			cp = new ChromosomePane(jcgp.getPopulation().get(i), gui, this);
 			tab = new Tab("Chr " + i);
-			tab.setContent(cp);
-			getTabs().add(tab);
+			if (large) {
+				tab.setContent(new ChromosomeCanvas(jcgp.getPopulation().get(i), gui, this));
+			} else {
+				tab.setContent(new ChromosomePane(jcgp.getPopulation().get(i), gui, this));
+			}
+			chromosomeTabs.add(tab);
+		}
+		if (!turbo) {
+			getTabs().setAll(chromosomeTabs);
 		}
 	}
 		
+	/**
+	 * Brings the selected tab up to date with the population, and marks
+	 * the others as stale so they are updated when they are selected.
+	 */
 	public void updateGenes() {
+		markStale();
+		int index = getSelectionModel().getSelectedIndex();
+		if (!turbo && index >= 0) {
+			updateTab(index);
+		}
 		if (evaluating) {
 			evaluateTestCase(currentTestCase);
 		}
-		for (int i = 0; i < getTabs().size(); i++) {
-			((ChromosomePane) getTabs().get(i).getContent()).updateGenes(gui.getExperiment().getPopulation().get(i));
+	}
+	
+	/**
+	 * Marks every tab as stale.
+	 */
+	private void markStale() {
+		for (int i = 0; i < chromosomeTabs.size(); i++) {
+			view(i).markStale();
+		}
+	}
+	
+	/**
+	 * Brings a single tab up to date with its chromosome: the copy in
+	 * the latest snapshot while the experiment is running, the live
+	 * chromosome otherwise. If the experiment is running and there is
+	 * no suitable snapshot, or a test case is being evaluated, the tab
+	 * is left stale.
+	 * 
+	 * @param index the index of the tab.
+	 */
+	private void updateTab(int index) {
+		if (gui.isWorking()) {
+			PopulationSnapshot snapshot = gui.getExperiment().getSnapshot();
+			if (!evaluating && snapshot != null && snapshot.hasChromosomes() && index < snapshot.size()) {
+				view(index).updateGenes(snapshot.getChromosome(index));
+			}
+		} else {
+			view(index).updateGenes(gui.getExperiment().getPopulation().get(index));
 		}
 	}
 	
 	public void unlockOutputs() {
-		for (int i = 0; i < getTabs().size(); i++) {
-			((ChromosomePane) getTabs().get(i).getContent()).unlockOutputs();
+		for (int i = 0; i < chromosomeTabs.size(); i++) {
+			view(i).unlockOutputs();
 		}
 	}
 	
 	public void relockOutputs() {
-		for (int i = 0; i < getTabs().size(); i++) {
-			((ChromosomePane) getTabs().get(i).getContent()).relockOutputs();
+		for (int i = 0; i < chromosomeTabs.size(); i++) {
+			view(i).relockOutputs();
 		}
 	}
 	
@@ -60,8 +257,12 @@ public class PopulationPane extends TabPane {
 			currentTestCase = testCase;
 			if (testCase.getInputs().length == gui.getExperiment().getResources().inputs()) {
 				evaluating = true;
-				for (int i = 0; i < getTabs().size(); i++) {
-					((ChromosomePane) getTabs().get(i).getContent()).setInputs(testCase.getInputs());
+				for (int i = 0; i < chromosomeTabs.size(); i++) {
+					// stale views may still show a snapshot, which must not be evaluated
+					if (view(i).isStale() && !gui.isWorking()) {
+						updateTab(i);
+					}
+					view(i).setInputs(testCase.getInputs());
 				}
 			} else {
 				throw new IllegalArgumentException("Test case has " + testCase.getInputs().length
@@ -72,8 +273,8 @@ public class PopulationPane extends TabPane {
 	
 	public void hideValues() {
 		evaluating = false;
-		for (int i = 0; i < getTabs().size(); i++) {
-			((ChromosomePane) getTabs().get(i).getContent()).updateValues();
+		for (int i = 0; i < chromosomeTabs.size(); i++) {
+			view(i).updateValues();
 		}
 	}
 
@@ -398,7 +398,16 @@ public class SettingsPane extends AnchorPane {
 		HBox.setHgrow(saveChromosome, Priority.ALWAYS);
 		saveChromosome.setMaxWidth(Double.MAX_VALUE);
 		
-		controls.getChildren().addAll(header, flowButtons, loadParameters, loadChromosome, saveChromosome);
+		final CheckBox turbo = new CheckBox("Turbo (hide chromosomes)");
+		turbo.setOnAction(new EventHandler<ActionEvent>() {
+			@Override
+			public void handle(ActionEvent event) {
+				gui.setTurbo(turbo.isSelected());
+			}
+		});
+		turbo.setPadding(new Insets(0, 0, 10, 0));
+		
+		controls.getChildren().addAll(header, flowButtons, turbo, loadParameters, loadChromosome, saveChromosome);
 		
 		mainContainer.getChildren().add(controls);	
 	}
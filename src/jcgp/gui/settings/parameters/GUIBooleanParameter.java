@@ -62,12 +62,12 @@ public class GUIBooleanParameter extends GUIParameter<Boolean> {
 		if (parameter.getStatus() == ParameterStatus.INVALID) {
 			checkBox.setStyle(Constants.BASE_CHECKBOX_STYLE + Constants.INVALID_PARAMETER_STYLE);
 			checkBox.setTooltip(tooltip);
-			tooltip.setText(parameter.getStatus().getDetails());
+			tooltip.setText(parameter.getDetails());
 		} else if (parameter.getStatus() == ParameterStatus.WARNING 
 				|| parameter.getStatus() == ParameterStatus.WARNING_RESET) {
 			checkBox.setStyle(Constants.BASE_CHECKBOX_STYLE + Constants.WARNING_PARAMETER_STYLE);
 			checkBox.setTooltip(tooltip);
-			tooltip.setText(parameter.getStatus().getDetails());
+			tooltip.setText(parameter.getDetails());
 		} else {
 			checkBox.setStyle(Constants.BASE_CHECKBOX_STYLE + Constants.VALID_PARAMETER_STYLE);
 			checkBox.setTooltip(null);
@@ -90,11 +90,11 @@ public class GUIDoubleParameter extends GUIParameter<Number> {
 		if (parameter.getStatus() == ParameterStatus.INVALID) {
 			textField.setStyle(Constants.BASE_TEXT_STYLE + Constants.INVALID_PARAMETER_STYLE);
 			textField.setTooltip(tooltip);
-			tooltip.setText(parameter.getStatus().getDetails());
+			tooltip.setText(parameter.getDetails());
 		} else if (parameter.getStatus() == ParameterStatus.WARNING || parameter.getStatus() ==  ParameterStatus.WARNING_RESET) {
 			textField.setStyle(Constants.BASE_TEXT_STYLE + Constants.WARNING_PARAMETER_STYLE);
 			textField.setTooltip(tooltip);
-			tooltip.setText(parameter.getStatus().getDetails());
+			tooltip.setText(parameter.getDetails());
 		} else {
 			textField.setStyle(Constants.BASE_TEXT_STYLE + Constants.VALID_PARAMETER_STYLE);
 			textField.setTooltip(null);
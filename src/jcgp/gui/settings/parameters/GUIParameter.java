@@ -3,8 +3,6 @@ package jcgp.gui.settings.parameters;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javafx.application.Platform;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.geometry.Pos;
 import javafx.scene.control.Control;
 import javafx.scene.control.Label;
@@ -14,6 +12,7 @@ import jcgp.backend.parameters.BooleanParameter;
 import jcgp.backend.parameters.DoubleParameter;
 import jcgp.backend.parameters.IntegerParameter;
 import jcgp.backend.parameters.Parameter;
+import jcgp.backend.parameters.ParameterListener;
 import jcgp.backend.parameters.ParameterStatus;
 import jcgp.gui.settings.SettingsPane;
 
@@ -121,19 +120,19 @@ public abstract class GUIParameter<T> extends HBox {
 
 	/**
 	 * Parameters are intended to communicate information from the experiment
-	 * to the GUI. Since the experiment runs on a separate threads and it is illegal
+	 * to the GUI. Since the experiment runs on a separate thread (and monitors
+	 * are published from yet another one) and it is illegal
 	 * to modify JavaFX objects from outside the JavaFX Application thread, this
-	 * special ChangeListener updates the GUIParameter in a safe way.
+	 * special ParameterListener updates the GUIParameter in a safe way.
 	 * <br><br>
 	 * Note that this is applied to all parameters regardless of whether they are 
 	 * monitors or not; the only difference between monitor and non-monitor parameters
 	 * is that monitor parameters cannot be modified from the GUI.
 	 */
 	private void makeThreadSafeBinding() {
-		parameter.valueProperty().addListener(new ChangeListener<Object>() {
+		parameter.addListener(new ParameterListener<Object>() {
 			@Override
-			public void changed(
-					ObservableValue<? extends Object> observable,
+			public void changed(Parameter<? extends Object> source,
 					Object oldValue, Object newValue) {
 				// only do this if the experiment is running
 				if (settingsPane.isExperimentRunning() || !isFocused()) {
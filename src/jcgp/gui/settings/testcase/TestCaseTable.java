@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
@@ -24,6 +25,10 @@ import jcgp.gui.GUI;
  * this table shows the test case inputs and outputs. Clicking on 
  * a test case (one is shown per row) applies the values to all 
  * chromosome inputs shows the calculated values throughout the chromosome.
+ * <br><br>
+ * The table does not copy the test cases; it is a lazy view over the
+ * problem's test case data, so large data sets can be displayed without
+ * creating an object for every row up front.
  * 
  * @author Eduardo Pedroni
  *
@@ -45,8 +50,8 @@ public class TestCaseTable extends Stage {
 		
 		// create the actual table view
 		table = new TableView<TestCase<Object>>();
-		// get test cases from problem
-		ObservableList<TestCase<Object>> testCaseList = testCaseProblem.getTestCases();
+		// wrap the problem's test case view, rows are only created as the table displays them
+		ObservableList<TestCase<Object>> testCaseList = FXCollections.observableList(testCaseProblem.getTestCases());
 		
 		// prepare input and output columns
 		ArrayList<TableColumn<TestCase<Object>, String>> inputs = new ArrayList<TableColumn<TestCase<Object>, String>>(resources.inputs());